@@ -12,5 +12,11 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ AssignmentTest.class, CategoryTest.class, GradeRangeTest.class, GradeSchemeTest.class, GroupTest.class, HistogramTest.class,
-        NameTest.class, LetterGradeTest.class, PercentageTest.class, PieChartTest.class, StatisticsTest.class, StudentTest.class, WorkSpaceTest.class, PredictionTest.class} )
+        NameTest.class, LetterGradeTest.class, PercentageTest.class, PieChartTest.class, StatisticsTest.class, StudentTest.class, WorkSpaceTest.class, PredictionTest.class,
+        DenseScoresTest.class, AssignmentTreeTest.class, TotalsCacheTest.class,
+        RunningStatisticsTest.class, StatsContainerTest.class,
+        CurveSimulatorTest.class, CurveFitterTest.class, PredictionMatrixTest.class,
+        GradeForecastTest.class, FindTest.class, RosterTrieTest.class,
+        ScoreQueryTest.class, SpreadsheetTest.class, RapidEntryTest.class,
+        EventBusTest.class} )
 public final class TestSuite {}
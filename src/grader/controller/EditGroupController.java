@@ -19,6 +19,7 @@ import javafx.stage.Stage;
 import javax.naming.InvalidNameException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 
 import static grader.model.gradebook.WorkSpace.instance;
 
@@ -75,16 +76,15 @@ public class EditGroupController
     public void filterRoster(KeyEvent event)
     {
 
+        // the trie returns matches already sorted
+        HashSet<Student> inGroup = new HashSet<Student>(formedGroup);
         ArrayList<Student> filteredList = new ArrayList<Student>();
-        for (Student student : instance.getSection().getStudents())
+        for (Student student : instance.getSection().getRosterTrie().find(tfStudentSearch.getText()))
         {
-            if (student.name.toString().toLowerCase().contains(tfStudentSearch.getText().toLowerCase()) &&
-                    !formedGroup.contains(student))
+            if (!inGroup.contains(student))
                 filteredList.add(student);
         }
         sectionRoster = FXCollections.observableArrayList(filteredList);
-        formedGroup.sort(comparator);
-        sectionRoster.sort(comparator);
         lRosterList.setItems(sectionRoster);
     }
 
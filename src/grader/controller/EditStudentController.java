@@ -65,6 +65,7 @@ public class EditStudentController
         {
             currentStudent.editStudentInfo(new Name(tfFirst.getText(), tfMiddle
                     .getText(), tfLast.getText()), tfUserID.getText(), tfP1.getText() + tfP2.getText() + tfP3.getText());
+            WorkSpace.instance.studentChanged(currentStudent);
         }
         catch (NameFormatException e)
         {
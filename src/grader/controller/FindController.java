@@ -1,6 +1,8 @@
 package grader.controller;
 
 import grader.model.edit.Find;
+import grader.model.gradebook.Course;
+import grader.model.gradebook.WorkSpace;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -10,6 +12,7 @@ import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.net.URL;
+import java.util.Collection;
 import java.util.ResourceBundle;
 
 /**
@@ -30,7 +33,7 @@ public class FindController implements Initializable {
      * Constructor.
      */
     public FindController() {
-        find = new Find();
+        find = WorkSpace.instance.getFind();
     }
 
     @Override
@@ -45,10 +48,10 @@ public class FindController implements Initializable {
         findType.setItems(findOptions);
 
         ObservableList<String> courseOptions =
-                FXCollections.observableArrayList(
-                        "All",
-                        "CPE 309"
-                );
+                FXCollections.observableArrayList("All");
+        for (Course course : WorkSpace.instance.getGradebook().courses) {
+            courseOptions.add(course.name);
+        }
         courseBox.setValue(courseOptions.get(0));
         courseBox.setItems(courseOptions);
     }
@@ -60,14 +63,44 @@ public class FindController implements Initializable {
     public void onFindButtonPress(ActionEvent actionEvent)
     {
         String courseName = (String) courseBox.getValue();
+        if ("All".equals(courseName)) {
+            courseName = null;
+        }
         String name = nameField.getText();
+        Collection<?> found;
         if (findType.getValue().equals("Student")) {
-            find.findStudents(name, courseName);
+            found = find.findStudents(name, courseName);
         } else {
-            find.findAssignments(name, courseName);
+            found = find.findAssignments(name, courseName);
         }
-        Stage stage = (Stage) findButton.getScene().getWindow();
-        stage.close();
+        showResults(found);
+        if (!found.isEmpty()) {
+            Stage stage = (Stage) findButton.getScene().getWindow();
+            stage.close();
+        }
+    }
+
+    /**
+     * Shows the matches of a search, one per line, leaving the dialog open
+     * to search again if nothing matched.
+     * @param found the matching students or assignments
+     */
+    private void showResults(Collection<?> found)
+    {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Find");
+        if (found.isEmpty()) {
+            alert.setHeaderText("No matches");
+            alert.setContentText("Nothing matches \"" + nameField.getText() + "\".");
+        } else {
+            alert.setHeaderText(found.size() + (found.size() == 1 ? " match" : " matches"));
+            StringBuilder text = new StringBuilder();
+            for (Object match : found) {
+                text.append(match).append('\n');
+            }
+            alert.setContentText(text.toString());
+        }
+        alert.showAndWait();
     }
 
     /**
@@ -3,6 +3,10 @@ package grader.controller;
 import grader.model.errors.OverlappingRangeException;
 import grader.model.errors.PercentageFormatException;
 import grader.model.gradebook.WorkSpace;
+import grader.model.gradebook.events.GradeSchemeChanged;
+import grader.model.gradebook.events.ScopeChanged;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
 import grader.model.gradebook.gradescheme.GradeRange;
 import grader.model.gradebook.gradescheme.GradeScheme;
 import grader.model.gradebook.gradescheme.LetterGrade;
@@ -17,8 +21,6 @@ import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
 
 /**
  * GradeSchemeController is the controller for the 'GradeScheme' menu option.
@@ -27,7 +29,7 @@ import java.util.Observer;
  *
  * @author Tobias Bleisch
  */
-public class GradeSchemeController implements Observer {
+public class GradeSchemeController implements WorkSpaceListener<WorkSpaceEvent> {
     @FXML ColorPicker A_PLUS_COLOR;
     @FXML ColorPicker A_COLOR;
     @FXML ColorPicker A_MINUS_COLOR;
@@ -81,10 +83,16 @@ public class GradeSchemeController implements Observer {
      * thread from the WorkSpace.
      */
     public GradeSchemeController() {
-        WorkSpace.instance.addObserver(this);
+        WorkSpace.instance.getEventBus().subscribe(GradeSchemeChanged.class, this);
+        WorkSpace.instance.getEventBus().subscribe(ScopeChanged.class, this);
     }
 
-    public void update(Observable obs, Object obj) {
+    /**
+     * Reloads the menu when the grade scheme or the scope changes.
+     * @param event the change
+     */
+    @Override
+    public void handle(WorkSpaceEvent event) {
         initialize();
     }
 
@@ -31,8 +31,8 @@ public class HistogramController implements Initializable {
     //private boolean smallData = true;
     private static final DataFormat SERIALIZED_MIME_TYPE = new DataFormat("application/x-java-serialized-object");
 
-    private int drag;
-    private int drop;
+    private double drag;
+    private double drop;
 
     private Section section = new Section();
     private Histogram hist;
@@ -56,6 +56,12 @@ public class HistogramController implements Initializable {
     @FXML private javafx.scene.control.Button cancelButton;
     @FXML private javafx.scene.control.Button saveButton;
     @FXML private javafx.scene.control.Button updateButton;
+    @FXML private javafx.scene.control.ComboBox<Double> binWidthBox;
+
+    /**
+     * Bin widths the user may pick, in percentage points.
+     */
+    private static final Double[] BIN_WIDTHS = {1.0, 0.5, 0.1};
 
 
     @FXML
@@ -74,6 +80,17 @@ public class HistogramController implements Initializable {
         hist.apply();
     }
 
+    @FXML
+    private void binWidthAction(ActionEvent event)
+    {
+        Double width = binWidthBox.getValue();
+        if (width != null && width != hist.getBinWidth())
+        {
+            hist.setBinWidth(width);
+            initializeData();
+        }
+    }
+
     @FXML
     private void cancelButtonAction(ActionEvent event)
     {
@@ -91,6 +108,8 @@ public class HistogramController implements Initializable {
 
 
         hist = WorkSpace.instance.getHistogram();
+        binWidthBox.setItems(FXCollections.observableArrayList(BIN_WIDTHS));
+        binWidthBox.setValue(hist.getBinWidth());
         initializeData();
 
 
@@ -142,7 +161,7 @@ public class HistogramController implements Initializable {
                                                  //moving = letter.getSelectionModel().getSelectedItem();
                                                  String selected = letter.getItem();
                                                  if (selected != " ") {
-                                                     drag = 100 - letter.getIndex();
+                                                     drag = percentAt(letter.getIndex());
                                                      //System.out.println(selected);
                                                      Dragboard db = letter.startDragAndDrop(TransferMode.ANY);
                                                      ClipboardContent content = new ClipboardContent();
@@ -187,7 +206,7 @@ public class HistogramController implements Initializable {
                             //System.out.println(text);
                             //System.out.println(letter.getText());
 
-                            drop = 100 - letter.getIndex();
+                            drop = percentAt(letter.getIndex());
                             hist.adjustHistogram(drag, drop, text);
                             initializeData();
                             //System.out.println(drop);
@@ -223,12 +242,22 @@ public class HistogramController implements Initializable {
     {
         data.removeAll(data);
 
-        for (int i = 100; i >= 0; i--) {
-            data.add(hist.getEntry((double) i));
+        for (int i = hist.getBinCount() - 1; i >= 0; i--) {
+            data.add(hist.getEntry(hist.getPercent(i)));
         }
 
         table.setItems(data);
 
     }
 
+    /**
+     * Gets the percent shown in a table row, with 100% in the top row.
+     * @param row table row index
+     * @return percent of the row
+     */
+    private double percentAt(int row)
+    {
+        return hist.getPercent(hist.getBinCount() - 1 - row);
+    }
+
 }
@@ -3,6 +3,8 @@ package grader.controller;
 import grader.Main;
 import grader.model.gradebook.WorkSpace;
 import grader.model.gradebook.Course;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -13,14 +15,12 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.Observable;
-import java.util.Observer;
 
 /**
  * Controller for the top level menubar.
  * @author Jon Amireh
  */
-public class MenubarController implements Observer
+public class MenubarController implements WorkSpaceListener<WorkSpaceEvent>
 {
     private Stage lockedStage;
     private Stage histogramStage;
@@ -43,8 +43,9 @@ public class MenubarController implements Observer
     @FXML
     public void initialize()
     {
-        WorkSpace.instance.addObserver(this);
-        update(null, null);
+        // every kind of change can enable or disable a menu item
+        WorkSpace.instance.getEventBus().subscribe(WorkSpaceEvent.class, this);
+        refreshItems();
         lockedStage = new Stage();
         lockedStage.initModality(Modality.APPLICATION_MODAL);
         piechartStage = new Stage();
@@ -53,7 +54,7 @@ public class MenubarController implements Observer
     }
 
     @Override
-    public void update(Observable o, Object arg)
+    public void handle(WorkSpaceEvent event)
     {
         refreshItems();
     }
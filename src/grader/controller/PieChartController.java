@@ -10,9 +10,11 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.net.URL;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 import grader.model.gradebook.*;
+import grader.model.gradebook.gradescheme.LetterGrade;
 
 public class PieChartController implements Initializable{
 
@@ -33,44 +35,12 @@ public class PieChartController implements Initializable{
 
         pieChartData = FXCollections.observableArrayList();
 
-        if (temp.getNumAPlus() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("A+", temp.getNumAPlus()));
-
-        if (temp.getNumA() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("A", temp.getNumA()));
-
-        if (temp.getNumAMinus() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("A-", temp.getNumAMinus()));
-
-        if (temp.getNumBPlus() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("B+", temp.getNumBPlus()));
-
-        if (temp.getNumB() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("B", temp.getNumB()));
-
-        if (temp.getNumBMinus() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("B-", temp.getNumBMinus()));
-
-        if (temp.getNumCPlus() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("C+", temp.getNumCPlus()));
-
-        if (temp.getNumC() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("C", temp.getNumC()));
-
-        if (temp.getNumCMinus() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("C-", temp.getNumCMinus()));
-
-        if (temp.getNumDPlus() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("D+", temp.getNumDPlus()));
-
-        if (temp.getNumD() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("D", temp.getNumD()));
-
-        if (temp.getNumDMinus() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("D-", temp.getNumDMinus()));
-
-        if (temp.getNumF() != 0)
-            pieChartData.add(new javafx.scene.chart.PieChart.Data("F", temp.getNumF()));
+        for (Map.Entry<LetterGrade, Double> slice : temp.getDistribution().entrySet())
+        {
+            if (slice.getValue() != 0)
+                pieChartData.add(new javafx.scene.chart.PieChart.Data(
+                        slice.getKey().letter, slice.getValue()));
+        }
 
         piechart.setData(pieChartData);
 
@@ -44,8 +44,8 @@ public class PredictionController {
         pAssignment.setText(score.getAssignment().toString());
         pAssignmentGrade.setText(format.format(score.getScore()));
         pCurTotal.setText(format.format(WorkSpace.instance.getAssignmentTree()
-                .calculatePercentage(WorkSpace.instance.getScores()
-                        .getScoresMap(score.getStudent())).getValue()));
+                .calculatePercentage(WorkSpace.instance.getScores(),
+                        score.getStudent()).getValue()));
         pRequired.setText("??");
     }
 
@@ -4,6 +4,10 @@ import grader.model.gradebook.WorkSpace;
 import grader.model.gradebook.Course;
 import grader.model.gradebook.Gradebook;
 import grader.model.gradebook.Section;
+import grader.model.gradebook.events.RosterChanged;
+import grader.model.gradebook.events.ScopeChanged;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
 import grader.model.people.Group;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
@@ -20,7 +24,7 @@ import java.util.*;
  * Controller for the Sidebar model
  * @author Jon Amireh
  */
-public class SidebarController implements Initializable, Observer
+public class SidebarController implements Initializable, WorkSpaceListener<WorkSpaceEvent>
 {
     @FXML TreeView<String> tvCourses;
 
@@ -32,8 +36,9 @@ public class SidebarController implements Initializable, Observer
     @Override
     public void initialize(URL location, ResourceBundle resources)
     {
-        // Add observer once weird FX bullshit is fixed.
-        WorkSpace.instance.addObserver(this);
+        // The tree only shows courses, sections, and groups.
+        WorkSpace.instance.getEventBus().subscribe(ScopeChanged.class, this);
+        WorkSpace.instance.getEventBus().subscribe(RosterChanged.class, this);
 
         tvCourses.getSelectionModel().selectedItemProperty().addListener(
                 new ChangeListener<TreeItem<String>>() {
@@ -102,7 +107,7 @@ public class SidebarController implements Initializable, Observer
                         }
                     }
                 });
-       update(null, null);
+       handle(null);
     }
 
     public void render()
@@ -236,29 +241,13 @@ public class SidebarController implements Initializable, Observer
     }
 
     /**
-     * Update method from the WorkSpace.
+     * Handles a scope or roster change from the WorkSpace.
      * Gets the workspace gradebook.
-     * @param obj unused
-     * @param args unused
+     * @param event unused
      */
-    public void update(Observable obj, Object args) {
-        boolean ignoreMe = false;
-        if(args != null)
-        {
-            Class[] toIgnore = ((Class[]) args);
-            for(int i = 0; i < toIgnore.length; i++)
-            {
-                if(toIgnore[i] == getClass())
-                {
-                    ignoreMe = true;
-                    break;
-                }
-            }
-        }
-        if(!ignoreMe)
-        {
-            this.gradebook = WorkSpace.instance.getGradebook();
-            render();
-        }
+    @Override
+    public void handle(WorkSpaceEvent event) {
+        this.gradebook = WorkSpace.instance.getGradebook();
+        render();
     }
 }
@@ -1,17 +1,19 @@
 package grader.controller;
 
+import grader.model.edit.RapidEntry;
+import grader.model.gradebook.Spreadsheet;
 import grader.model.gradebook.WorkSpace;
-import grader.model.gradebook.scores.RawScore;
-import grader.model.gradebook.scores.Scores;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
 import grader.model.items.Assignment;
-import grader.model.items.AssignmentTree;
-import grader.model.items.Percentage;
 import grader.model.people.Student;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -19,30 +21,80 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TablePosition;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.TextFieldTableCell;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.HBox;
 import javafx.util.Callback;
+import javafx.util.Duration;
 
 import java.net.URL;
-import java.text.DecimalFormat;
-import java.util.*;
+import java.util.ResourceBundle;
 
 
 /**
  * Controller for the grade spreadsheet.
+ * <p>
+ * The table's rows are the students of the Spreadsheet model, and each cell
+ * reads its text from the model when the table draws it, so only the rows
+ * on screen are ever formatted.  On a WorkSpace update the model reports
+ * what changed: the columns are only rebuilt when the assignments change,
+ * the rows are only refilled when the roster changes, in place so the
+ * user's column sort and selection survive, and a single grade edit only
+ * redraws that student's row, wherever the sort has put it.
+ * <p>
+ * Shortcut+R toggles rapid entry, and Escape turns it off.  In rapid entry
+ * each committed grade is buffered by a RapidEntry, its row is redrawn, and
+ * the next row of the same column is opened for editing, so entering a
+ * grade costs the same however large the section is.  A blank entry skips
+ * the student.  The rest of the views catch up when the buffered grades are
+ * flushed, at most once per interval while typing and once typing pauses
+ * for the interval.  The interval is set by the grader.rapidEntry.interval
+ * system property.
  * @author Jon Amireh
  * @author Alexander Miller
  * @author Gregory Davis
  */
-public class SpreadsheetController implements Initializable, Observer
+public class SpreadsheetController implements Initializable, WorkSpaceListener<WorkSpaceEvent>
 {
     @FXML HBox hbTable;
 
-    static TableView<SpreadsheetCell[]> table = null;
+    static TableView<Student> table = null;
     private int totalGradeIndex;
+
+    /**
+     * Row model of the students and assignments shown.
+     */
+    private final Spreadsheet spreadsheet = new Spreadsheet();
+
+    /**
+     * Shortcut that toggles rapid entry.
+     */
+    private static final KeyCombination RAPID_ENTRY_KEY =
+          new KeyCodeCombination(KeyCode.R, KeyCombination.SHORTCUT_DOWN);
+
+    /**
+     * Buffer for grades typed in rapid entry.
+     */
+    private final RapidEntry rapidEntry =
+          new RapidEntry(WorkSpace.instance, RapidEntry.configuredInterval());
+
+    /**
+     * Flushes the last grades typed once entry pauses for the interval.
+     */
+    private final PauseTransition idleFlush =
+          new PauseTransition(Duration.millis(rapidEntry.getInterval()));
+
+    /**
+     * Set while rapid entry is flushing grades this table already shows.
+     */
+    private boolean flushing;
+
     @Override
     public void initialize(URL location, ResourceBundle resources)
     {
-       table = new TableView<SpreadsheetCell[]>();
+       table = new TableView<Student>();
        hbTable.setSpacing(5);
        hbTable.getChildren().addAll(table);
 
@@ -62,37 +114,130 @@ public class SpreadsheetController implements Initializable, Observer
                     if(!selectedCells.isEmpty())
                     {
                        TablePosition tablePosition = (TablePosition) selectedCells.get(0);
-                       SpreadsheetCell selectedCell = ((SpreadsheetCell[])selectionModel.getSelectedItem())[tablePosition.getColumn()];
+                       Student student = (Student) selectionModel.getSelectedItem();
+                       int column = tablePosition.getColumn();
 
-                       WorkSpace.instance.setSelectedScore(selectedCell.getScore());
-                       WorkSpace.instance.setSelectedStudent(selectedCell.getStudent());
+                       WorkSpace.instance.setSelectedScore(column != 0 && column != totalGradeIndex
+                             ? spreadsheet.getRawScore(student, column - 1) : null);
+                       WorkSpace.instance.setSelectedStudent(student);
                     }
                 }
             }
         });
 
-       WorkSpace.instance.addObserver(this);
-       update(null, null);
+       idleFlush.setOnFinished(new EventHandler<ActionEvent>() {
+          @Override
+          public void handle(ActionEvent event) {
+             flushing = true;
+             try {
+                rapidEntry.flushIfIdle();
+             } finally {
+                flushing = false;
+             }
+          }
+       });
+
+       table.addEventFilter(KeyEvent.KEY_PRESSED, new EventHandler<KeyEvent>() {
+          @Override
+          public void handle(KeyEvent event) {
+             if (RAPID_ENTRY_KEY.match(event)) {
+                if (rapidEntry.isActive()) stopRapidEntry();
+                else rapidEntry.start();
+                event.consume();
+             }
+             else if (event.getCode() == KeyCode.ESCAPE && rapidEntry.isActive()
+                   && table.getEditingCell() == null) {
+                stopRapidEntry();
+                event.consume();
+             }
+          }
+       });
+
+       for (Class<? extends WorkSpaceEvent> type : WorkSpace.SCOPE_EVENTS) {
+          WorkSpace.instance.getEventBus().subscribe(type, this);
+       }
+       handle(null);
     }
 
-    public void setupGradebook(String[] headers, SpreadsheetCell[][] grades)
+    /**
+     * Turns rapid entry off, flushing the buffered grades.
+     */
+    private void stopRapidEntry()
+    {
+       idleFlush.stop();
+       flushing = true;
+       try {
+          rapidEntry.stop();
+       } finally {
+          flushing = false;
+       }
+    }
+
+    /**
+     * Buffers a grade typed in rapid entry, redraws its row, and opens the
+     * next row of the column for editing.  A blank entry skips the student.
+     * @throws NumberFormatException if the entry is not a number, which
+     * leaves the cursor where it is
+     */
+    private void enterRapidly(TableColumn.CellEditEvent<Student, String> t,
+                              Assignment assignment)
+    {
+       String text = t.getNewValue() == null ? "" : t.getNewValue().trim();
+       int row = t.getTablePosition().getRow();
+       if (!text.isEmpty()) {
+          double score = Double.parseDouble(text);
+          flushing = true;
+          try {
+             rapidEntry.enter(t.getRowValue(), assignment, score);
+          } finally {
+             flushing = false;
+          }
+          table.getItems().set(row, t.getRowValue());
+          idleFlush.playFromStart();
+       }
+
+       final int next = row + 1;
+       final TableColumn<Student, String> column = t.getTableColumn();
+       if (next < table.getItems().size()) {
+          // the cell ends its own edit after this handler returns, which
+          // would cancel an edit opened here
+          Platform.runLater(new Runnable() {
+             @Override
+             public void run() {
+                table.getSelectionModel().clearAndSelect(next, column);
+                table.scrollTo(next);
+                table.edit(next, column);
+             }
+          });
+       }
+    }
+
+    /**
+     * Rebuilds the columns for the assignments in the model.
+     */
+    public void setupColumns()
     {
        table.setEditable(true);
        table.getColumns().clear();
 
-       for (int i = 0; i < headers.length; i++) {
-          TableColumn tc = new TableColumn(headers[i]);
+       int assignmentCount = spreadsheet.getAssignments().size();
+       totalGradeIndex = assignmentCount + 1;
+       for (int i = 0; i <= totalGradeIndex; i++) {
+          String header = i == 0 ? "Student"
+                : i == totalGradeIndex ? "Total Grade"
+                : spreadsheet.getHeaders().get(i - 1);
+          TableColumn<Student, String> tc = new TableColumn<Student, String>(header);
           tc.setEditable(i != 0 && i != totalGradeIndex);
           final int colNo = i;
-          tc.setCellFactory(TextFieldTableCell.<SpreadsheetCell[]>forTableColumn());
+          tc.setCellFactory(TextFieldTableCell.<Student>forTableColumn());
 
           tc.setCellValueFactory(
-                new Callback<TableColumn.CellDataFeatures<SpreadsheetCell[], String>,
+                new Callback<TableColumn.CellDataFeatures<Student, String>,
                       ObservableValue<String>>() {
                    @Override
                    public ObservableValue<String> call(
-                         TableColumn.CellDataFeatures<SpreadsheetCell[], String> p) {
-                      return new SimpleStringProperty(((p.getValue()[colNo].toString())));
+                         TableColumn.CellDataFeatures<Student, String> p) {
+                      return new SimpleStringProperty(cellText(p.getValue(), colNo));
                    }
                 });
           tc.setPrefWidth(90);
@@ -101,20 +246,18 @@ public class SpreadsheetController implements Initializable, Observer
           // Make score cell columns editable.
           if (i != 0 && i != totalGradeIndex) {
              tc.setOnEditCommit(
-                   new EventHandler<TableColumn.CellEditEvent<SpreadsheetCell[], String>>() {
+                   new EventHandler<TableColumn.CellEditEvent<Student, String>>() {
                       @Override
-                      public void handle(TableColumn.CellEditEvent<SpreadsheetCell[], String> t) {
-                         int row = t.getTablePosition().getRow();
-                         int col = t.getTablePosition().getColumn();
-                         ObservableList<SpreadsheetCell[]> ol = t.getTableView().getItems();
-                         ol.get(row)[col].hasChanged = true;
-                         RawScore rawScore = ol.get(row)[col].getScore();
+                      public void handle(TableColumn.CellEditEvent<Student, String> t) {
                          try
                          {
-                            if (t.getOldValue() != t.getNewValue()) {
+                            Assignment assignment = spreadsheet.getAssignments().get(colNo - 1);
+                            if (rapidEntry.isActive()) {
+                               enterRapidly(t, assignment);
+                            }
+                            else if (!t.getNewValue().equals(t.getOldValue())) {
                                WorkSpace.instance.updateGrade(
-                                     rawScore.getStudent(),
-                                     rawScore.getAssignment(),
+                                     t.getRowValue(), assignment,
                                      Double.parseDouble(t.getNewValue()));
                             }
                          } catch (Exception e) {
@@ -124,124 +267,71 @@ public class SpreadsheetController implements Initializable, Observer
              );
           }
        }
-
-       ObservableList<SpreadsheetCell[]> data = FXCollections.observableArrayList();
-       data.addAll(Arrays.asList(grades));
-
-       table.setItems(data);
     }
 
-   public void update(Observable obs, Object args) {
-       boolean ignoreMe = false;
-       if(args != null)
-       {
-           Class[] toIgnore = ((Class[]) args);
-           for(int i = 0; i < toIgnore.length; i++)
-           {
-               if(toIgnore[i] == getClass())
-               {
-                   ignoreMe = true;
-                   break;
-               }
-           }
-       }
-       if(!ignoreMe)
-       {
-           List<Assignment> assignments = new ArrayList<Assignment>();
-           AssignmentTree.AssignmentIterator itr =
-                   WorkSpace.instance.getAssignmentTree().getAssignmentIterator();
-
-           while (itr.hasNext())
-           {
-               Assignment assignment = itr.next();
-               assignments.add(assignment);
-           }
-
-           List<Student> students = WorkSpace.instance.getStudents();
-           Collections.sort(students);
-           Scores scores = WorkSpace.instance.getScores();
-
-           SpreadsheetCell[][] grades = new SpreadsheetCell[students.size()][assignments.size() + 2];
-           String[] headers = new String[assignments.size() + 2];
-           headers[0] = "Student";
-            headers[assignments.size() + 1] = "Total Grade";
-           // Populate scores table
-           for (int studentIndex = 0; studentIndex < students.size(); ++studentIndex)
-           {
-               Student student = students.get(studentIndex);
-               grades[studentIndex][0] = new SpreadsheetCell(student);
-               for (int assignmentIndex = 0; assignmentIndex < assignments.size(); ++assignmentIndex)
-               {
-                   grades[studentIndex][assignmentIndex + 1] =
-                           new SpreadsheetCell(scores.getScoresMap(student).get(assignments.get(assignmentIndex)));
+   /**
+    * Brings the table up to date when the scope, the assignments, or the
+    * scores change, redoing as little of it as the change needs.
+    * @param event the change
+    */
+   @Override
+   public void handle(WorkSpaceEvent event) {
+       WorkSpace workspace = WorkSpace.instance;
+       Spreadsheet.Change change = spreadsheet.update(
+               workspace.getAssignmentTree().getAssignments(),
+               workspace.getAssignmentTree().getGradingPlan(),
+               workspace.getStudents(), workspace.getScores(),
+               workspace.getLastChange());
+
+       switch (change) {
+           case COLUMNS:
+               setupColumns();
+               refreshRows();
+               break;
+           case CELLS:
+               // rapid entry redrew each edited row as it went
+               if (!flushing) {
+                   refreshRows();
                }
-               for (int assignmentIndex = 0; assignmentIndex < assignments.size(); ++assignmentIndex)
-               {
-                   grades[studentIndex][assignments.size() + 1] =
-                           new SpreadsheetCell(student, WorkSpace.instance.getAssignmentTree()
-                                   .calculatePercentage(WorkSpace.instance.getScores()
-                                           .getScoresMap(student)));
+               break;
+           case ROWS:
+               // cells are only drawn for the rows on screen
+               refreshRows();
+               break;
+           case ROW:
+               // the table may be sorted differently from the model, so
+               // find the student's own row; replacing it with itself
+               // redraws just that row
+               int row = table.getItems().indexOf(workspace.getLastChange().getStudent());
+               if (row >= 0) {
+                   table.getItems().set(row, table.getItems().get(row));
                }
-           }
-           totalGradeIndex = assignments.size() + 1;
-
-           // Populate column headers
-           for (int assignmentIndex = 0; assignmentIndex < assignments.size(); ++assignmentIndex)
-           {
-               headers[assignmentIndex + 1] = assignments.get(assignmentIndex).toString();
-           }
+               break;
+           default:
+               break;
+       }
+   }
 
-           setupGradebook(headers, grades);
+   /**
+    * Refills the table's rows from the model in place, keeping the user's
+    * column sort and selected student.
+    */
+   private void refreshRows() {
+       Student selected = table.getSelectionModel().getSelectedItem();
+       table.getItems().setAll(spreadsheet.getStudents());
+       table.sort();
+       if (selected != null && table.getItems().contains(selected)) {
+           table.getSelectionModel().select(selected);
        }
    }
 
    /**
-    * Spreadsheet TableView cell for holding either a Student or a RawScore.
+    * Gets the text of a cell: the student's name, a score, or the total.
     */
-   private class SpreadsheetCell {
-      public Student student;
-      public RawScore rawScore;
-      public boolean hasChanged;
-      public Percentage percentage;
-
-      public SpreadsheetCell(Student student) {
-         this.student = student;
-         this.rawScore = null;
-         this.hasChanged = false;
-      }
-
-      public SpreadsheetCell(RawScore rawScore) {
-         this.rawScore = rawScore;
-         this.student = null;
-         this.hasChanged = false;
-      }
-
-      public SpreadsheetCell(Student student, Percentage percentage) {
-         this.rawScore = null;
-         this.student = student;
-         this.hasChanged = false;
-         this.percentage = percentage;
-      }
-
-      public RawScore getScore() {
-         return rawScore;
-      }
-
-      public Student getStudent() {
-         if (student == null)
-            return rawScore.getStudent();
-         return student;
-      }
-
-      public String toString() {
-         if (percentage != null) {
-             DecimalFormat format = new DecimalFormat("0.0");
-
-             return format.format(percentage.getValue());
-         }
-         if (student != null) return student.toString();
-         if (rawScore != null) return "" + rawScore.getScore();
-         return "";
-      }
+   private String cellText(Student student, int column) {
+      if (column == 0) return student.toString();
+      if (column == totalGradeIndex)
+         return Spreadsheet.formatTotal(WorkSpace.instance.getTotal(student));
+      return spreadsheet.getScoreText(student, column - 1);
    }
-}
\ No newline at end of file
+}
@@ -43,7 +43,7 @@ public class StatsController implements Initializable {
         table.setMaxWidth(1200);
         table.setMaxHeight(600);
         stats.setController(this);
-        stats.update(null, null);
+        stats.update();
     }
 
     /**
@@ -0,0 +1,186 @@
+package grader.model.curve;
+
+import grader.model.errors.OverlappingRangeException;
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The CurveFitter class finds the GradeScheme lower bounds that come
+ * closest to giving a set of totals a target letter distribution, in place
+ * of nudging cutoffs by hand through Histogram.adjustHistogram.
+ * <p>
+ * The target gives the percentage of students wanted in each letter; any
+ * share left over goes to F.  A share for a whole letter range, such as
+ * 15% in the A range, can be given to the middle letter with the plus and
+ * minus letters left out.  The totals are sorted once, and the letters
+ * are placed from A+ down by the cumulative share at or above each letter,
+ * so rounding in one letter does not pile up in the letters below it.  Each
+ * cutoff is placed at a student's total.  When students tied at that total
+ * would overfill the letter, the cutoff goes just above the tie instead if
+ * that comes closer to the target.  The bounds of letters that hold students
+ * are then kept at least a gap apart, below the ceiling, and above 0%.  A
+ * letter left empty, such as A+ when the whole A range is given to A, gets no
+ * gap: it is squeezed into the space between its neighbor above and the
+ * highest total below that neighbor, so it captures no students.
+ */
+public class CurveFitter
+{
+    /**
+     * Fits a curve to the given totals.
+     * @param base scheme to copy the colors and letters from; it is not
+     * modified
+     * @param totals the totals to grade, in any order; not modified
+     * @param target percentage of students wanted in each letter
+     * @param gap smallest allowed distance between the bounds of letters
+     * that hold students
+     * @return a new GradeScheme with the fitted lower bounds
+     * @throws IllegalArgumentException if a target share is negative, the
+     * shares add up to more than 100%, or the gap is not positive or too
+     * wide for every range to fit
+     */
+    public static GradeScheme fit(GradeScheme base, double[] totals,
+                                  EnumMap<LetterGrade, Double> target, double gap)
+    {
+        int last = base.ranges.size() - 1;
+        if (!(gap > 0) || gap * (last + 1) > GradeScheme.ceiling)
+        {
+            throw new IllegalArgumentException("The gap between bounds must be positive and leave room for every range");
+        }
+
+        double[] shares = new double[last + 1];
+        double sum = 0.0;
+        for (Map.Entry<LetterGrade, Double> entry : target.entrySet())
+        {
+            double share = entry.getValue();
+            if (share < 0)
+            {
+                throw new IllegalArgumentException("Please enter a target percentage greater than or equal to 0%");
+            }
+            shares[entry.getKey().ordinal()] = share;
+            sum += share;
+        }
+        if (sum > 100.0 + 1e-9)
+        {
+            throw new IllegalArgumentException("The target percentages add up to more than 100%");
+        }
+
+        double[] sorted = totals.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+
+        // a letter is empty when its cutoff does not come below the last one
+        double[] bounds = new double[last + 1];
+        boolean[] empty = new boolean[last + 1];
+        int held = 1;
+        double cumulative = 0.0;
+        double previous = GradeScheme.ceiling;
+        for (int i = 0; i < last; i++)
+        {
+            cumulative += shares[i];
+            int wanted = (int) Math.round(cumulative / 100.0 * n);
+            bounds[i] = cutoff(sorted, wanted);
+            empty[i] = bounds[i] >= previous;
+            if (!empty[i])
+            {
+                previous = bounds[i];
+                held++;
+            }
+        }
+        bounds[last] = 0.0;
+
+        // leave room above each held bound and room below for the others
+        double higher = GradeScheme.ceiling;
+        for (int i = 0; i < last; i++)
+        {
+            if (!empty[i])
+            {
+                held--;
+                bounds[i] = Math.max(gap * held, Math.min(bounds[i], higher - gap));
+                higher = bounds[i];
+            }
+        }
+
+        // spread each run of empty letters over the space above any total
+        for (int i = 0; i < last; i++)
+        {
+            if (!empty[i])
+                continue;
+            int end = i;
+            while (empty[end])
+                end++;
+            double top = i == 0 ? GradeScheme.ceiling : bounds[i - 1];
+            int below = firstIndex(sorted, top, false) - 1;
+            double bottom = below >= 0 ? Math.max(bounds[end], sorted[below]) : bounds[end];
+            double step = (top - bottom) / (end - i + 1);
+            for (int j = i; j < end; j++)
+                bounds[j] = top - step * (j - i + 1);
+            i = end;
+        }
+
+        GradeScheme fitted = base.copy();
+        try
+        {
+            fitted.setLowerBounds(bounds);
+        }
+        catch (OverlappingRangeException e)
+        {
+            // the clamping above keeps every bound in order
+            throw new IllegalStateException(e);
+        }
+        return fitted;
+    }
+
+    /**
+     * Picks the bound that puts as close to wanted students at or above it
+     * as ties allow.  A bound that should leave everyone out is put at the
+     * ceiling, which fit treats as an empty letter.
+     */
+    private static double cutoff(double[] sorted, int wanted)
+    {
+        int n = sorted.length;
+        if (n == 0 || wanted <= 0)
+        {
+            // nobody should reach this letter
+            return GradeScheme.ceiling;
+        }
+        if (wanted >= n)
+        {
+            return sorted[0];
+        }
+
+        double value = sorted[n - wanted];
+        int first = firstIndex(sorted, value, false);
+        int after = firstIndex(sorted, value, true);
+        int including = n - first;
+        int excluding = n - after;
+        if (wanted - excluding < including - wanted)
+        {
+            return after < n ? sorted[after] : GradeScheme.ceiling;
+        }
+        return value;
+    }
+
+    /**
+     * Finds the first index holding a value at or above, or strictly above
+     * when above is true, the given value.
+     */
+    private static int firstIndex(double[] sorted, double value, boolean above)
+    {
+        int from = 0;
+        int to = sorted.length;
+        while (from < to)
+        {
+            int mid = (from + to) >>> 1;
+            int cmp = Double.compare(sorted[mid], value);
+            if (above ? cmp > 0 : cmp >= 0)
+                to = mid;
+            else
+                from = mid + 1;
+        }
+        return from;
+    }
+}
@@ -0,0 +1,242 @@
+package grader.model.curve;
+
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The CurveSimulator class previews how candidate GradeSchemes would grade
+ * a fixed set of totals, without applying them to the WorkSpace.
+ * <p>
+ * The totals are sorted once.  Since a higher total never earns a lower
+ * letter, each scheme splits the sorted totals into one run per
+ * GradeRange, and a binary search for each lower bound finds where the runs
+ * start.  Evaluating a candidate therefore takes one search per range no
+ * matter how many students there are.  Comparing the run starts of a
+ * candidate with those of the baseline scheme counts the students whose
+ * letter would change.
+ */
+public class CurveSimulator
+{
+    /**
+     * Every LetterGrade, indexed by ordinal.
+     */
+    private static final LetterGrade[] LETTERS = LetterGrade.values();
+
+    /**
+     * Totals being graded, in ascending order.
+     */
+    private final double[] sorted;
+
+    /**
+     * Where each baseline GradeRange starts in the sorted totals.
+     */
+    private final int[] baseline;
+
+    /**
+     * Creates a simulator for the given totals, measuring changes against
+     * the given baseline scheme.  The totals are copied, so the caller's
+     * array is neither sorted nor kept.
+     * @param totals the totals to grade, in any order
+     * @param baseline the GradeScheme currently in use
+     */
+    public CurveSimulator(double[] totals, GradeScheme baseline)
+    {
+        this.sorted = totals.clone();
+        Arrays.sort(this.sorted);
+        this.baseline = starts(baseline);
+    }
+
+    /**
+     * Evaluates one candidate GradeScheme.
+     * @param candidate the scheme to try
+     * @return the distribution, mean GPA, and grade changes under candidate
+     */
+    public Result simulate(GradeScheme candidate)
+    {
+        int[] starts = starts(candidate);
+        int[] counts = new int[starts.length];
+        double points = 0.0;
+        int graded = 0;
+        int end = sorted.length;
+        for (int i = 0; i < starts.length; i++)
+        {
+            counts[i] = end - starts[i];
+            points += counts[i] * LETTERS[i].gradePoints;
+            graded += counts[i];
+            end = starts[i];
+        }
+        double meanGpa = graded == 0 ? Double.NaN : points / graded;
+        return new Result(candidate, counts, meanGpa, changed(starts));
+    }
+
+    /**
+     * Evaluates a batch of candidate GradeSchemes.
+     * @param candidates the schemes to try
+     * @return one Result per candidate, in the same order
+     */
+    public List<Result> simulate(List<GradeScheme> candidates)
+    {
+        List<Result> results = new ArrayList<Result>(candidates.size());
+        for (GradeScheme candidate : candidates)
+        {
+            results.add(simulate(candidate));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of totals being graded.
+     * @return the number of totals
+     */
+    public int size()
+    {
+        return sorted.length;
+    }
+
+    /**
+     * Finds where each GradeRange of a scheme starts in the sorted totals.
+     * Range i holds the totals from starts[i] up to starts[i - 1], and the
+     * A+ range runs to the end.
+     */
+    private int[] starts(GradeScheme scheme)
+    {
+        int[] starts = new int[scheme.ranges.size()];
+        for (int i = 0; i < starts.length; i++)
+        {
+            starts[i] = firstAtOrAbove(scheme.ranges.get(i).getLowerBound().getValue());
+        }
+        return starts;
+    }
+
+    /**
+     * Finds the index of the first total at or above a bound, comparing
+     * the same way GradeScheme.classify does.
+     */
+    private int firstAtOrAbove(double bound)
+    {
+        int from = 0;
+        int to = sorted.length;
+        while (from < to)
+        {
+            int mid = (from + to) >>> 1;
+            if (Double.compare(sorted[mid], bound) >= 0)
+                to = mid;
+            else
+                from = mid + 1;
+        }
+        return from;
+    }
+
+    /**
+     * Counts the totals whose letter differs between the baseline and a
+     * candidate.  Between consecutive run starts of either scheme both
+     * letters are constant, so only those stretches need comparing.
+     */
+    private int changed(int[] starts)
+    {
+        int[] edges = new int[baseline.length + starts.length + 2];
+        System.arraycopy(baseline, 0, edges, 0, baseline.length);
+        System.arraycopy(starts, 0, edges, baseline.length, starts.length);
+        edges[edges.length - 2] = 0;
+        edges[edges.length - 1] = sorted.length;
+        Arrays.sort(edges);
+
+        int changed = 0;
+        for (int i = 0; i + 1 < edges.length; i++)
+        {
+            int from = edges[i];
+            int to = edges[i + 1];
+            if (from < to && letterAt(baseline, from) != letterAt(starts, from))
+                changed += to - from;
+        }
+        return changed;
+    }
+
+    /**
+     * Finds the range holding the total at a sorted position, or -1 if it
+     * is below every lower bound.
+     */
+    private static int letterAt(int[] starts, int position)
+    {
+        for (int i = 0; i < starts.length; i++)
+        {
+            if (starts[i] <= position)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * The outcome of grading the totals with one candidate GradeScheme.
+     */
+    public static class Result
+    {
+        private final GradeScheme scheme;
+        private final int[] counts;
+        private final double meanGpa;
+        private final int changed;
+
+        /**
+         * Constructor for fields of Result.
+         */
+        Result(GradeScheme scheme, int[] counts, double meanGpa, int changed)
+        {
+            this.scheme = scheme;
+            this.counts = counts;
+            this.meanGpa = meanGpa;
+            this.changed = changed;
+        }
+
+        /**
+         * Returns the candidate scheme this Result is for.
+         * @return the candidate scheme
+         */
+        public GradeScheme getScheme()
+        {
+            return scheme;
+        }
+
+        /**
+         * Returns the number of students with each letter grade.
+         * @return counts indexed by LetterGrade ordinal
+         */
+        public int[] getCounts()
+        {
+            return counts.clone();
+        }
+
+        /**
+         * Returns the number of students with a letter grade.
+         * @param letter the letter grade to count
+         * @return the number of students with that grade
+         */
+        public int getCount(LetterGrade letter)
+        {
+            return counts[letter.ordinal()];
+        }
+
+        /**
+         * Returns the mean grade points of the graded students, or NaN if
+         * there are none.
+         * @return the mean GPA
+         */
+        public double getMeanGpa()
+        {
+            return meanGpa;
+        }
+
+        /**
+         * Returns the number of students whose letter grade differs from
+         * the baseline scheme.
+         * @return the number of changed grades
+         */
+        public int getChanged()
+        {
+            return changed;
+        }
+    }
+}
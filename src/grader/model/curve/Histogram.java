@@ -4,30 +4,81 @@ package grader.model.curve;
  * @author Mallika Potter
  */
 
-import grader.model.errors.OverlappingRangeException;
 import grader.model.gradebook.WorkSpace;
+import grader.model.gradebook.events.ScoreChanged;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
 import grader.model.gradebook.gradescheme.GradeRange;
 import grader.model.gradebook.gradescheme.GradeScheme;
 import grader.model.gradebook.gradescheme.LetterGrade;
-import grader.model.gradebook.scores.RawScore;
-import grader.model.items.Assignment;
+import grader.model.gradebook.scores.Scores;
 import grader.model.items.Percentage;
 import grader.model.people.Student;
 
-import java.util.HashMap;
-import java.util.Hashtable;
-import java.util.Observable;
-import java.util.Observer;
+import java.util.Arrays;
 
 /**
  * The Histogram class defines the necessary components for graphically changing the GradeScheme
  *
  * Derived from the requirements documentation regarding visuals.
+ * <p>
+ * Totals are counted in bins of a configurable width, by default one
+ * percentage point.  A total is counted in the bin at or just below it, so
+ * with the default width 89.2% counts toward 89%, never toward a letter it
+ * has not reached.  Prefix sums over the bins answer "how many students are
+ * at or above X%" in constant time when X is a bin edge.  Other range
+ * queries are answered from a sorted copy of the totals by binary search.
+ * <p>
+ * A single score change that follows the scores last counted moves only the
+ * edited student's total: its bin count and the prefix sums between its old
+ * and new bins change, and it is moved to its new place in the sorted copy,
+ * instead of recounting and resorting every total.
  */
-public class Histogram implements Observer
+public class Histogram implements WorkSpaceListener<WorkSpaceEvent>
 {
+    /**
+     * Default width of each bin, in percentage points.
+     */
+    public static final double DEFAULT_BIN_WIDTH = 1.0;
+
+    /**
+     * Slack for totals and widths that are a rounding error off a bin edge.
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Width of each bin, in percentage points.
+     */
+    private double binWidth = DEFAULT_BIN_WIDTH;
+
+    /**
+     * Number of students counted in each bin, from 0% up to 100%.
+     */
+    private int[] counts = new int[binsFor(DEFAULT_BIN_WIDTH)];
+
+    /**
+     * prefix[i] is the number of students counted in bins below i.
+     */
+    private int[] prefix = new int[counts.length + 1];
+
+    /**
+     * Totals most recently counted, in roster order, kept to rebin when the
+     * width changes.  This is a copy, since the WorkSpace's totals are
+     * updated in place.
+     */
+    private double[] totals = new double[0];
+
+    /**
+     * The same totals in ascending order, for range queries.
+     */
+    private double[] sorted = new double[0];
 
-    private Hashtable<Double, Integer> vals = new Hashtable<Double, Integer>();
+    /**
+     * Scores the totals were counted from, and their version then, so a
+     * single score change can be applied without recounting.
+     */
+    private Scores scores;
+    private int version;
 
     /**
      * GradeScheme used to project how a particular adjustment will propagate.
@@ -60,106 +111,267 @@ public class Histogram implements Observer
 
     /**
      * Updates the Histogram.
+     * @param event the change
+     */
+    @Override
+    public void handle(WorkSpaceEvent event) {
+        WorkSpace workspace = WorkSpace.instance;
+        Scores current = workspace.getScores();
+        if (event instanceof ScoreChanged && current == scores
+                && ((ScoreChanged) event).getChange().follows(current, version)) {
+            version = current.getVersion();
+            tempGradeScheme = workspace.getGradeScheme();
+            Student student = ((ScoreChanged) event).getStudent();
+            int index = workspace.getStudents().indexOf(student);
+            if (index >= 0 && index < totals.length) {
+                updateTotal(index, workspace.getTotal(student));
+            }
+            return;
+        }
+
+        update(workspace.getTotals(), workspace.getGradeScheme());
+        scores = current;
+        version = current == null ? 0 : current.getVersion();
+    }
+
+    /**
+     * Counts a set of totals, to be adjusted against a grade scheme.
+     * @param totals total percentage of each student; copied
+     * @param gradeScheme scheme being adjusted
      */
-    public void update(Observable obj, Object args) {
-        for (int i = 0; i <= 100; i++)
+    public void update(double[] totals, GradeScheme gradeScheme) {
+        tempGradeScheme = gradeScheme;
+        this.totals = totals.clone();
+        sorted = totals.clone();
+        Arrays.sort(sorted);
+        scores = null;
+        count();
+    }
+
+    /**
+     * Changes one student's total without recounting the others.
+     * @param index the student's position in the totals last counted
+     * @param total the student's new total
+     */
+    public void updateTotal(int index, double total)
+    {
+        double old = totals[index];
+        totals[index] = total;
+
+        // move the total to its new place in the sorted copy
+        int from = firstAtOrAbove(sorted, old);
+        int to = firstAtOrAbove(sorted, total);
+        if (to > from)
+        {
+            --to;
+            System.arraycopy(sorted, from + 1, sorted, from, to - from);
+        }
+        else
         {
-            vals.put(new Double(i), 0);
+            System.arraycopy(sorted, to, sorted, to + 1, from - to);
         }
+        sorted[to] = total;
 
-        java.util.List<Student> students = WorkSpace.instance.getStudents();
-        tempGradeScheme = WorkSpace.instance.getGradeScheme();
+        int oldBin = binOfTotal(old);
+        int newBin = binOfTotal(total);
+        counts[oldBin]--;
+        counts[newBin]++;
+        for (int i = oldBin + 1; i <= newBin; i++)
+        {
+            prefix[i]--;
+        }
+        for (int i = newBin + 1; i <= oldBin; i++)
+        {
+            prefix[i]++;
+        }
+    }
 
+    /**
+     * Creates a CurveSimulator over the totals most recently counted, with
+     * the scheme being adjusted as the baseline, so candidate schemes can
+     * be compared without applying each one.
+     * @return a simulator for the current totals
+     */
+    public CurveSimulator getSimulator()
+    {
+        return new CurveSimulator(totals, tempGradeScheme);
+    }
 
-        for (Student s : students)
+    /**
+     * Counts the current totals into the bins and rebuilds the prefix sums.
+     */
+    private void count()
+    {
+        Arrays.fill(counts, 0);
+        for (double total : totals)
         {
-            HashMap<Assignment, RawScore> map = WorkSpace.instance.getScores().getScoresMap(s);
-            Percentage percent = WorkSpace.instance.getAssignmentTree().calculatePercentage(map);
+            counts[binOfTotal(total)]++;
+        }
 
-            double tempPercent = Math.ceil(percent.getValue());
-            if (tempPercent > 100.0)
-            {
-                tempPercent = 100.0;
-            }
-            else if (tempPercent < 0.0)
-            {
-                tempPercent = 0.0;
-            }
+        for (int i = 0; i < counts.length; i++)
+        {
+            prefix[i + 1] = prefix[i] + counts[i];
+        }
+    }
+
+    /**
+     * Finds the bin a total is counted in, the one at or just below it.
+     */
+    private int binOfTotal(double total)
+    {
+        int bin = (int) Math.floor(total / binWidth + EPSILON);
+        return Math.max(0, Math.min(counts.length - 1, bin));
+    }
 
-            Integer temp = vals.get(tempPercent);
-            vals.replace(tempPercent, ++temp);
+    /**
+     * Gets the number of bins needed to cover 0% through 100% at a width.
+     */
+    private static int binsFor(double width)
+    {
+        return (int) Math.round(100.0 / width) + 1;
+    }
 
+    /**
+     * Changes the width of each bin and recounts the current totals.
+     * @param width bin width in percentage points, such as 1, 0.5, or 0.1;
+     * must divide 100 evenly
+     */
+    public void setBinWidth(double width)
+    {
+        double bins = 100.0 / width;
+        if (!(width > 0.0) || Math.abs(bins - Math.round(bins)) > EPSILON * bins)
+        {
+            throw new IllegalArgumentException("Bin width must divide 100: " + width);
         }
+        binWidth = width;
+        counts = new int[binsFor(width)];
+        prefix = new int[counts.length + 1];
+        count();
+    }
 
+    /**
+     * Returns the width of each bin.
+     * @return bin width in percentage points
+     */
+    public double getBinWidth()
+    {
+        return binWidth;
     }
 
     /**
-     * Adjust histogram automatically.
-     * @param oldPercent original percent for letter.
-     * @param newPercent new percent for letter.
-     * @param letter letter to move.
+     * Returns the number of bins, from 0% up to and including 100%.
+     * @return number of bins
      */
-    public void adjustHistogram(double oldPercent, double newPercent, String letter)
+    public int getBinCount()
     {
+        return counts.length;
+    }
+
+    /**
+     * Returns the percent a bin stands for.
+     * @param bin bin index, 0 for 0%
+     * @return the bin's percent
+     */
+    public double getPercent(int bin)
+    {
+        // round away the error from multiplying fractional widths
+        return Math.round(bin * binWidth * 1e9) / 1e9;
+    }
+
+    /**
+     * Finds the bin a percent falls in.
+     */
+    private int binOf(double percent)
+    {
+        int bin = (int) Math.round(percent / binWidth);
+        return Math.max(0, Math.min(counts.length - 1, bin));
+    }
+
+    /**
+     * Returns the number of students counted at a percent.
+     * @param percent percent of the bin
+     * @return number of students in that bin
+     */
+    public int getCount(double percent)
+    {
+        return counts[binOf(percent)];
+    }
 
-        try {
-            LetterGrade let = LetterGrade.valueOfFromID(letter);
-            tempGradeScheme.updateGradeRange(let, new Percentage(newPercent));
+    /**
+     * Returns the number of students whose total is at or above a percent.
+     * @param percent lowest percent to include
+     * @return number of students at or above the percent
+     */
+    public int countAtOrAbove(double percent)
+    {
+        // a bin edge above 0% splits the totals exactly where the bins do
+        double edge = percent / binWidth;
+        long bin = Math.round(edge);
+        if (bin > 0 && bin < counts.length && Math.abs(edge - bin) < EPSILON)
+        {
+            return prefix[counts.length] - prefix[(int) bin];
         }
-        catch (OverlappingRangeException e)
+        return sorted.length - firstAtOrAbove(sorted, percent);
+    }
+
+    /**
+     * Finds the first index of a sorted array holding a value at or above
+     * the given one.
+     */
+    private static int firstAtOrAbove(double[] sorted, double value)
+    {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high)
         {
-            if (oldPercent > newPercent) {
-                //System.out.println("Lower");
-                boolean movedSomething = false;
-
-                for (int i = 1; i < ((int) oldPercent); i++)
-                {
-                    double temp = (double) i;
-                    GradeRange range = tempGradeScheme.getGradeRange(new Percentage(temp));
-                    if (temp == range.getLowerBound().getValue())
-                    {
-                        try {
-                            tempGradeScheme.updateGradeRange(range.getLetterGrade(), new Percentage(temp-1));
-                            movedSomething = true;
-                        }
-                        catch (OverlappingRangeException e2)
-                        {
-                            //System.out.println("Can't move");
-                        }
-                    }
-                }
-
-                if (movedSomething) {
-                    adjustHistogram(oldPercent, newPercent, letter);
-                }
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value)
+            {
+                low = mid + 1;
             }
             else
             {
-                //System.out.println("Higher");
-                boolean movedSomething = false;
-
-                for (int i = 100; i > ((int) oldPercent); i--)
-                {
-                    double temp = (double) i;
-                    GradeRange range = tempGradeScheme.getGradeRange(new Percentage(temp));
-                    if (temp == range.getLowerBound().getValue())
-                    {
-                        try {
-                            tempGradeScheme.updateGradeRange(range.getLetterGrade(), new Percentage(temp+1));
-                            movedSomething = true;
-                        }
-                        catch (OverlappingRangeException e3)
-                        {
-                            //System.out.println("Can't move");
-                        }
-                    }
-                }
-
-                if (movedSomething) {
-                    adjustHistogram(oldPercent, newPercent, letter);
-                }
+                high = mid;
             }
         }
+        return low;
+    }
+
+    /**
+     * Returns the number of students whose total is at or above one percent
+     * and below another.
+     * @param low lowest percent to include
+     * @param high percent to stop below
+     * @return number of students in the range
+     */
+    public int countBetween(double low, double high)
+    {
+        return Math.max(0, countAtOrAbove(low) - countAtOrAbove(high));
+    }
+
+    /**
+     * Returns the number of students counted.
+     * @return number of students
+     */
+    public int getTotalCount()
+    {
+        return sorted.length;
+    }
+
+    /**
+     * Adjust histogram automatically.  Neighboring letters are pushed along
+     * so they stay at least one bin apart from the moved letter.
+     * @param oldPercent original percent for letter.
+     * @param newPercent new percent for letter.
+     * @param letter letter to move.
+     */
+    public void adjustHistogram(double oldPercent, double newPercent, String letter)
+    {
+        LetterGrade let = LetterGrade.valueOfFromID(letter);
+        if (let != null)
+        {
+            tempGradeScheme.shiftGradeRange(let, new Percentage(newPercent), binWidth);
+        }
     }
 
     /**
@@ -171,21 +383,22 @@ public class Histogram implements Observer
     public Entry getEntry(double percent)
     {
         String letter;
-        String stars = "";
 
         GradeRange range = tempGradeScheme.getGradeRange(new Percentage(percent));
 
-        if (percent == range.getLowerBound().getValue())
+        if (range != null && percent == range.getLowerBound().getValue())
             letter = range.getLetterGrade().letter;
         else
             letter = " ";
 
-        for (int i = 0; i < vals.get(percent); i++)
+        char[] stars = new char[2 * getCount(percent)];
+        for (int i = 0; i < stars.length; i += 2)
         {
-            stars += " *";
+            stars[i] = ' ';
+            stars[i + 1] = '*';
         }
 
-        return new Entry(letter, String.valueOf(percent), stars);
+        return new Entry(letter, String.valueOf(percent), new String(stars));
     }
 
 }
\ No newline at end of file
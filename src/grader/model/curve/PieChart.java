@@ -1,81 +1,165 @@
 package grader.model.curve;
 
+import grader.model.gradebook.Section;
 import grader.model.gradebook.WorkSpace;
-import grader.model.gradebook.gradescheme.GradeRange;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
 import grader.model.gradebook.gradescheme.GradeScheme;
-import grader.model.gradebook.scores.RawScore;
-import grader.model.items.Assignment;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.gradebook.scores.Scores;
+import grader.model.items.AssignmentTree;
 import grader.model.items.Percentage;
-import grader.model.people.Student;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
 
 /**
- * The PieChart class takes all of its required data and functionality from the AbstractGraph class.
- * 
+ * The PieChart class holds the distribution of letter grades among the
+ * students in scope, as a count per LetterGrade indexed by ordinal.
+ * <p>
+ * The counts are filled by classifying the cached totals of the WorkSpace
+ * in one batch.  They are only rebuilt when the totals, the scores, or the
+ * grade scheme have changed since the last update.
+ *
  * Derived from the requirements documentation regarding visuals.
  */
-public class PieChart implements Observer
+public class PieChart implements WorkSpaceListener<WorkSpaceEvent>
 {
+    /**
+     * Number of students with each letter grade, indexed by ordinal.
+     */
+    private final int[] counts = new int[LetterGrade.SIZE.ordinal()];
 
-    private int aPlus = 0;
-    private int aS = 0;
-    private int aMinus = 0;
-    private int bPlus = 0;
-    private int bS = 0;
-    private int bMinus = 0;
-    private int cPlus = 0;
-    private int cS = 0;
-    private int cMinus = 0;
-    private int dPlus = 0;
-    private int dS = 0;
-    private int dMinus = 0;
-    private int fS = 0;
-
-
-    private List<Student> students;
-
-
+    /**
+     * Number of students the percentages are taken out of.
+     */
+    private int size;
 
+    /**
+     * Totals, scores, and grade scheme the counts were built from.
+     */
+    private double[] totals;
+    private Scores scores;
+    private int version;
+    private GradeScheme gradeScheme;
+    private int schemeVersion;
 
    /**
     * Updates the Pie Chart.
+    * @param event the change
     */
-   public void update(Observable obj, Object args)
+   @Override
+   public void handle(WorkSpaceEvent event)
    {
-
-       if (WorkSpace.instance.getGradeScheme() != null)
-       {
-
-           aPlus = 0;
-           aS = 0;
-           aMinus = 0;
-           bPlus = 0;
-           bS = 0;
-           bMinus = 0;
-           cPlus = 0;
-           cS = 0;
-           cMinus = 0;
-           dPlus = 0;
-           dS = 0;
-           dMinus = 0;
-           fS = 0;
-
-           students = WorkSpace.instance.getStudents();
-
-           for (Student s : students)
-           {
-               HashMap<Assignment, RawScore> map = WorkSpace.instance.getScores().getScoresMap(s);
-               Percentage percent = WorkSpace.instance.getAssignmentTree().calculatePercentage(map);
-               addToGrade(percent);
-           }
-       }
+       GradeScheme current = WorkSpace.instance.getGradeScheme();
+       if (current == null)
+           return;
+
+       double[] latest = WorkSpace.instance.getTotals();
+       Scores latestScores = WorkSpace.instance.getScores();
+       if (latest == totals && latestScores == scores
+               && latestScores.getVersion() == version
+               && current == gradeScheme
+               && current.getVersion() == schemeVersion)
+           return;
+
+       totals = latest;
+       scores = latestScores;
+       version = latestScores.getVersion();
+       gradeScheme = current;
+       schemeVersion = current.getVersion();
+
+       Arrays.fill(counts, 0);
+       tally(current, latest, counts);
+       size = latest.length;
    }
 
+    /**
+     * Returns the number of students with each letter grade.
+     * @return counts indexed by LetterGrade ordinal
+     */
+    public int[] getCounts()
+    {
+        return counts.clone();
+    }
+
+    /**
+     * Returns the percentage of students with each letter grade, in
+     * LetterGrade order.
+     * @return percentage for every LetterGrade
+     */
+    public EnumMap<LetterGrade, Double> getDistribution()
+    {
+        return toPercentages(counts, size);
+    }
+
+    /**
+     * Returns the percentage of students with each letter grade across
+     * several sections of the course in scope.  Each section's students
+     * are graded by that section's own grade scheme, using the saved
+     * gradebook scores.
+     * @param sections the sections to combine
+     * @return percentage for every LetterGrade
+     */
+    public EnumMap<LetterGrade, Double> getDistribution(List<Section> sections)
+    {
+        int[] combined = countLetters(WorkSpace.instance.getAssignmentTree(),
+                WorkSpace.instance.getGradebook().getScores(), sections);
+        int students = 0;
+        for (Section section : sections)
+            students += section.getStudents().size();
+        return toPercentages(combined, students);
+    }
+
+    /**
+     * Counts the letter grades of the students in several sections, each
+     * classified by its own grade scheme.
+     * @param tree the assignment tree to total with
+     * @param scores the scores to total
+     * @param sections the sections to combine
+     * @return counts indexed by LetterGrade ordinal
+     */
+    public static int[] countLetters(AssignmentTree tree, Scores scores,
+                                     List<Section> sections)
+    {
+        int[] combined = new int[LetterGrade.SIZE.ordinal()];
+        for (Section section : sections)
+            tally(section.getGradeScheme(),
+                    tree.calculateTotals(scores, section.getStudents()),
+                    combined);
+        return combined;
+    }
 
+    /**
+     * Classifies a batch of totals and adds them to a set of counts.
+     */
+    private static void tally(GradeScheme scheme, double[] totals, int[] counts)
+    {
+        for (int letter : scheme.classify(totals))
+            if (letter >= 0)
+                counts[letter]++;
+    }
+
+    /**
+     * Converts counts into percentages of the given number of students.
+     */
+    private static EnumMap<LetterGrade, Double> toPercentages(int[] counts, int size)
+    {
+        EnumMap<LetterGrade, Double> distribution =
+                new EnumMap<LetterGrade, Double>(LetterGrade.class);
+        for (int i = 0; i < counts.length; i++)
+            distribution.put(LetterGrade.values()[i], (counts[i] / (double) size) * 100);
+        return distribution;
+    }
+
+    /**
+     * Returns the percentage of students with the given letter grade.
+     */
+    private double getPercent(LetterGrade letter)
+    {
+        return (counts[letter.ordinal()] / (double) size) * 100;
+    }
 
     /**
      * Returns percentage of A+s.
@@ -83,7 +167,7 @@ public class PieChart implements Observer
      */
     public double getNumAPlus()
     {
-        return (aPlus/((double)students.size())) * 100;
+        return getPercent(LetterGrade.A_PLUS);
     }
 
     /**
@@ -92,7 +176,7 @@ public class PieChart implements Observer
      */
     public double getNumA()
     {
-        return (aS/((double)students.size())) * 100;
+        return getPercent(LetterGrade.A);
     }
 
     /**
@@ -101,7 +185,7 @@ public class PieChart implements Observer
      */
     public double getNumAMinus()
     {
-        return (aMinus/((double)students.size())) * 100;
+        return getPercent(LetterGrade.A_MINUS);
     }
 
     /**
@@ -110,7 +194,7 @@ public class PieChart implements Observer
      */
     public double getNumBPlus()
     {
-        return (bPlus/((double)students.size())) * 100;
+        return getPercent(LetterGrade.B_PLUS);
     }
 
     /**
@@ -119,7 +203,7 @@ public class PieChart implements Observer
      */
     public double getNumB()
     {
-        return (bS/((double)students.size())) * 100;
+        return getPercent(LetterGrade.B);
     }
 
     /**
@@ -128,7 +212,7 @@ public class PieChart implements Observer
      */
     public double getNumBMinus()
     {
-        return (bMinus/((double)students.size())) * 100;
+        return getPercent(LetterGrade.B_MINUS);
     }
 
     /**
@@ -137,7 +221,7 @@ public class PieChart implements Observer
      */
     public double getNumCPlus()
     {
-        return (cPlus/((double)students.size())) * 100;
+        return getPercent(LetterGrade.C_PLUS);
     }
 
     /**
@@ -146,7 +230,7 @@ public class PieChart implements Observer
      */
     public double getNumC()
     {
-        return (cS/((double)students.size())) * 100;
+        return getPercent(LetterGrade.C);
     }
 
     /**
@@ -155,7 +239,7 @@ public class PieChart implements Observer
      */
     public double getNumCMinus()
     {
-        return (cMinus/((double)students.size())) * 100;
+        return getPercent(LetterGrade.C_MINUS);
     }
 
     /**
@@ -164,7 +248,7 @@ public class PieChart implements Observer
      */
     public double getNumDPlus()
     {
-        return (dPlus/((double)students.size())) * 100;
+        return getPercent(LetterGrade.D_PLUS);
     }
 
     /**
@@ -173,7 +257,7 @@ public class PieChart implements Observer
      */
     public double getNumD()
     {
-        return (dS/((double)students.size())) * 100;
+        return getPercent(LetterGrade.D);
     }
 
     /**
@@ -182,7 +266,7 @@ public class PieChart implements Observer
      */
     public double getNumDMinus()
     {
-        return (dMinus/((double)students.size())) * 100;
+        return getPercent(LetterGrade.D_MINUS);
     }
 
     /**
@@ -191,7 +275,7 @@ public class PieChart implements Observer
      */
     public double getNumF()
     {
-        return (fS/((double)students.size())) * 100;
+        return getPercent(LetterGrade.F);
     }
 
     /**
@@ -200,54 +284,10 @@ public class PieChart implements Observer
      */
     public void addToGrade(Percentage percent)
     {
-
-        GradeScheme current = WorkSpace.instance.getGradeScheme();
-        GradeRange range = current.getGradeRange(percent);
-
-        switch (range.getLetterGrade())
-        {
-            case A_PLUS:
-                aPlus++;
-                break;
-            case A:
-                aS++;
-                break;
-            case A_MINUS:
-                aMinus++;
-                break;
-            case B_PLUS:
-                bPlus++;
-                break;
-            case B:
-                bS++;
-                break;
-            case B_MINUS:
-                bMinus++;
-                break;
-            case C_PLUS:
-                cPlus++;
-                break;
-            case C:
-                cS++;
-                break;
-            case C_MINUS:
-                cMinus++;
-                break;
-            case D_PLUS:
-                dPlus++;
-                break;
-            case D:
-                dS++;
-                break;
-            case D_MINUS:
-                dMinus++;
-                break;
-            case F:
-                fS++;
-                break;
-            default:
-                break;
-        }
-
+        int letter = WorkSpace.instance.getGradeScheme().classify(percent.getValue());
+        if (letter >= 0)
+            counts[letter]++;
+        // the counts no longer match the totals, so rebuild on next update
+        totals = null;
     }
 }
@@ -1,13 +1,28 @@
 package grader.model.edit;
 
+import grader.model.gradebook.Course;
 import grader.model.gradebook.Gradebook;
+import grader.model.gradebook.Section;
 import grader.model.items.Assignment;
+import grader.model.people.Name;
 import grader.model.people.Student;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 /**
  * The Find class is responsible for managing the Find operation.
+ * <p>
+ * Each Course has a SearchIndex of its students, by first, middle, last,
+ * and full name and userID, and a SearchIndex of its assignments, by name.
+ * A course is indexed the first time it is searched.  Students and
+ * assignments added through the WorkSpace are added to the index as they
+ * come.  If a course's roster or assignment count no longer matches its
+ * index, because something was added some other way, the course is
+ * indexed again before it is searched.
  *
  * @author Gregory Davis
  */
@@ -17,6 +32,20 @@ public class Find {
 	 */
 	Gradebook gradebook;
 
+    /**
+     * Search indexes of each course searched so far.
+     */
+    private final IdentityHashMap<Course, CourseIndex> indexes =
+            new IdentityHashMap<Course, CourseIndex>();
+
+    /**
+     * Constructor.
+     * @param gradebook gradebook to search
+     */
+    public Find(Gradebook gradebook) {
+        this.gradebook = gradebook;
+    }
+
    /**
     * Finds the Student associated with the given name and course.
     * If courseName is null, the search is performed on all courses.
@@ -47,7 +76,12 @@ public class Find {
                                       student.name.contains(name)))))
     */
    public Collection<Student> findStudents(String name, String courseName) {
-       return null;
+       // a student may be enrolled in more than one course
+       LinkedHashSet<Student> found = new LinkedHashSet<Student>();
+       for (Course course : coursesNamed(courseName)) {
+           found.addAll(indexOf(course).students.find(name));
+       }
+       return new ArrayList<Student>(found);
    }
 
    /**
@@ -79,6 +113,125 @@ public class Find {
                               assignment.name.contains(name))));
     */
    public Collection<Assignment> findAssignments(String name, String courseName) {
-       return null;
+       List<Assignment> found = new ArrayList<Assignment>();
+       for (Course course : coursesNamed(courseName)) {
+           found.addAll(indexOf(course).assignments.find(name));
+       }
+       return found;
+   }
+
+   /**
+    * Adds a student who was just added to a section of a course.
+    * @param course course the student was added to
+    * @param student student added
+    */
+   public void studentAdded(Course course, Student student) {
+       CourseIndex index = indexes.get(course);
+       if (index != null) {
+           index.addStudent(student);
+           ++index.studentCount;
+       }
+   }
+
+   /**
+    * Adds an assignment that was just added to a course.
+    * @param course course the assignment was added to
+    * @param assignment assignment added
+    */
+   public void assignmentAdded(Course course, Assignment assignment) {
+       CourseIndex index = indexes.get(course);
+       if (index != null) {
+           index.assignments.add(assignment, assignment.name);
+           ++index.assignmentCount;
+       }
+   }
+
+   /**
+    * Re-indexes a student whose name or userID has been edited.
+    * @param student student edited
+    */
+   public void studentChanged(Student student) {
+       for (CourseIndex index : indexes.values()) {
+           if (index.students.contains(student))
+               index.addStudent(student);
+       }
+   }
+
+   /**
+    * Gets the courses with the given name, or every course if the name is
+    * null.
+    */
+   private List<Course> coursesNamed(String courseName) {
+       List<Course> courses = new ArrayList<Course>();
+       for (Course course : gradebook.courses) {
+           if (courseName == null || courseName.equals(course.name))
+               courses.add(course);
+       }
+       return courses;
+   }
+
+   /**
+    * Gets the index of a course, building it if the course has not been
+    * indexed or has changed without the index being told.
+    */
+   private CourseIndex indexOf(Course course) {
+       CourseIndex index = indexes.get(course);
+       if (index == null || index.studentCount != countStudents(course)
+               || index.assignmentCount
+                  != course.getAssignmentTree().getAssignments().size()) {
+           index = new CourseIndex(course);
+           indexes.put(course, index);
+       }
+       return index;
+   }
+
+   /**
+    * Counts the students in a course's sections without copying them.
+    */
+   private static int countStudents(Course course) {
+       int count = 0;
+       for (Section section : course.sections) {
+           if (section.getStudents() != null)
+               count += section.getStudents().size();
+       }
+       return count;
+   }
+
+   /**
+    * The search indexes of one course, and the roster and assignment
+    * counts they were built with.
+    */
+   private static class CourseIndex {
+       final SearchIndex<Student> students = new SearchIndex<Student>();
+       final SearchIndex<Assignment> assignments = new SearchIndex<Assignment>();
+       int studentCount;
+       int assignmentCount;
+
+       CourseIndex(Course course) {
+           studentCount = countStudents(course);
+           for (Section section : course.sections) {
+               if (section.getStudents() == null)
+                   continue;
+               for (Student student : section.getStudents()) {
+                   addStudent(student);
+               }
+           }
+           List<Assignment> all = course.getAssignmentTree().getAssignments();
+           assignmentCount = all.size();
+           for (Assignment assignment : all) {
+               assignments.add(assignment, assignment.name);
+           }
+       }
+
+       void addStudent(Student student) {
+           Name name = student.name;
+           if (name == null) {
+               students.add(student, student.userID);
+           }
+           else {
+               students.add(student, name.getFirstName(), name.getMiddleName(),
+                       name.getLastName(), name.toString(), student.userID);
+           }
+       }
    }
 }
@@ -0,0 +1,164 @@
+package grader.model.edit;
+
+import grader.model.gradebook.WorkSpace;
+import grader.model.items.Assignment;
+import grader.model.people.Student;
+
+/**
+ * The RapidEntry class buffers grades typed one after another, such as a
+ * stack of exams entered down one column of the spreadsheet.
+ * <p>
+ * While rapid entry is on, the WorkSpace holds a batch open.  Each grade is
+ * written to the scores and the cached totals right away, which takes the
+ * same time however large the section is, but nothing is published.
+ * Once the flush interval has passed since the last flush, the next grade
+ * entered closes the batch, which publishes a single ScoresChanged for
+ * every grade in it, and opens a new one.  Turning rapid entry off flushes
+ * whatever is left.  Each flushed batch is undone and redone as one step.
+ * Grades edited any other way while rapid entry is on, such as by a cut or
+ * paste, are not buffered.
+ * <p>
+ * Nothing here runs on a timer, so whoever drives the entry should call
+ * flushIfIdle once the interval has passed without a grade, so the last
+ * grades typed are not left unpublished.  The interval defaults to
+ * DEFAULT_INTERVAL and can be set with the grader.rapidEntry.interval
+ * system property.
+ */
+public class RapidEntry {
+    /**
+     * Flush interval used by default, in milliseconds.
+     */
+    public static final long DEFAULT_INTERVAL = 2000;
+
+    /**
+     * System property giving the flush interval, in milliseconds.
+     */
+    public static final String INTERVAL_PROPERTY = "grader.rapidEntry.interval";
+
+    private final WorkSpace workspace;
+    private final long interval;
+    private boolean active;
+    private int pending;
+    private long lastFlush;
+    private long lastEntry;
+
+    /**
+     * Constructor.
+     * @param workspace workspace to enter grades into
+     * @param interval milliseconds between flushes; 0 flushes every grade
+     * @throws IllegalArgumentException if the interval is negative
+     */
+    public RapidEntry(WorkSpace workspace, long interval) {
+        if (interval < 0)
+            throw new IllegalArgumentException("The flush interval cannot be negative");
+        this.workspace = workspace;
+        this.interval = interval;
+    }
+
+    /**
+     * Returns the flush interval set by the grader.rapidEntry.interval
+     * system property, or DEFAULT_INTERVAL if it is unset, not a number,
+     * or negative.
+     * @return milliseconds between flushes
+     */
+    public static long configuredInterval() {
+        try {
+            long interval = Long.parseLong(
+                    System.getProperty(INTERVAL_PROPERTY, "" + DEFAULT_INTERVAL).trim());
+            return interval < 0 ? DEFAULT_INTERVAL : interval;
+        }
+        catch (NumberFormatException e) {
+            return DEFAULT_INTERVAL;
+        }
+    }
+
+    /**
+     * Turns rapid entry on.  Does nothing if it is already on.
+     */
+    public void start() {
+        if (active)
+            return;
+        active = true;
+        pending = 0;
+        lastFlush = System.currentTimeMillis();
+        workspace.beginBatch();
+    }
+
+    /**
+     * Enters a grade, flushing the buffered grades if the interval has
+     * passed.
+     * @param student student graded
+     * @param assignment assignment graded
+     * @param score new score
+     * @throws IllegalStateException if rapid entry is off
+     */
+    public void enter(Student student, Assignment assignment, double score) {
+        if (!active)
+            throw new IllegalStateException("Rapid entry is not on");
+        workspace.batchGrade(student, assignment, score);
+        ++pending;
+        lastEntry = System.currentTimeMillis();
+        if (lastEntry - lastFlush >= interval)
+            flush();
+    }
+
+    /**
+     * Flushes the buffered grades if the interval has passed since the last
+     * grade was entered.
+     * @return whether any grades were flushed
+     */
+    public boolean flushIfIdle() {
+        if (!active || pending == 0
+                || System.currentTimeMillis() - lastEntry < interval)
+            return false;
+        flush();
+        return true;
+    }
+
+    /**
+     * Publishes the buffered grades now.
+     */
+    public void flush() {
+        if (!active)
+            return;
+        workspace.endBatch();
+        pending = 0;
+        lastFlush = System.currentTimeMillis();
+        workspace.beginBatch();
+    }
+
+    /**
+     * Turns rapid entry off, flushing the buffered grades.
+     */
+    public void stop() {
+        if (!active)
+            return;
+        active = false;
+        pending = 0;
+        workspace.endBatch();
+    }
+
+    /**
+     * Returns whether rapid entry is on.
+     * @return whether grades are being buffered
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Returns the number of grades entered since the last flush.
+     * @return the number of buffered grades
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Returns the flush interval.
+     * @return milliseconds between flushes
+     */
+    public long getInterval() {
+        return interval;
+    }
+}
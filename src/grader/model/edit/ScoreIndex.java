@@ -0,0 +1,383 @@
+package grader.model.edit;
+
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.gradebook.scores.Scores;
+import grader.model.items.Assignment;
+import grader.model.items.GradingPlan;
+import grader.model.people.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A ScoreIndex answers the predicates of a ScoreQuery over a roster with
+ * sorted columns instead of reading the Scores for every student.
+ * <p>
+ * The scores of every student on every assignment are read once, when the
+ * index is built, along with each student's total and the subtotal of each
+ * category.  The first predicate on a column sorts that column's values
+ * together with the roster position of each, and keeps it.  A comparison
+ * is then two binary searches, and every roster position between them is
+ * set in a BitSet.  Queries combine these sets with and, or, and not.
+ * <p>
+ * An index is tied to the Scores version, grading plan, roster, and grade
+ * scheme it was built from.  isCurrent tells when it must be rebuilt.
+ */
+public class ScoreIndex {
+    /**
+     * Comparison between a value in a column and a query's operand.
+     */
+    public enum Comparison {
+        LESS("<"), AT_MOST("<="), GREATER(">"), AT_LEAST(">="),
+        EQUAL("="), NOT_EQUAL("!=");
+
+        /** symbol of the comparison in a query */
+        public final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * Finds the comparison written with a symbol.
+         * @param symbol symbol from a query
+         * @return the comparison, or null if there is none
+         */
+        public static Comparison fromSymbol(String symbol) {
+            for (Comparison comparison : values()) {
+                if (comparison.symbol.equals(symbol))
+                    return comparison;
+            }
+            return null;
+        }
+    }
+
+    private final Student[] students;
+    private final GradingPlan plan;
+    private final GradeScheme scheme;
+    private final Scores scores;
+    private final int version;
+
+    /** raw scores by plan position, then roster position; NaN if missing */
+    private final double[][] raw;
+
+    /** subtotals by category plan position, then roster position */
+    private final double[][] subtotals;
+
+    /** total of each student, by roster position */
+    private final double[] totals;
+
+    /** sorted columns, built on first use */
+    private final Column[] scoreColumns;
+    private final Column[] subtotalColumns;
+    private Column totalColumn;
+
+    /**
+     * Builds an index over a roster.
+     * @param plan grading plan of the assignment tree
+     * @param scores scores to index; they are only read
+     * @param students roster to index
+     * @param scheme grade scheme for letter predicates, or null if there is
+     * none in scope
+     */
+    public ScoreIndex(GradingPlan plan, Scores scores, List<Student> students,
+                      GradeScheme scheme) {
+        this.plan = plan;
+        this.scores = scores;
+        this.version = scores.getVersion();
+        this.scheme = scheme;
+        this.students = students.toArray(new Student[students.size()]);
+
+        int size = plan.size();
+        raw = new double[size][this.students.length];
+        subtotals = new double[plan.categoryCount()][this.students.length];
+        totals = new double[this.students.length];
+        double[] studentSubtotals = new double[plan.categoryCount()];
+        for (int s = 0; s < this.students.length; ++s) {
+            Arrays.fill(studentSubtotals, 0.0);
+            for (int a = 0; a < size; ++a) {
+                Assignment assignment = plan.getAssignment(a);
+                if (!scores.hasRawScore(this.students[s], assignment)) {
+                    raw[a][s] = Double.NaN;
+                    continue;
+                }
+                double score = scores.getRawScore(this.students[s], assignment);
+                raw[a][s] = score;
+                double points = plan.getWeight(a) * score;
+                totals[s] += points;
+                if (points != 0.0)
+                    plan.addToSubtotals(studentSubtotals, a, points);
+            }
+            for (int c = 0; c < studentSubtotals.length; ++c)
+                subtotals[c][s] = studentSubtotals[c];
+        }
+        scoreColumns = new Column[size];
+        subtotalColumns = new Column[plan.categoryCount()];
+    }
+
+    /**
+     * Checks whether the index still matches what it was built from.
+     * @param plan current grading plan
+     * @param scores current scores
+     * @param students current roster
+     * @param scheme current grade scheme
+     * @return true if the index can still be used
+     */
+    public boolean isCurrent(GradingPlan plan, Scores scores,
+                             List<Student> students, GradeScheme scheme) {
+        if (this.plan != plan || this.scores != scores
+                || this.version != scores.getVersion() || this.scheme != scheme
+                || this.students.length != students.size())
+            return false;
+        int s = 0;
+        for (Student student : students) {
+            if (this.students[s++] != student)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of students indexed.
+     * @return the roster size
+     */
+    public int size() {
+        return students.length;
+    }
+
+    /**
+     * Gets the students at the set positions, in roster order.
+     * @param positions roster positions
+     * @return the students
+     */
+    public List<Student> getStudents(BitSet positions) {
+        List<Student> selected = new ArrayList<Student>(positions.cardinality());
+        for (int s = positions.nextSetBit(0); s >= 0 && s < students.length;
+             s = positions.nextSetBit(s + 1)) {
+            selected.add(students[s]);
+        }
+        return selected;
+    }
+
+    /**
+     * Finds an assignment by name, ignoring case.
+     * @param name assignment name
+     * @return its plan position, or -1 if there is none
+     */
+    public int findAssignment(String name) {
+        for (int a = 0; a < plan.size(); ++a) {
+            if (name.equalsIgnoreCase(plan.getAssignment(a).name))
+                return a;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a category by name, ignoring case.
+     * @param name category name
+     * @return its plan position, or -1 if there is none
+     */
+    public int findCategory(String name) {
+        for (int c = 0; c < plan.categoryCount(); ++c) {
+            if (name.equalsIgnoreCase(plan.getCategory(c).name))
+                return c;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the points an assignment is out of.
+     * @param assignment plan position
+     * @return the points
+     */
+    public int getPoints(int assignment) {
+        return plan.getAssignment(assignment).getPoints();
+    }
+
+    /**
+     * Selects every student.
+     * @return all roster positions
+     */
+    public BitSet selectAll() {
+        BitSet all = new BitSet(students.length);
+        all.set(0, students.length);
+        return all;
+    }
+
+    /**
+     * Selects the students with a score on an assignment.
+     * @param assignment plan position
+     * @return roster positions of the graded students
+     */
+    public BitSet selectGraded(int assignment) {
+        return scoreColumn(assignment).select(Comparison.AT_LEAST,
+                Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Selects the students whose raw score on an assignment compares to a
+     * value.  Students without a score are never selected.
+     * @param assignment plan position
+     * @param comparison comparison to make
+     * @param value raw score to compare with
+     * @return roster positions of the matching students
+     */
+    public BitSet selectScore(int assignment, Comparison comparison, double value) {
+        return scoreColumn(assignment).select(comparison, value);
+    }
+
+    /**
+     * Selects the students whose total compares to a value.
+     * @param comparison comparison to make
+     * @param value total percentage to compare with
+     * @return roster positions of the matching students
+     */
+    public BitSet selectTotal(Comparison comparison, double value) {
+        if (totalColumn == null)
+            totalColumn = new Column(totals);
+        return totalColumn.select(comparison, value);
+    }
+
+    /**
+     * Selects the students whose subtotal in a category compares to a
+     * value.
+     * @param category plan position of the category
+     * @param comparison comparison to make
+     * @param value subtotal to compare with
+     * @return roster positions of the matching students
+     */
+    public BitSet selectSubtotal(int category, Comparison comparison, double value) {
+        if (subtotalColumns[category] == null)
+            subtotalColumns[category] = new Column(subtotals[category]);
+        return subtotalColumns[category].select(comparison, value);
+    }
+
+    /**
+     * Selects the students whose letter grade compares to a letter.  A
+     * letter is greater than the letters below it, so "greater than B"
+     * means B+ and above.  With no grade scheme in scope nobody is
+     * selected.
+     * @param comparison comparison to make
+     * @param letter letter to compare with
+     * @return roster positions of the matching students
+     */
+    public BitSet selectGrade(Comparison comparison, LetterGrade letter) {
+        int l = letter.ordinal();
+        if (scheme == null || l >= scheme.ranges.size())
+            return new BitSet();
+        double lower = bound(l);
+        switch (comparison) {
+            case AT_LEAST:
+                return selectTotal(Comparison.AT_LEAST, lower);
+            case LESS:
+                return selectTotal(Comparison.LESS, lower);
+            case GREATER:
+                return l == 0 ? new BitSet()
+                        : selectTotal(Comparison.AT_LEAST, bound(l - 1));
+            case AT_MOST:
+                return l == 0 ? selectAll()
+                        : selectTotal(Comparison.LESS, bound(l - 1));
+            default:
+                BitSet equal = selectTotal(Comparison.AT_LEAST, lower);
+                if (l > 0)
+                    equal.and(selectTotal(Comparison.LESS, bound(l - 1)));
+                if (comparison == Comparison.NOT_EQUAL) {
+                    BitSet all = selectAll();
+                    all.andNot(equal);
+                    return all;
+                }
+                return equal;
+        }
+    }
+
+    /**
+     * Gets the lower bound of the range at a position in the scheme.
+     */
+    private double bound(int range) {
+        return scheme.ranges.get(range).getLowerBound().getValue();
+    }
+
+    /**
+     * Gets an assignment's sorted column, building it on first use.
+     */
+    private Column scoreColumn(int assignment) {
+        if (scoreColumns[assignment] == null)
+            scoreColumns[assignment] = new Column(raw[assignment]);
+        return scoreColumns[assignment];
+    }
+
+    /**
+     * One column of values sorted in ascending order, with the roster
+     * position each came from.  Missing values are left out.
+     */
+    private static class Column {
+        final double[] values;
+        final int[] positions;
+
+        Column(double[] byPosition) {
+            int count = 0;
+            for (double value : byPosition) {
+                if (!Double.isNaN(value))
+                    ++count;
+            }
+            Integer[] order = new Integer[count];
+            int next = 0;
+            for (int s = 0; s < byPosition.length; ++s) {
+                if (!Double.isNaN(byPosition[s]))
+                    order[next++] = s;
+            }
+            Arrays.sort(order, (x, y) -> Double.compare(byPosition[x], byPosition[y]));
+            values = new double[count];
+            positions = new int[count];
+            for (int i = 0; i < count; ++i) {
+                positions[i] = order[i];
+                values[i] = byPosition[order[i]];
+            }
+        }
+
+        BitSet select(Comparison comparison, double value) {
+            int n = values.length;
+            int atOrAbove = search(value, false);
+            int above = search(value, true);
+            BitSet selected = new BitSet();
+            switch (comparison) {
+                case LESS:      mark(selected, 0, atOrAbove); break;
+                case AT_MOST:   mark(selected, 0, above); break;
+                case GREATER:   mark(selected, above, n); break;
+                case AT_LEAST:  mark(selected, atOrAbove, n); break;
+                case EQUAL:     mark(selected, atOrAbove, above); break;
+                case NOT_EQUAL:
+                    mark(selected, 0, atOrAbove);
+                    mark(selected, above, n);
+                    break;
+            }
+            return selected;
+        }
+
+        /**
+         * Finds the first index holding a value at or above, or strictly
+         * above when above is true, the given value.
+         */
+        private int search(double value, boolean above) {
+            int from = 0;
+            int to = values.length;
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                int cmp = Double.compare(values[mid], value);
+                if (above ? cmp > 0 : cmp >= 0)
+                    to = mid;
+                else
+                    from = mid + 1;
+            }
+            return from;
+        }
+
+        private void mark(BitSet selected, int from, int to) {
+            for (int i = from; i < to; ++i)
+                selected.set(positions[i]);
+        }
+    }
+}
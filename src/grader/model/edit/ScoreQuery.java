@@ -0,0 +1,374 @@
+package grader.model.edit;
+
+import grader.model.edit.ScoreIndex.Comparison;
+import grader.model.errors.MissingInputException;
+import grader.model.errors.QueryFormatException;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.people.Group;
+import grader.model.people.Student;
+
+import javax.naming.InvalidNameException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A ScoreQuery selects the students in scope whose scores match a set of
+ * conditions, such as
+ * <pre>
+ *    percent "Midterm 1" &lt; 60 and missing "Project 2"
+ * </pre>
+ * A query is made of these conditions, where a name is one word or is in
+ * double quotes, and matches ignoring case:
+ * <pre>
+ *    score NAME op NUMBER      raw score on an assignment
+ *    percent NAME op NUMBER    score as a percentage of the points
+ *    subtotal NAME op NUMBER   points a category adds to the total
+ *    total op NUMBER           total percentage
+ *    grade op LETTER           letter grade, where a higher letter is greater
+ *    missing NAME              no score on an assignment
+ *    graded NAME               a score on an assignment
+ * </pre>
+ * where op is one of &lt;, &lt;=, &gt;, &gt;=, =, or !=.  Conditions are
+ * combined with and, or, not, and parentheses; and binds tighter than or.
+ * Score conditions never match a student with no score on the assignment.
+ * <p>
+ * A query is checked for form when it is parsed, and its names are looked
+ * up when it is evaluated against a ScoreIndex.  Each condition becomes a
+ * BitSet of roster positions, and the sets are combined directly.
+ */
+public class ScoreQuery {
+    /**
+     * The text the query was parsed from.
+     */
+    private final String text;
+
+    /**
+     * Root of the parsed query.
+     */
+    private final Node root;
+
+    private ScoreQuery(String text, Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * Parses a query.
+     * @param text query text
+     * @return the parsed query
+     * @throws QueryFormatException if the text is not a query
+     */
+    public static ScoreQuery parse(String text) throws QueryFormatException {
+        Parser parser = new Parser(text);
+        Node root = parser.parseOr();
+        if (parser.peek() != null)
+            throw parser.error("Unexpected '" + parser.peek().text + "'", parser.peek());
+        return new ScoreQuery(text, root);
+    }
+
+    /**
+     * Evaluates the query.
+     * @param index index of the roster to query
+     * @return roster positions of the matching students
+     * @throws QueryFormatException if the query names an assignment or
+     * category that is not in the index
+     */
+    public BitSet evaluate(ScoreIndex index) throws QueryFormatException {
+        return root.evaluate(index);
+    }
+
+    /**
+     * Finds the matching students.
+     * @param index index of the roster to query
+     * @return the matching students, in roster order
+     * @throws QueryFormatException if the query names an assignment or
+     * category that is not in the index
+     */
+    public List<Student> select(ScoreIndex index) throws QueryFormatException {
+        return index.getStudents(evaluate(index));
+    }
+
+    /**
+     * Makes a Group of the matching students.
+     * @param groupName name of the new group
+     * @param index index of the roster to query
+     * @return the new group
+     * @throws QueryFormatException if the query names an assignment or
+     * category that is not in the index
+     * @throws InvalidNameException if the group name is empty
+     * @throws MissingInputException if no student matches
+     */
+    public Group toGroup(String groupName, ScoreIndex index)
+            throws QueryFormatException, InvalidNameException, MissingInputException {
+        return new Group(groupName, new ArrayList<Student>(select(index)));
+    }
+
+    /**
+     * Returns the query text.
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * A part of a parsed query.
+     */
+    private interface Node {
+        BitSet evaluate(ScoreIndex index) throws QueryFormatException;
+    }
+
+    /**
+     * Reads a query from its text by recursive descent.
+     */
+    private static class Parser {
+        private final String text;
+        private final List<Token> tokens;
+        private int next;
+
+        Parser(String text) throws QueryFormatException {
+            this.text = text;
+            this.tokens = tokenize(text);
+        }
+
+        Token peek() {
+            return next < tokens.size() ? tokens.get(next) : null;
+        }
+
+        boolean acceptWord(String word) {
+            Token token = peek();
+            if (token != null && !token.quoted && token.text.equalsIgnoreCase(word)) {
+                ++next;
+                return true;
+            }
+            return false;
+        }
+
+        Token expect(String what) throws QueryFormatException {
+            Token token = peek();
+            if (token == null)
+                throw new QueryFormatException("Expected " + what + " but the query ended",
+                        text, text.length());
+            ++next;
+            return token;
+        }
+
+        QueryFormatException error(String message, Token token) {
+            return new QueryFormatException(message, text, token.position);
+        }
+
+        Node parseOr() throws QueryFormatException {
+            Node left = parseAnd();
+            while (acceptWord("or")) {
+                final Node a = left;
+                final Node b = parseAnd();
+                left = index -> {
+                    BitSet set = a.evaluate(index);
+                    set.or(b.evaluate(index));
+                    return set;
+                };
+            }
+            return left;
+        }
+
+        Node parseAnd() throws QueryFormatException {
+            Node left = parseUnary();
+            while (acceptWord("and")) {
+                final Node a = left;
+                final Node b = parseUnary();
+                left = index -> {
+                    BitSet set = a.evaluate(index);
+                    set.and(b.evaluate(index));
+                    return set;
+                };
+            }
+            return left;
+        }
+
+        Node parseUnary() throws QueryFormatException {
+            if (acceptWord("not")) {
+                final Node inner = parseUnary();
+                return index -> {
+                    BitSet set = index.selectAll();
+                    set.andNot(inner.evaluate(index));
+                    return set;
+                };
+            }
+            Token token = expect("a condition");
+            if (!token.quoted && token.text.equals("(")) {
+                Node inner = parseOr();
+                Token close = expect("')'");
+                if (close.quoted || !close.text.equals(")"))
+                    throw error("Expected ')'", close);
+                return inner;
+            }
+            return parseCondition(token);
+        }
+
+        Node parseCondition(Token keyword) throws QueryFormatException {
+            String word = keyword.quoted ? "" : keyword.text.toLowerCase(Locale.ROOT);
+            switch (word) {
+                case "missing":
+                case "graded": {
+                    final Token name = expectName();
+                    final boolean graded = word.equals("graded");
+                    return index -> {
+                        BitSet set = index.selectGraded(assignment(index, name));
+                        if (!graded) {
+                            BitSet all = index.selectAll();
+                            all.andNot(set);
+                            set = all;
+                        }
+                        return set;
+                    };
+                }
+                case "score":
+                case "percent": {
+                    final Token name = expectName();
+                    final Comparison op = expectComparison();
+                    final double value = expectNumber();
+                    final boolean percent = word.equals("percent");
+                    return index -> {
+                        int a = assignment(index, name);
+                        double score = percent ? value * index.getPoints(a) / 100.0 : value;
+                        return index.selectScore(a, op, score);
+                    };
+                }
+                case "subtotal": {
+                    final Token name = expectName();
+                    final Comparison op = expectComparison();
+                    final double value = expectNumber();
+                    return index -> {
+                        int c = index.findCategory(name.text);
+                        if (c < 0)
+                            throw error("No category named '" + name.text + "'", name);
+                        return index.selectSubtotal(c, op, value);
+                    };
+                }
+                case "total": {
+                    final Comparison op = expectComparison();
+                    final double value = expectNumber();
+                    return index -> index.selectTotal(op, value);
+                }
+                case "grade": {
+                    final Comparison op = expectComparison();
+                    Token letterToken = expect("a letter grade");
+                    final LetterGrade letter = letterToken.quoted ? null
+                            : LetterGrade.valueOfFromID(letterToken.text.toUpperCase(Locale.ROOT));
+                    if (letter == null || letter == LetterGrade.SIZE
+                            || !letter.letter.equals(letterToken.text.toUpperCase(Locale.ROOT)))
+                        throw error("'" + letterToken.text + "' is not a letter grade", letterToken);
+                    return index -> index.selectGrade(op, letter);
+                }
+                default:
+                    throw error("Expected a condition but found '" + keyword.text + "'", keyword);
+            }
+        }
+
+        int assignment(ScoreIndex index, Token name) throws QueryFormatException {
+            int a = index.findAssignment(name.text);
+            if (a < 0)
+                throw error("No assignment named '" + name.text + "'", name);
+            return a;
+        }
+
+        Token expectName() throws QueryFormatException {
+            Token token = expect("a name");
+            if (!token.quoted && isSymbol(token.text))
+                throw error("Expected a name but found '" + token.text + "'", token);
+            return token;
+        }
+
+        Comparison expectComparison() throws QueryFormatException {
+            Token token = expect("a comparison");
+            Comparison op = token.quoted ? null : Comparison.fromSymbol(token.text);
+            if (op == null)
+                throw error("Expected a comparison but found '" + token.text + "'", token);
+            return op;
+        }
+
+        double expectNumber() throws QueryFormatException {
+            Token token = expect("a number");
+            String number = token.text;
+            if (number.endsWith("%"))
+                number = number.substring(0, number.length() - 1);
+            try {
+                if (token.quoted)
+                    throw new NumberFormatException();
+                return Double.parseDouble(number);
+            }
+            catch (NumberFormatException e) {
+                throw error("Expected a number but found '" + token.text + "'", token);
+            }
+        }
+    }
+
+    /**
+     * One word, quoted name, comparison, or parenthesis of a query.
+     */
+    private static class Token {
+        final String text;
+        final int position;
+        final boolean quoted;
+
+        Token(String text, int position, boolean quoted) {
+            this.text = text;
+            this.position = position;
+            this.quoted = quoted;
+        }
+    }
+
+    private static boolean isSymbol(String text) {
+        return text.equals("(") || text.equals(")") || Comparison.fromSymbol(text) != null;
+    }
+
+    private static boolean isSymbolChar(char c) {
+        return c == '(' || c == ')' || c == '<' || c == '>' || c == '=' || c == '!' || c == '"';
+    }
+
+    /**
+     * Splits a query into tokens.
+     */
+    private static List<Token> tokenize(String text) throws QueryFormatException {
+        List<Token> tokens = new ArrayList<Token>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                ++i;
+            }
+            else if (c == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0)
+                    throw new QueryFormatException("Unclosed quote", text, i);
+                tokens.add(new Token(text.substring(i + 1, end), i, true));
+                i = end + 1;
+            }
+            else if (c == '(' || c == ')') {
+                tokens.add(new Token(String.valueOf(c), i, false));
+                ++i;
+            }
+            else if (c == '<' || c == '>' || c == '=' || c == '!') {
+                int end = i + 1;
+                if (end < text.length() && text.charAt(end) == '=' && c != '=')
+                    ++end;
+                String symbol = text.substring(i, end);
+                if (Comparison.fromSymbol(symbol) == null)
+                    throw new QueryFormatException("Unknown comparison '" + symbol + "'", text, i);
+                tokens.add(new Token(symbol, i, false));
+                i = end;
+            }
+            else {
+                int end = i;
+                while (end < text.length() && !Character.isWhitespace(text.charAt(end))
+                        && !isSymbolChar(text.charAt(end)))
+                    ++end;
+                tokens.add(new Token(text.substring(i, end), i, false));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+}
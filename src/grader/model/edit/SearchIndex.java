@@ -0,0 +1,248 @@
+package grader.model.edit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A SearchIndex finds items whose search keys contain a query, ignoring
+ * case, without scanning every item.
+ * <p>
+ * Every one, two, and three character substring of each key is mapped to
+ * the ids of the items whose keys contain it, in the order the items were
+ * added.  A query of up to three characters is answered by its own list.  A
+ * longer query intersects the lists of each of its three character
+ * substrings, which leaves only items that are likely to match, and then
+ * checks those against the keys.
+ * <p>
+ * Items are added one at a time, so the index can grow along with the
+ * gradebook.  Removing an item only marks its id as removed; re-adding an
+ * item whose keys have changed gives it a new id.  Once more ids are removed
+ * than are in use, the index is rebuilt from the items left, so edits do not
+ * make it grow without bound.
+ *
+ * @param <T> type of item indexed
+ */
+public class SearchIndex<T> {
+    /** longest substring kept in the index */
+    private static final int GRAM = 3;
+
+    /** fewest removed ids worth rebuilding the index for */
+    private static final int MIN_COMPACT = 16;
+
+    /** items by id */
+    private final ArrayList<T> items = new ArrayList<T>();
+
+    /** lower case search keys of each item, by id */
+    private final ArrayList<String[]> keys = new ArrayList<String[]>();
+
+    /** ids of items that have been removed */
+    private final BitSet removed = new BitSet();
+
+    /** current id of each item */
+    private final IdentityHashMap<T, Integer> ids = new IdentityHashMap<T, Integer>();
+
+    /** substring to the ids of the items containing it */
+    private final HashMap<String, Postings> postings = new HashMap<String, Postings>();
+
+    /**
+     * Adds an item under the given search keys, replacing its old keys if
+     * it was already indexed.  Null and empty keys are ignored.
+     * @param item item to add
+     * @param itemKeys strings the item can be found by
+     */
+    public void add(T item, String... itemKeys) {
+        remove(item);
+        int id = items.size();
+        ArrayList<String> lower = new ArrayList<String>(itemKeys.length);
+        for (String key : itemKeys) {
+            if (key != null && !key.isEmpty())
+                lower.add(key.toLowerCase(Locale.ROOT));
+        }
+        items.add(item);
+        keys.add(lower.toArray(new String[lower.size()]));
+        ids.put(item, id);
+
+        for (String key : lower) {
+            for (int length = 1; length <= GRAM; ++length) {
+                for (int i = 0; i + length <= key.length(); ++i) {
+                    String gram = key.substring(i, i + length);
+                    Postings list = postings.get(gram);
+                    if (list == null) {
+                        list = new Postings();
+                        postings.put(gram, list);
+                    }
+                    list.add(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes an item.
+     * @param item item to remove
+     * @return true if the item was indexed
+     */
+    public boolean remove(T item) {
+        Integer id = ids.remove(item);
+        if (id == null)
+            return false;
+        removed.set(id);
+        items.set(id, null);
+        keys.set(id, null);
+        if (removed.cardinality() > Math.max(MIN_COMPACT, ids.size()))
+            compact();
+        return true;
+    }
+
+    /**
+     * Checks whether an item is indexed.
+     * @param item item to look for
+     * @return true if the item is indexed
+     */
+    public boolean contains(T item) {
+        return ids.containsKey(item);
+    }
+
+    /**
+     * Returns the number of items indexed.
+     * @return the number of items
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Returns the number of ids handed out, both in use and removed, for
+     * checking how much of the index is dead.
+     * @return the number of ids
+     */
+    public int getIdCount() {
+        return items.size();
+    }
+
+    /**
+     * Finds every item with a key that contains the query, ignoring case.
+     * An empty query matches every item.
+     * @param query text to look for
+     * @return matching items, in the order they were added
+     */
+    public List<T> find(String query) {
+        String q = query.toLowerCase(Locale.ROOT);
+        List<T> found = new ArrayList<T>();
+        if (q.isEmpty()) {
+            for (int id = 0; id < items.size(); ++id) {
+                if (!removed.get(id))
+                    found.add(items.get(id));
+            }
+            return found;
+        }
+
+        int[] candidates;
+        int count;
+        if (q.length() <= GRAM) {
+            Postings list = postings.get(q);
+            if (list == null)
+                return found;
+            candidates = list.ids;
+            count = list.size;
+        }
+        else {
+            Postings[] lists = new Postings[q.length() - GRAM + 1];
+            for (int i = 0; i < lists.length; ++i) {
+                lists[i] = postings.get(q.substring(i, i + GRAM));
+                if (lists[i] == null)
+                    return found;
+            }
+            // intersect starting from the shortest list to keep it small
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+            count = candidates.length;
+            for (int i = 1; i < lists.length && count > 0; ++i)
+                count = intersect(candidates, count, lists[i]);
+        }
+
+        for (int i = 0; i < count; ++i) {
+            int id = candidates[i];
+            if (removed.get(id))
+                continue;
+            if (q.length() <= GRAM || matches(keys.get(id), q))
+                found.add(items.get(id));
+        }
+        return found;
+    }
+
+    /**
+     * Rebuilds the index from the items still in it, in the order they were
+     * added, dropping every removed id.
+     */
+    private void compact() {
+        List<T> liveItems = new ArrayList<T>(ids.size());
+        List<String[]> liveKeys = new ArrayList<String[]>(ids.size());
+        for (int id = 0; id < items.size(); ++id) {
+            if (!removed.get(id)) {
+                liveItems.add(items.get(id));
+                liveKeys.add(keys.get(id));
+            }
+        }
+        items.clear();
+        keys.clear();
+        removed.clear();
+        ids.clear();
+        postings.clear();
+        for (int i = 0; i < liveItems.size(); ++i) {
+            add(liveItems.get(i), liveKeys.get(i));
+        }
+    }
+
+    /**
+     * Keeps the ids in the first count entries of candidates that are also
+     * in list, packing them to the front.
+     * @return the number of ids kept
+     */
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; ++i) {
+            int id = candidates[i];
+            while (j < list.size && list.ids[j] < id)
+                ++j;
+            if (j < list.size && list.ids[j] == id)
+                candidates[kept++] = id;
+        }
+        return kept;
+    }
+
+    /**
+     * Checks whether any key contains the query.
+     */
+    private static boolean matches(String[] itemKeys, String q) {
+        for (String key : itemKeys) {
+            if (key.contains(q))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Growable sorted list of ids.  Ids are handed out in increasing order,
+     * so appending keeps the list sorted.
+     */
+    private static class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            // an item repeating a substring is listed once
+            if (size > 0 && ids[size - 1] == id)
+                return;
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+}
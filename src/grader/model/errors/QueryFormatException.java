@@ -0,0 +1,43 @@
+package grader.model.errors;
+
+/**
+ * Exception thrown when a score query cannot be read, or names an
+ * assignment or category that is not in scope.
+ */
+public class QueryFormatException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    String query;
+    int position;
+
+    /**
+     * Constructs a new QueryFormatException for a problem at a position in
+     * a query.
+     * @param message description of the problem
+     * @param query the query text
+     * @param position index of the character where the problem was found,
+     * or -1 if it is not tied to one place
+     */
+    public QueryFormatException(String message, String query, int position) {
+        super("Error: " + message + (position < 0 ? "" : " at position " + position) +
+              " in '" + query + "'.");
+        this.query = query;
+        this.position = position;
+    }
+
+    /**
+     * Gets the query that triggered this exception.
+     * @return the query text
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets where in the query the problem was found.
+     * @return index of the character, or -1 if not tied to one place
+     */
+    public int getPosition() {
+        return position;
+    }
+}
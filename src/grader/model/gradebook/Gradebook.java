@@ -1,9 +1,9 @@
 package grader.model.gradebook;
 
 import grader.model.errors.NameFormatException;
+import grader.model.gradebook.scores.DenseScores;
 import grader.model.gradebook.scores.Scores;
 import grader.model.items.Assignment;
-import grader.model.items.AssignmentTree;
 import grader.model.people.Name;
 import grader.model.people.Student;
 
@@ -47,7 +47,7 @@ public class Gradebook {
 
    public Gradebook()
    {
-      scores = new Scores();
+      scores = new DenseScores();
       courses = new ArrayList<Course>();
    }
 
@@ -113,9 +113,6 @@ public class Gradebook {
          names[i] = sb.toString();
       }
       addCannedSection(course, "02", names);
-
-      AssignmentTree.AssignmentIterator itr =
-         course.getAssignmentTree().getAssignmentIterator();
    }
 
    private static void addCannedSection(Course course, String number, String[] names) {
@@ -140,14 +137,11 @@ public class Gradebook {
       }
 
       Random rand = new Random();
+      List<Assignment> assignments = course.getAssignmentTree().getAssignments();
 
       for (Student student : students) {
 
-         AssignmentTree.AssignmentIterator itr =
-               course.getAssignmentTree().getAssignmentIterator();
-
-         while (itr.hasNext()) {
-            Assignment assignment = itr.next();
+         for (Assignment assignment : assignments) {
              if (number.equals("02"))
              {
                  double randomScore = assignment.rawPoints - 1;
@@ -0,0 +1,192 @@
+package grader.model.gradebook;
+
+import grader.model.people.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A RosterTrie filters a Section's roster as a name is typed.
+ * <p>
+ * The roster is sorted once, the same way the group editors list it, and
+ * each student's first, middle, and last names and userID are added to a
+ * prefix trie in that order.  Every node keeps the sorted positions of the
+ * students with a word starting with the node's prefix, so a one word
+ * query is answered by walking down the trie and reading off the node's
+ * list, already in roster order.  A query of several words, such as
+ * "jane d" or "doe, jane", keeps the students matching every word by
+ * merging the lists of each word's node.
+ * <p>
+ * A trie is built for the roster as it was when the trie was made.  The
+ * Section builds a new one when its roster changes.
+ */
+public class RosterTrie
+{
+    /**
+     * The roster, in sorted order.
+     */
+    private final Student[] sorted;
+
+    /**
+     * Root of the trie, holding every student.
+     */
+    private final Node root = new Node();
+
+    /**
+     * Builds a trie over a roster.
+     * @param students the roster, in any order; it is not modified
+     */
+    public RosterTrie(List<Student> students)
+    {
+        List<Student> copy = new ArrayList<Student>(students);
+        Collections.sort(copy);
+        sorted = copy.toArray(new Student[copy.size()]);
+
+        for (int rank = 0; rank < sorted.length; rank++)
+        {
+            root.add(rank);
+            Student student = sorted[rank];
+            if (student.name != null)
+            {
+                insert(student.name.getFirstName(), rank);
+                insert(student.name.getMiddleName(), rank);
+                insert(student.name.getLastName(), rank);
+            }
+            insert(student.userID, rank);
+        }
+    }
+
+    /**
+     * Finds the students with a name or userID starting with each word of
+     * the query, ignoring case.  An empty query matches everyone.
+     * @param query words to look for, separated by spaces or commas
+     * @return the matching students, in roster order
+     */
+    public List<Student> find(String query)
+    {
+        List<Student> found = new ArrayList<Student>();
+        int[] ranks = root.ranks;
+        int count = root.size;
+        boolean copied = false;
+        for (String word : query.toLowerCase(Locale.ROOT).split("[\\s,]+"))
+        {
+            if (word.isEmpty())
+                continue;
+            Node node = root;
+            for (int i = 0; i < word.length() && node != null; i++)
+            {
+                node = node.child(word.charAt(i));
+            }
+            if (node == null)
+                return found;
+            if (!copied)
+            {
+                // the node lists are shared, so narrow a copy
+                ranks = Arrays.copyOf(ranks, count);
+                copied = true;
+            }
+            count = intersect(ranks, count, node);
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            found.add(sorted[ranks[i]]);
+        }
+        return found;
+    }
+
+    /**
+     * Returns the number of students in the trie.
+     * @return the roster size
+     */
+    public int size()
+    {
+        return sorted.length;
+    }
+
+    /**
+     * Adds a word for the student at a sorted position.  Students are
+     * inserted in order, so every node's list stays sorted.
+     */
+    private void insert(String word, int rank)
+    {
+        if (word == null)
+            return;
+        word = word.toLowerCase(Locale.ROOT);
+        Node node = root;
+        for (int i = 0; i < word.length(); i++)
+        {
+            node = node.childFor(word.charAt(i));
+            node.add(rank);
+        }
+    }
+
+    /**
+     * Keeps the ranks in the first count entries that are also in a node's
+     * list, packing them to the front.
+     * @return the number of ranks kept
+     */
+    private static int intersect(int[] ranks, int count, Node node)
+    {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < node.size; i++)
+        {
+            while (j < node.size && node.ranks[j] < ranks[i])
+                j++;
+            if (j < node.size && node.ranks[j] == ranks[i])
+                ranks[kept++] = ranks[i];
+        }
+        return kept;
+    }
+
+    /**
+     * A trie node: the students under it and its children, keyed by their
+     * next character in sorted order.
+     */
+    private static class Node
+    {
+        int[] ranks = new int[2];
+        int size;
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+
+        void add(int rank)
+        {
+            // a student with two words sharing this prefix is listed once
+            if (size > 0 && ranks[size - 1] == rank)
+                return;
+            if (size == ranks.length)
+                ranks = Arrays.copyOf(ranks, size * 2);
+            ranks[size++] = rank;
+        }
+
+        Node child(char c)
+        {
+            int i = Arrays.binarySearch(keys, c);
+            return i < 0 ? null : children[i];
+        }
+
+        Node childFor(char c)
+        {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0)
+                return children[i];
+            i = -i - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newKeys[i] = c;
+            newChildren[i] = new Node();
+            System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[i];
+        }
+    }
+}
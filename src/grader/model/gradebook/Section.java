@@ -66,6 +66,16 @@ public class Section
      */
     Histogram histogram = new Histogram();
 
+    /**
+     * Trie for filtering the roster, or null until it is next needed.
+     */
+    private RosterTrie rosterTrie;
+
+    /**
+     * Students the trie was built from, in order.
+     */
+    private Student[] trieRoster;
+
 	/**
 	*Add unenrolled student.
 	*pre:
@@ -74,6 +84,7 @@ public class Section
 	public void addStudent(Student student)
 	{
 	    students.add(student);
+	    rosterTrie = null;
 	}
 
     /**
@@ -115,4 +126,43 @@ public class Section
     public List<Student> getStudents() {
        return students;
     }
+
+    /**
+     * Returns the trie for filtering this section's roster, building it
+     * if the roster has changed since it was last built.  The roster is
+     * compared student by student, by identity, since getStudents hands
+     * out the list itself and a student may be replaced without the size
+     * changing.
+     */
+    public RosterTrie getRosterTrie() {
+       List<Student> roster = students == null ? new ArrayList<Student>() : students;
+       if (rosterTrie == null || !isTrieRoster(roster)) {
+          rosterTrie = new RosterTrie(roster);
+          trieRoster = roster.toArray(new Student[roster.size()]);
+       }
+       return rosterTrie;
+    }
+
+    /**
+     * Checks whether a roster holds the same students, in the same order,
+     * as the one the trie was built from.
+     */
+    private boolean isTrieRoster(List<Student> roster) {
+       if (trieRoster.length != roster.size())
+          return false;
+       int s = 0;
+       for (Student student : roster) {
+          if (trieRoster[s++] != student)
+             return false;
+       }
+       return true;
+    }
+
+    /**
+     * Tells this section that a student on its roster has been edited, so
+     * the roster trie is rebuilt.
+     */
+    public void rosterChanged() {
+       rosterTrie = null;
+    }
 }
@@ -0,0 +1,231 @@
+package grader.model.gradebook;
+
+import grader.model.gradebook.scores.RawScore;
+import grader.model.gradebook.scores.ScoreChange;
+import grader.model.gradebook.scores.Scores;
+import grader.model.items.Assignment;
+import grader.model.items.GradingPlan;
+import grader.model.people.Student;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The Spreadsheet class is the row model behind the grade spreadsheet.
+ * <p>
+ * Each row is a student in scope, in sorted order, and each column past the
+ * first is an assignment, followed by the total grade.  Rows hold no copy
+ * of the scores; a cell's text is read from the Scores when the table asks
+ * for it, which it only does for the rows on screen.
+ * <p>
+ * Each time the WorkSpace changes, update compares the scope with the one
+ * the rows were last built for and reports the least the table has to redo.
+ * The columns are rebuilt only when the assignments change, and the rows
+ * are re-sorted only when the roster changes or the scope is reloaded.  A
+ * single score edit that follows the last version seen only redraws the
+ * edited student's row, and other score changes redraw the rows on screen.
+ */
+public class Spreadsheet {
+    /**
+     * What the table needs to redo after an update.
+     */
+    public enum Change {
+        /** nothing shown has changed */
+        NONE,
+        /** only the row given by getChangedRow has changed */
+        ROW,
+        /** the cells of every row may have changed, but not the rows */
+        CELLS,
+        /** the students in scope, or their order, have changed */
+        ROWS,
+        /** the assignments or their names have changed, and with them the columns */
+        COLUMNS
+    }
+
+    /**
+     * Format of the total grade column, shared by every cell.
+     */
+    private static final DecimalFormat TOTAL_FORMAT = new DecimalFormat("0.0");
+
+    private List<Assignment> assignments = new ArrayList<Assignment>();
+    private List<String> headers = new ArrayList<String>();
+    private List<Student> students = new ArrayList<Student>();
+    private HashMap<Student, Integer> rowIndex = new HashMap<Student, Integer>();
+    private Scores scores;
+    private GradingPlan plan;
+    private int version;
+    private int changedRow = -1;
+
+    /**
+     * Brings the rows up to date with the scope.
+     * @param assignments assignments in scope, in column order
+     * @param plan grading plan the totals are computed with
+     * @param inScope students in scope, in any order; not modified
+     * @param scores scores in scope
+     * @param lastChange the most recent single score edit, or null
+     * @return what the table needs to redo
+     */
+    public Change update(List<Assignment> assignments, GradingPlan plan,
+                         List<Student> inScope, Scores scores,
+                         ScoreChange lastChange) {
+        Change change;
+        changedRow = -1;
+        List<String> names = new ArrayList<String>(assignments.size());
+        for (Assignment assignment : assignments) {
+            names.add(assignment.toString());
+        }
+        if (!assignments.equals(this.assignments) || !names.equals(headers)) {
+            this.assignments = new ArrayList<Assignment>(assignments);
+            this.headers = names;
+            setStudents(inScope);
+            change = Change.COLUMNS;
+        }
+        else if (!sameStudents(inScope)) {
+            setStudents(inScope);
+            change = Change.ROWS;
+        }
+        else if (scores != this.scores || plan != this.plan) {
+            // the scope was reloaded, which is when edited names show up
+            setStudents(inScope);
+            change = Change.ROWS;
+        }
+        else if (scores.getVersion() == version) {
+            change = Change.NONE;
+        }
+        else if (lastChange != null && lastChange.follows(scores, version)
+                && rowIndex.containsKey(lastChange.getStudent())) {
+            changedRow = rowIndex.get(lastChange.getStudent());
+            change = Change.ROW;
+        }
+        else {
+            change = Change.CELLS;
+        }
+        this.scores = scores;
+        this.plan = plan;
+        this.version = scores.getVersion();
+        return change;
+    }
+
+    /**
+     * Gets the row redrawn by the last update that returned ROW.
+     * @return the row, or -1 after any other update
+     */
+    public int getChangedRow() {
+        return changedRow;
+    }
+
+    /**
+     * Gets the assignments shown, in column order.
+     * @return the assignments
+     */
+    public List<Assignment> getAssignments() {
+        return Collections.unmodifiableList(assignments);
+    }
+
+    /**
+     * Gets the column header of each assignment, in column order.
+     * @return the headers
+     */
+    public List<String> getHeaders() {
+        return Collections.unmodifiableList(headers);
+    }
+
+    /**
+     * Gets the students shown, in row order.
+     * @return the students
+     */
+    public List<Student> getStudents() {
+        return Collections.unmodifiableList(students);
+    }
+
+    /**
+     * Gets the number of rows.
+     * @return the number of students shown
+     */
+    public int getRowCount() {
+        return students.size();
+    }
+
+    /**
+     * Gets the student shown in a row.
+     * @param row row index
+     * @return the student
+     */
+    public Student getStudent(int row) {
+        return students.get(row);
+    }
+
+    /**
+     * Gets the row a student is shown in.
+     * @param student student to find
+     * @return the row, or -1 if the student is not shown
+     */
+    public int indexOf(Student student) {
+        Integer row = rowIndex.get(student);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Gets the text of a student's score on an assignment.
+     * @param student student of the row
+     * @param column assignment index, in column order
+     * @return the score, or an empty string if there is none
+     */
+    public String getScoreText(Student student, int column) {
+        Assignment assignment = assignments.get(column);
+        if (scores == null || !scores.hasRawScore(student, assignment))
+            return "";
+        return "" + scores.getRawScore(student, assignment);
+    }
+
+    /**
+     * Gets a student's score on an assignment as a RawScore that reads
+     * and writes through to the scores, for selecting a cell.
+     * @param student student of the row
+     * @param column assignment index, in column order
+     * @return the score, or null if there is none
+     */
+    public RawScore getRawScore(Student student, int column) {
+        if (scores == null)
+            return null;
+        HashMap<Assignment, RawScore> row = scores.getScoresMap(student);
+        return row == null ? null : row.get(assignments.get(column));
+    }
+
+    /**
+     * Formats a total grade for the total column.
+     * @param total total percentage
+     * @return the total, to one decimal place
+     */
+    public static String formatTotal(double total) {
+        return TOTAL_FORMAT.format(total);
+    }
+
+    /**
+     * Checks whether the students in scope are the ones shown.
+     */
+    private boolean sameStudents(List<Student> inScope) {
+        if (inScope.size() != students.size())
+            return false;
+        for (Student student : inScope) {
+            if (!rowIndex.containsKey(student))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sorts the students in scope into rows.
+     */
+    private void setStudents(List<Student> inScope) {
+        students = new ArrayList<Student>(inScope);
+        Collections.sort(students);
+        rowIndex = new HashMap<Student, Integer>();
+        for (int row = 0; row < students.size(); ++row) {
+            rowIndex.put(students.get(row), row);
+        }
+    }
+}
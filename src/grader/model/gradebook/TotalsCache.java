@@ -0,0 +1,256 @@
+package grader.model.gradebook;
+
+import grader.model.gradebook.scores.ScoreChange;
+import grader.model.gradebook.scores.Scores;
+import grader.model.items.AssignmentTree;
+import grader.model.items.Category;
+import grader.model.items.GradingPlan;
+import grader.model.people.Student;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The TotalsCache class holds the total grade of every student in the
+ * WorkSpace scope, so that the listeners told of a change can share
+ * one computation instead of each totaling the whole roster on its own.
+ * <p>
+ * The cached totals are keyed by the Scores object they were computed from
+ * and its version stamp, the GradingPlan of the AssignmentTree, and the
+ * students of the roster in order.  The roster is compared student by
+ * student, by identity, so replacing or reordering students counts as a
+ * change even when the size stays the same.  Any change to one of these
+ * makes the next lookup recompute the totals.  Hits and misses are counted
+ * so the amount of repeated work can be checked.
+ * <p>
+ * A single score change reported through scoreChanged is applied in place,
+ * to the same array getTotals handed out.
+ * Only the edited student's total and the subtotals of the categories above
+ * the edited assignment move, by the score difference times the
+ * assignment's effective weight.
+ */
+public class TotalsCache {
+    /**
+     * Scores the cached totals were computed from.
+     */
+    private Scores scores;
+
+    /**
+     * Version stamp of the scores when the totals were computed.
+     */
+    private int version;
+
+    /**
+     * Grading plan the cached totals were computed with.
+     */
+    private GradingPlan plan;
+
+    /**
+     * Roster the cached totals were computed for, in order.
+     */
+    private Student[] roster;
+
+    /**
+     * Total grade of each student, in roster order.
+     */
+    private double[] totals;
+
+    /**
+     * Student to position in the totals array.
+     */
+    private HashMap<Student, Integer> index;
+
+    /**
+     * Points each category contributes to each student's total, indexed by
+     * roster position and then plan position.  Rows are built on first use.
+     */
+    private double[][] subtotals;
+
+    /**
+     * Number of lookups answered from the cache.
+     */
+    private int hits;
+
+    /**
+     * Number of lookups that recomputed the totals.
+     */
+    private int misses;
+
+    /**
+     * Number of score changes applied without recomputing.
+     */
+    private int updates;
+
+    /**
+     * Gets the total grade of every student in a roster, recomputing them
+     * only if the scores, the assignment tree, or the roster have changed
+     * since the last lookup.  The returned array is shared and must not be
+     * modified.  scoreChanged updates it in place, so a caller that needs
+     * the totals as they are now must copy it.
+     *
+     * @param tree assignment tree to total with
+     * @param scores scores to total
+     * @param students roster to total
+     * @return each student's total percentage, in roster order
+     */
+    public synchronized double[] getTotals(AssignmentTree tree, Scores scores,
+                                           List<Student> students) {
+        GradingPlan current = tree.getGradingPlan();
+        if (totals != null && this.scores == scores
+                && version == scores.getVersion() && plan == current
+                && isRoster(students)) {
+            ++hits;
+            return totals;
+        }
+
+        ++misses;
+        this.scores = scores;
+        this.version = scores.getVersion();
+        this.plan = current;
+        this.roster = students.toArray(new Student[students.size()]);
+        this.totals = current.calculate(scores, students);
+        this.subtotals = new double[totals.length][];
+        this.index = new HashMap<Student, Integer>();
+        for (int i = 0; i < students.size(); ++i) {
+            index.put(students.get(i), i);
+        }
+        return totals;
+    }
+
+    /**
+     * Checks whether a roster holds the same students, in the same order,
+     * as the one the totals were computed for.
+     */
+    private boolean isRoster(List<Student> students) {
+        if (roster.length != students.size())
+            return false;
+        int s = 0;
+        for (Student student : students) {
+            if (roster[s++] != student)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the total grade of one student in a roster.
+     *
+     * @param tree assignment tree to total with
+     * @param scores scores to total
+     * @param students roster the student belongs to
+     * @param student student whose total to get
+     * @return the student's total percentage
+     */
+    public synchronized double getTotal(AssignmentTree tree, Scores scores,
+                                        List<Student> students,
+                                        Student student) {
+        double[] current = getTotals(tree, scores, students);
+        Integer i = index.get(student);
+        if (i == null) {
+            return plan.calculate(scores, student);
+        }
+        return current[i];
+    }
+
+    /**
+     * Gets the points a category contributes to one student's total,
+     * including the points from its subcategories.
+     *
+     * @param tree assignment tree to total with
+     * @param scores scores to total
+     * @param students roster the student belongs to
+     * @param student student whose subtotal to get
+     * @param category category to get the subtotal of
+     * @return the category's subtotal, or 0.0 if it is not in the tree
+     */
+    public synchronized double getSubtotal(AssignmentTree tree, Scores scores,
+                                           List<Student> students,
+                                           Student student,
+                                           Category category) {
+        getTotals(tree, scores, students);
+        int c = plan.indexOf(category);
+        if (c < 0) {
+            return 0.0;
+        }
+        Integer i = index.get(student);
+        if (i == null) {
+            return plan.calculateSubtotals(scores, student)[c];
+        }
+        if (subtotals[i] == null) {
+            subtotals[i] = plan.calculateSubtotals(scores, student);
+        }
+        return subtotals[i][c];
+    }
+
+    /**
+     * Applies a single score change to the cached totals.  This must be
+     * called right after the change is made, while it is the only change
+     * since the totals were computed; otherwise the cache is left to
+     * recompute on the next lookup.
+     *
+     * @param tree assignment tree the totals were computed with
+     * @param scores scores that were changed
+     * @param change the change that was made
+     */
+    public synchronized void scoreChanged(AssignmentTree tree, Scores scores,
+                                          ScoreChange change) {
+        if (totals == null || this.scores != scores
+                || !change.follows(scores, version)
+                || plan != tree.getGradingPlan()) {
+            return;
+        }
+
+        version = scores.getVersion();
+        ++updates;
+        Integer i = index.get(change.getStudent());
+        int a = plan.indexOf(change.getAssignment());
+        if (i == null || a < 0) {
+            return;
+        }
+        double points = plan.getWeight(a)
+                * (change.getNewScore() - change.getOldScore());
+        totals[i] += points;
+        if (subtotals[i] != null) {
+            plan.addToSubtotals(subtotals[i], a, points);
+        }
+    }
+
+    /**
+     * Discards the cached totals.
+     */
+    public synchronized void invalidate() {
+        totals = null;
+        subtotals = null;
+        index = null;
+        roster = null;
+        scores = null;
+        plan = null;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return cache hits
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that recomputed the totals.
+     *
+     * @return cache misses
+     */
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of score changes applied without recomputing.
+     *
+     * @return incremental updates
+     */
+    public synchronized int getUpdates() {
+        return updates;
+    }
+}
@@ -1,19 +1,36 @@
 package grader.model.gradebook;
 
-import grader.controller.SidebarController;
-import grader.controller.SpreadsheetController;
 import grader.model.curve.Histogram;
 import grader.model.curve.PieChart;
+import grader.model.edit.Find;
+import grader.model.edit.ScoreIndex;
+import grader.model.edit.ScoreQuery;
+import grader.model.errors.MissingInputException;
+import grader.model.errors.QueryFormatException;
+import grader.model.gradebook.events.AssignmentTreeChanged;
+import grader.model.gradebook.events.EventBus;
+import grader.model.gradebook.events.GradeSchemeChanged;
+import grader.model.gradebook.events.RosterChanged;
+import grader.model.gradebook.events.ScopeChanged;
+import grader.model.gradebook.events.ScoreChanged;
+import grader.model.gradebook.events.ScoresChanged;
+import grader.model.gradebook.events.StudentSelected;
+import grader.model.gradebook.events.WorkSpaceEvent;
 import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.scores.GradeForecast;
+import grader.model.gradebook.scores.PredictionMatrix;
 import grader.model.gradebook.scores.RawScore;
+import grader.model.gradebook.scores.ScoreChange;
 import grader.model.gradebook.scores.Scores;
 import grader.model.gradebook.stats.StatsContainer;
 import grader.model.items.Assignment;
 import grader.model.items.AssignmentTree;
 import grader.model.items.Category;
+import grader.model.items.GradingPlan;
 import grader.model.people.Group;
 import grader.model.people.Student;
 
+import javax.naming.InvalidNameException;
 import java.util.*;
 
 /**
@@ -23,33 +40,46 @@ import java.util.*;
  * <p>
  * The WorkSpace provides methods for interacting with the grades relevant to
  * the scope (or context) of the grades being considered.  The scope is
- * controlled by the grader sidebar via the sidebarSelect method.  Upon scope
- * updates, all of the GUI underlying models are notified of the change, at
- * which time they will query for the information they need to display to the
- * user.
+ * controlled by the grader sidebar via the sidebarSelect method.  Each change
+ * is published on the workspace EventBus as a typed event, such as
+ * ScopeChanged or ScoreChanged, and the GUI underlying models subscribe to
+ * just the kinds of change they display, at which time they will query for
+ * the information they need to display to the user.
  * <p>
  * The Scores object held by the workspace is a copy of the grades relevant
  * to the current scope.  This copy is necessary to maintain temporary changes
- * to scores before they are persisted to the gradebook's scores object.  This
+ * to scores before they are persisted to the gradebook's scores object.  The
+ * copy shares each student's row with the gradebook until that row is first
+ * edited, so reloading the scope does not duplicate every score.  This
  * way, reverting the scores is a simple matter of reloading the scores from
  * the gradebook.  Saving the scores iterates through the list of deltas and
  * commits them to the gradebook.  Undo and redo are handled by maintaining a
  * list of future deltas.  Deltas move between these lists during undo/redo
- * operations.
+ * operations.  Grade edits added with batchGrade are published once, as a
+ * ScoresChanged when the batch ends, and are undone and redone as one step.
+ * <p>
+ * Student totals for the scope are computed at most once per change to the
+ * scores and shared by every listener through getTotals and getTotal.
+ * Single grade edits, undos, and redos adjust the cached totals in place
+ * rather than recomputing them.
  *
  * @author Gregory Davis
  */
-public class WorkSpace extends Observable {
+public class WorkSpace {
+    /**
+     * The kinds of change that can alter the students, assignments, or
+     * scores in scope, which every view of the grades subscribes to.
+     */
+    public static final List<Class<? extends WorkSpaceEvent>> SCOPE_EVENTS =
+            Collections.unmodifiableList(Arrays.<Class<? extends WorkSpaceEvent>>asList(
+                    ScopeChanged.class, RosterChanged.class,
+                    AssignmentTreeChanged.class, ScoresChanged.class));
+
     /**
      * Singleton WorkSpace instance.
      */
     public static final WorkSpace instance = new WorkSpace();
 
-    static {
-        instance.setChanged();
-        instance.notifyObservers();
-    }
-
     /**
      * Constructor.
      * Instantiates necessary models.
@@ -58,7 +88,11 @@ public class WorkSpace extends Observable {
         gradebook = Gradebook.getCannedGradebook();
         deltas = new ArrayList<RawScore>();
         futureDeltas = new ArrayList<RawScore>();
+        deltaBatches = new ArrayList<Integer>();
+        futureBatches = new ArrayList<Integer>();
         gradeScheme = null;
+        totals = new TotalsCache();
+        find = new Find(gradebook);
 
         statistics = new StatsContainer();
         pieChart = new PieChart();
@@ -68,9 +102,13 @@ public class WorkSpace extends Observable {
         this.copiedScore = 0.0;
         this.validCopy = false;
 
-        addObserver(statistics);
-        addObserver(pieChart);
-        addObserver(histogram);
+        for (Class<? extends WorkSpaceEvent> type : SCOPE_EVENTS) {
+            events.subscribe(type, statistics);
+            events.subscribe(type, pieChart);
+            events.subscribe(type, histogram);
+        }
+        events.subscribe(GradeSchemeChanged.class, pieChart);
+        events.subscribe(GradeSchemeChanged.class, histogram);
     }
 
     /////////////////////
@@ -134,6 +172,23 @@ public class WorkSpace extends Observable {
      */
     public List<RawScore> futureDeltas;
 
+    /**
+     * Number of deltas in each undoable step, oldest first.  A grade entered
+     * alone is a step of one; a batch of grades is undone as one step.
+     */
+    private List<Integer> deltaBatches;
+
+    /**
+     * Number of future deltas in each redoable step, most recently undone
+     * last.
+     */
+    private List<Integer> futureBatches;
+
+    /**
+     * Number of deltas added to the open batch, or -1 if no batch is open.
+     */
+    private int openBatch = -1;
+
     /**
      * Temporary GradeScheme for scope.
      */
@@ -163,11 +218,37 @@ public class WorkSpace extends Observable {
      * The histogram model.
      */
     public Histogram histogram;
+
+    /**
+     * The bus the workspace publishes its changes on.
+     */
+    private final EventBus events = new EventBus();
+
+    /**
+     * The cache of student totals shared by the component models.
+     */
+    private TotalsCache totals;
+
+    /**
+     * The most recent single score edit made to the workspace scores.
+     */
+    private ScoreChange lastChange;
+
+    /**
+     * The student and assignment search indexes of the gradebook.
+     */
+    private Find find;
+
+    /**
+     * Sorted score columns of the scope for score queries, or null until
+     * the first query.
+     */
+    private ScoreIndex scoreIndex;
     //////////////////////
 
 
     /////////////////////////////////
-    /* QUERY METHODS FOR OBSERVERS */
+    /* QUERY METHODS FOR LISTENERS */
     /////////////////////////////////
 
     /**
@@ -206,6 +287,43 @@ public class WorkSpace extends Observable {
         return pieChart;
     }
 
+    /**
+     * Returns the student and assignment search for the gradebook.
+     *
+     * @return find model
+     */
+    public Find getFind() {
+        return find;
+    }
+
+    /**
+     * Tells the search indexes that a student's name or userID has been
+     * edited: Find re-indexes the student, and the sections with the
+     * student on their roster rebuild their roster tries.
+     *
+     * @param student student edited
+     */
+    public void studentChanged(Student student) {
+        find.studentChanged(student);
+        for (Course course : gradebook.courses) {
+            for (Section section : course.sections) {
+                List<Student> roster = section.getStudents();
+                if (roster != null && roster.contains(student))
+                    section.rosterChanged();
+            }
+        }
+    }
+
+    /**
+     * Returns the bus the workspace publishes its changes on, for
+     * subscribing to the kinds of change a view displays.
+     *
+     * @return workspace event bus
+     */
+    public EventBus getEventBus() {
+        return events;
+    }
+
     /**
      * Returns the currently built histogram
      *
@@ -231,8 +349,7 @@ public class WorkSpace extends Observable {
      */
     public void addGroup(Group g) {
         getSection().addGroup(g);
-        setChanged();
-        notifyObservers();
+        events.publish(new RosterChanged(getSection()));
     }
 
     /**
@@ -256,11 +373,12 @@ public class WorkSpace extends Observable {
     public void addStudent(Student s) {
         if (section != null) {
             section.addStudent(s);
-            Iterator ai = getAssignmentTree().getAssignmentIterator();
-            while (ai.hasNext()) {
-                gradebook.getScores().addRawScore(s, (Assignment) ai.next(), 0.0);
+            find.studentAdded(course, s);
+            for (Assignment a : getAssignmentTree().getAssignments()) {
+                gradebook.getScores().addRawScore(s, a, 0.0);
             }
             loadScores();
+            events.publish(new RosterChanged(section));
         }
     }
 
@@ -297,11 +415,132 @@ public class WorkSpace extends Observable {
     public GradeScheme getGradeScheme() {
         return gradeScheme;
     }
+
+    /**
+     * Returns the total grade of every student in scope, in the order of
+     * getStudents.  The totals are only recomputed after the scores, the
+     * assignment tree, or the roster change.  The returned array is shared
+     * and must not be modified.
+     *
+     * @return total percentage of each student in scope
+     */
+    public double[] getTotals() {
+        return totals.getTotals(getAssignmentTree(), getScores(),
+                getStudents());
+    }
+
+    /**
+     * Returns the total grade of a student in scope.
+     *
+     * @param student student whose total to get
+     * @return total percentage of the student
+     */
+    public double getTotal(Student student) {
+        return totals.getTotal(getAssignmentTree(), getScores(),
+                getStudents(), student);
+    }
+
+    /**
+     * Returns the points a category contributes to a student's total.
+     *
+     * @param student student whose subtotal to get
+     * @param category category to get the subtotal of
+     * @return the category's subtotal for the student
+     */
+    public double getSubtotal(Student student, Category category) {
+        return totals.getSubtotal(getAssignmentTree(), getScores(),
+                getStudents(), student, category);
+    }
+
+    /**
+     * Builds the scores every student in scope needs on each of their
+     * ungraded assignments to reach each letter of the section's grade
+     * scheme.
+     *
+     * @return prediction matrix, or null if no section is in scope
+     */
+    public PredictionMatrix getPredictions() {
+        if (gradeScheme == null) return null;
+        return new PredictionMatrix(getAssignmentTree().getGradingPlan(),
+                getScores(), getStudents(), gradeScheme);
+    }
+
+    /**
+     * Forecasts the chance of each letter grade for every student in scope
+     * by simulating their ungraded assignments.
+     *
+     * @param trials number of simulated completions per student
+     * @return grade forecast, or null if no section is in scope
+     */
+    public GradeForecast getForecast(int trials) {
+        if (gradeScheme == null) return null;
+        return new GradeForecast(getAssignmentTree().getGradingPlan(),
+                getScores(), getStudents(), gradeScheme, trials,
+                System.nanoTime());
+    }
+
+    /**
+     * Returns the score index of the students in scope, rebuilding it if
+     * the scores, assignment tree, roster, or grade scheme have changed.
+     *
+     * @return score index for the scope
+     */
+    public ScoreIndex getScoreIndex() {
+        GradingPlan plan = getAssignmentTree().getGradingPlan();
+        Scores current = getScores();
+        List<Student> students = getStudents();
+        if (scoreIndex == null
+                || !scoreIndex.isCurrent(plan, current, students, gradeScheme)) {
+            scoreIndex = new ScoreIndex(plan, current, students, gradeScheme);
+        }
+        return scoreIndex;
+    }
+
+    /**
+     * Adds a group of the students in scope matching a score query to the
+     * selected section, so the matches can be scoped in the sidebar.
+     *
+     * @param groupName name of the new group
+     * @param query score query, as described by ScoreQuery
+     * @return the new group
+     * @throws QueryFormatException if the query cannot be read or names
+     * something not in scope
+     * @throws InvalidNameException if the group name is empty
+     * @throws MissingInputException if no student matches
+     */
+    public Group addQueryGroup(String groupName, String query)
+            throws QueryFormatException, InvalidNameException, MissingInputException {
+        Group g = ScoreQuery.parse(query).toGroup(groupName, getScoreIndex());
+        addGroup(g);
+        return g;
+    }
+
+    /**
+     * Returns the most recent single score edit, made by updateGrade, undo,
+     * or redo.  Listeners can apply it to results derived from the scores
+     * when ScoreChange.follows shows it is the only change since those
+     * results were computed.
+     *
+     * @return last score edit, or null if there has been none
+     */
+    public ScoreChange getLastChange() {
+        return lastChange;
+    }
+
+    /**
+     * Returns the cache of student totals, for checking its hit and miss
+     * counts.
+     *
+     * @return totals cache
+     */
+    public TotalsCache getTotalsCache() {
+        return totals;
+    }
     /////////////////////////////////
 
 
     //////////////////////////////////
-    /* UPDATE METHODS FOR OBSERVERS */
+    /* UPDATE METHODS FOR LISTENERS */
     //////////////////////////////////
 
     /**
@@ -331,8 +570,7 @@ public class WorkSpace extends Observable {
         loadScores();
         loadGradeScheme();
 
-        setChanged();
-        notifyObservers();
+        events.publish(new ScopeChanged(course, section, group));
     }
 
     public void update() {
@@ -355,8 +593,7 @@ public class WorkSpace extends Observable {
      */
     public void setSelectedStudent(Student s) {
         this.selectedStudent = s;
-        setChanged();
-        notifyObservers(new Class[]{SpreadsheetController.class, SidebarController.class});
+        events.publish(new StudentSelected(s));
     }
 
     /**
@@ -371,7 +608,9 @@ public class WorkSpace extends Observable {
                 gradebook.getScores().addRawScore(s, a, 0.0);
             }
             course.addAssignment(parent, a);
+            find.assignmentAdded(course, a);
             loadScores();
+            events.publish(new AssignmentTreeChanged(course));
         }
     }
 
@@ -405,12 +644,64 @@ public class WorkSpace extends Observable {
      */
     public void updateGrade(Student student, Assignment assignment,
                             double score) {
-        RawScore raw = new RawScore(student, assignment, score);
-        futureDeltas.clear();
-        deltas.add(raw);
-        scores.updateRawScore(student, assignment, score);
-        setChanged();
-        notifyObservers();
+        // an edit outside the batch, such as a cut or paste, is published
+        // at once, after whatever the batch holds so far
+        boolean batching = isBatching();
+        endBatch();
+        addDelta(student, assignment, score);
+        deltaBatches.add(1);
+        events.publish(new ScoreChanged(lastChange));
+        if (batching) {
+            beginBatch();
+        }
+    }
+
+    /**
+     * Adds a grade edit to the open batch, opening one if none is open.  The
+     * edit is applied to the scores and the cached totals at once, but is
+     * only published when the batch ends.
+     *
+     * @param student    student whose grade to update
+     * @param assignment assignment grade to update
+     * @param score      new score
+     */
+    public void batchGrade(Student student, Assignment assignment,
+                           double score) {
+        beginBatch();
+        addDelta(student, assignment, score);
+        ++openBatch;
+    }
+
+    /**
+     * Starts a batch of grade edits.  Until endBatch, batchGrade applies
+     * each edit to the scores and the cached totals without publishing it,
+     * and the edits are undone and redone together.  Edits made through
+     * updateGrade meanwhile are not part of the batch.  Starting a batch
+     * while one is open does nothing.
+     */
+    public void beginBatch() {
+        if (openBatch < 0) {
+            openBatch = 0;
+        }
+    }
+
+    /**
+     * Ends the open batch of grade edits, publishing a ScoresChanged if any
+     * grade was edited during it.
+     */
+    public void endBatch() {
+        if (closeBatch()) {
+            events.publish(new ScoresChanged());
+        }
+    }
+
+    /**
+     * Returns whether a batch of grade edits is open.
+     *
+     * @return whether grade edits are being batched
+     */
+    public boolean isBatching() {
+        return openBatch >= 0;
     }
 
     /**
@@ -434,13 +725,11 @@ public class WorkSpace extends Observable {
                    this'.getScores().getRawScore(student, assignment)) == 0));
      */
     public void revertGrades() {
-        deltas.clear();
-        futureDeltas.clear();
+        clearHistory();
 
         loadScores();
 
-        setChanged();
-        notifyObservers();
+        events.publish(new ScoresChanged());
     }
 
     /**
@@ -465,21 +754,18 @@ public class WorkSpace extends Observable {
             gradebookScores.updateRawScore(
                     raw.getStudent(), raw.getAssignment(), raw.getScore());
         }
-        deltas.clear();
-        futureDeltas.clear();
+        clearHistory();
         loadScores();
 
-        setChanged();
-        notifyObservers();
+        events.publish(new ScoresChanged());
     }
 
     /**
-     * Sets the GradeScheme changed flag and notifies observers.
+     * Sets the GradeScheme changed flag and publishes the edit.
      */
     public void setGradeSchemeChanged() {
         gradeSchemeChanged = true;
-        setChanged();
-        notifyObservers();
+        events.publish(new GradeSchemeChanged(gradeScheme, false));
     }
 
     /**
@@ -496,8 +782,7 @@ public class WorkSpace extends Observable {
             section.setGradeScheme(this.gradeScheme);
             gradeSchemeChanged = false;
             loadGradeScheme();
-            setChanged();
-            notifyObservers();
+            events.publish(new GradeSchemeChanged(gradeScheme, true));
         }
     }
     //////////////////////////////////
@@ -561,19 +846,23 @@ public class WorkSpace extends Observable {
                deltas.g/et(deltas.size() - 1).getAssignment())) == 0;
      */
     public void undo() {
+        closeBatch();
         if (canUndo()) {
-            RawScore undoneDelta = deltas.get(deltas.size() - 1);
-            deltas.remove(deltas.size() - 1);
-            futureDeltas.add(undoneDelta);
-
-            Student student = undoneDelta.getStudent();
-            Assignment assignment = undoneDelta.getAssignment();
-
-            // Revert score.
-            scores.updateRawScore(student, assignment,
-                    gradebook.getScores().getRawScore(student, assignment));
-            setChanged();
-            notifyObservers();
+            int steps = popBatch(deltaBatches, deltas.size());
+            for (int i = 0; i < steps; ++i) {
+                RawScore undoneDelta = deltas.get(deltas.size() - 1);
+                deltas.remove(deltas.size() - 1);
+                futureDeltas.add(undoneDelta);
+
+                Student student = undoneDelta.getStudent();
+                Assignment assignment = undoneDelta.getAssignment();
+
+                // Revert score.
+                setScore(student, assignment,
+                        gradebook.getScores().getRawScore(student, assignment));
+            }
+            futureBatches.add(steps);
+            publishScores(steps);
         }
     }
 
@@ -610,17 +899,21 @@ public class WorkSpace extends Observable {
            futureDeltas.get(futureDeltas.size() - 1).getScore()) == 0;
      */
     public void redo() {
+        closeBatch();
         if (canRedo()) {
-            RawScore redoneDelta = futureDeltas.get(futureDeltas.size() - 1);
-            futureDeltas.remove(futureDeltas.size() - 1);
-            deltas.add(redoneDelta);
-
-            // Reupdate score.
-            scores.updateRawScore(redoneDelta.getStudent(),
-                    redoneDelta.getAssignment(), redoneDelta.getScore());
+            int steps = popBatch(futureBatches, futureDeltas.size());
+            for (int i = 0; i < steps; ++i) {
+                RawScore redoneDelta = futureDeltas.get(futureDeltas.size() - 1);
+                futureDeltas.remove(futureDeltas.size() - 1);
+                deltas.add(redoneDelta);
+
+                // Reupdate score.
+                setScore(redoneDelta.getStudent(),
+                        redoneDelta.getAssignment(), redoneDelta.getScore());
+            }
+            deltaBatches.add(steps);
 
-            setChanged();
-            notifyObservers();
+            publishScores(steps);
         }
     }
 
@@ -735,16 +1028,93 @@ public class WorkSpace extends Observable {
            futureDeltas.get(futureDeltas.size() - 1).getScore()) == 0;
      */
     private void loadScores() {
-        Scores gradebookScores = gradebook.getScores();
-        List<Student> scopedStudents = getStudents();
-        scores = new Scores();
+        // Copy-on-write copy of the scores for relevant students.
+        scores = gradebook.getScores().copy(getStudents());
+    }
+
+    /**
+     * Records a delta for a grade edit and applies it to the scores.
+     */
+    private void addDelta(Student student, Assignment assignment,
+                          double score) {
+        futureDeltas.clear();
+        futureBatches.clear();
+        deltas.add(new RawScore(student, assignment, score));
+        setScore(student, assignment, score);
+    }
 
-        // Add in scores for relevant students.
-        for (Student student : scopedStudents) {
-            HashMap<Assignment, RawScore> scoresMap = gradebookScores.getScoresMap(student);
-            scores.addScoresMap(student, scoresMap);
+    /**
+     * Closes the open batch, recording its deltas as one undoable step.
+     *
+     * @return whether the batch held any deltas
+     */
+    private boolean closeBatch() {
+        int added = openBatch;
+        openBatch = -1;
+        if (added > 0) {
+            deltaBatches.add(added);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the last step from a list of step sizes.  A list that has
+     * fallen out of step with its deltas treats each delta as its own step.
+     *
+     * @param batches step sizes
+     * @param available number of deltas the steps cover
+     * @return number of deltas in the step
+     */
+    private static int popBatch(List<Integer> batches, int available) {
+        if (batches.isEmpty()) {
+            return 1;
+        }
+        return Math.min(batches.remove(batches.size() - 1), available);
+    }
+
+    /**
+     * Forgets every delta and future delta, leaving an open batch open.
+     */
+    private void clearHistory() {
+        deltas.clear();
+        futureDeltas.clear();
+        deltaBatches.clear();
+        futureBatches.clear();
+        if (openBatch > 0) {
+            openBatch = 0;
+        }
+    }
+
+    /**
+     * Updates a score in the workspace Scores, records it as the last change,
+     * and applies it to the cached totals.
+     *
+     * @param student student whose grade to update
+     * @param assignment assignment grade to update
+     * @param score new score
+     */
+    private void setScore(Student student, Assignment assignment,
+                          double score) {
+        double oldScore = scores.getRawScore(student, assignment);
+        scores.updateRawScore(student, assignment, score);
+        lastChange = new ScoreChange(student, assignment, oldScore, score,
+                scores.getVersion());
+        totals.scoreChanged(getAssignmentTree(), scores, lastChange);
+    }
+
+    /**
+     * Publishes a step of undo or redo: the single edit when the step held
+     * one delta, or a ScoresChanged for a batch.
+     *
+     * @param steps number of deltas in the step
+     */
+    private void publishScores(int steps) {
+        if (steps == 1) {
+            events.publish(new ScoreChanged(lastChange));
+        } else {
+            events.publish(new ScoresChanged());
         }
-        scores = scores.copy();
     }
 
     /**
@@ -0,0 +1,28 @@
+package grader.model.gradebook.events;
+
+import grader.model.gradebook.Course;
+
+/**
+ * Published when an assignment is added to a course.
+ */
+public class AssignmentTreeChanged extends WorkSpaceEvent {
+    private final Course course;
+
+    /**
+     * Constructor.
+     *
+     * @param course course whose assignment tree changed
+     */
+    public AssignmentTreeChanged(Course course) {
+        this.course = course;
+    }
+
+    /**
+     * Returns the course whose assignment tree changed.
+     *
+     * @return course
+     */
+    public Course getCourse() {
+        return course;
+    }
+}
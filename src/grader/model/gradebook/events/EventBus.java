@@ -0,0 +1,113 @@
+package grader.model.gradebook.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The EventBus delivers WorkSpace events to the listeners subscribed to
+ * their type.
+ * <p>
+ * A listener subscribed to a type hears of events of that type and of its
+ * subclasses, so subscribing to WorkSpaceEvent hears of every event, and
+ * subscribing to ScoresChanged hears of single ScoreChanged edits too.  An
+ * event is delivered to the listeners of its own type first, then to those
+ * of each superclass in turn, each in the order they subscribed.  A
+ * listener subscribed to a type and one of its superclasses hears of the
+ * event once for each.
+ * <p>
+ * Each type's listeners are kept in a list that is replaced rather than
+ * modified, so listeners may subscribe or unsubscribe while an event is
+ * being delivered; the change takes effect from the next event.
+ */
+public class EventBus {
+    /**
+     * Listeners of each event type, in the order they subscribed.
+     */
+    private final Map<Class<?>, List<WorkSpaceListener<?>>> listeners =
+            new HashMap<Class<?>, List<WorkSpaceListener<?>>>();
+
+    /**
+     * Subscribes a listener to a type of event.
+     *
+     * @param type type of event to hear of
+     * @param listener listener to tell
+     * @param <E> type of event
+     */
+    public <E extends WorkSpaceEvent> void subscribe(
+            Class<E> type, WorkSpaceListener<? super E> listener) {
+        List<WorkSpaceListener<?>> current = listeners.get(type);
+        List<WorkSpaceListener<?>> updated = current == null
+                ? new ArrayList<WorkSpaceListener<?>>()
+                : new ArrayList<WorkSpaceListener<?>>(current);
+        updated.add(listener);
+        listeners.put(type, updated);
+    }
+
+    /**
+     * Unsubscribes a listener from a type of event.  Does nothing if the
+     * listener is not subscribed to it.
+     *
+     * @param type type of event to stop hearing of
+     * @param listener listener to stop telling
+     */
+    public void unsubscribe(Class<? extends WorkSpaceEvent> type,
+                            WorkSpaceListener<?> listener) {
+        List<WorkSpaceListener<?>> current = listeners.get(type);
+        if (current == null || !current.contains(listener))
+            return;
+        List<WorkSpaceListener<?>> updated =
+                new ArrayList<WorkSpaceListener<?>>(current);
+        updated.remove(listener);
+        if (updated.isEmpty())
+            listeners.remove(type);
+        else
+            listeners.put(type, updated);
+    }
+
+    /**
+     * Unsubscribes a listener from every type of event.
+     *
+     * @param listener listener to stop telling
+     */
+    public void unsubscribeAll(WorkSpaceListener<?> listener) {
+        for (Class<?> type : new ArrayList<Class<?>>(listeners.keySet())) {
+            unsubscribe(type.asSubclass(WorkSpaceEvent.class), listener);
+        }
+    }
+
+    /**
+     * Delivers an event to the listeners of its type and its superclasses.
+     *
+     * @param event event to deliver
+     */
+    @SuppressWarnings("unchecked")
+    public void publish(WorkSpaceEvent event) {
+        for (Class<?> type = event.getClass();
+             WorkSpaceEvent.class.isAssignableFrom(type);
+             type = type.getSuperclass()) {
+            List<WorkSpaceListener<?>> current = listeners.get(type);
+            if (current == null)
+                continue;
+            for (WorkSpaceListener<?> listener : current) {
+                ((WorkSpaceListener<WorkSpaceEvent>) listener).handle(event);
+            }
+        }
+    }
+
+    /**
+     * Returns the listeners subscribed to exactly one type of event.
+     *
+     * @param type type of event
+     * @return its listeners, in the order they subscribed
+     */
+    public List<WorkSpaceListener<?>> getListeners(
+            Class<? extends WorkSpaceEvent> type) {
+        List<WorkSpaceListener<?>> current = listeners.get(type);
+        if (current == null)
+            return Collections.emptyList();
+        return Collections.unmodifiableList(current);
+    }
+}
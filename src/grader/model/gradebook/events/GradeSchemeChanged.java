@@ -0,0 +1,42 @@
+package grader.model.gradebook.events;
+
+import grader.model.gradebook.gradescheme.GradeScheme;
+
+/**
+ * Published when the grade scheme in scope is edited, or when the edits are
+ * committed to the section.
+ */
+public class GradeSchemeChanged extends WorkSpaceEvent {
+    private final GradeScheme gradeScheme;
+    private final boolean committed;
+
+    /**
+     * Constructor.
+     *
+     * @param gradeScheme grade scheme in scope
+     * @param committed whether the scheme was committed to the section
+     */
+    public GradeSchemeChanged(GradeScheme gradeScheme, boolean committed) {
+        this.gradeScheme = gradeScheme;
+        this.committed = committed;
+    }
+
+    /**
+     * Returns the grade scheme in scope.
+     *
+     * @return grade scheme
+     */
+    public GradeScheme getGradeScheme() {
+        return gradeScheme;
+    }
+
+    /**
+     * Returns whether the scheme was committed to the section, rather than
+     * only edited.
+     *
+     * @return whether the section holds the scheme
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+}
@@ -0,0 +1,28 @@
+package grader.model.gradebook.events;
+
+import grader.model.gradebook.Section;
+
+/**
+ * Published when a student or a group is added to a section.
+ */
+public class RosterChanged extends WorkSpaceEvent {
+    private final Section section;
+
+    /**
+     * Constructor.
+     *
+     * @param section section whose roster changed
+     */
+    public RosterChanged(Section section) {
+        this.section = section;
+    }
+
+    /**
+     * Returns the section whose roster changed.
+     *
+     * @return section
+     */
+    public Section getSection() {
+        return section;
+    }
+}
@@ -0,0 +1,55 @@
+package grader.model.gradebook.events;
+
+import grader.model.gradebook.Course;
+import grader.model.gradebook.Section;
+import grader.model.people.Group;
+
+/**
+ * Published when the course, section, or group in scope is selected, or
+ * the scope is reloaded.  Everything shown for the scope may have changed.
+ */
+public class ScopeChanged extends WorkSpaceEvent {
+    private final Course course;
+    private final Section section;
+    private final Group group;
+
+    /**
+     * Constructor.
+     *
+     * @param course selected course, or null
+     * @param section selected section, or null
+     * @param group selected group, or null
+     */
+    public ScopeChanged(Course course, Section section, Group group) {
+        this.course = course;
+        this.section = section;
+        this.group = group;
+    }
+
+    /**
+     * Returns the selected course.
+     *
+     * @return course, or null
+     */
+    public Course getCourse() {
+        return course;
+    }
+
+    /**
+     * Returns the selected section.
+     *
+     * @return section, or null
+     */
+    public Section getSection() {
+        return section;
+    }
+
+    /**
+     * Returns the selected group.
+     *
+     * @return group, or null
+     */
+    public Group getGroup() {
+        return group;
+    }
+}
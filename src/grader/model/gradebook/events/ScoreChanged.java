@@ -0,0 +1,68 @@
+package grader.model.gradebook.events;
+
+import grader.model.gradebook.scores.ScoreChange;
+import grader.model.items.Assignment;
+import grader.model.people.Student;
+
+/**
+ * Published when a single score in scope has changed, by a grade edit, an
+ * undo, or a redo.  Since it is a kind of ScoresChanged, listeners of
+ * ScoresChanged hear of it too.
+ */
+public class ScoreChanged extends ScoresChanged {
+    private final ScoreChange change;
+
+    /**
+     * Constructor.
+     *
+     * @param change the score edit
+     */
+    public ScoreChanged(ScoreChange change) {
+        this.change = change;
+    }
+
+    /**
+     * Returns the student whose score changed.
+     *
+     * @return student
+     */
+    public Student getStudent() {
+        return change.getStudent();
+    }
+
+    /**
+     * Returns the assignment whose score changed.
+     *
+     * @return assignment
+     */
+    public Assignment getAssignment() {
+        return change.getAssignment();
+    }
+
+    /**
+     * Returns the score before the change.
+     *
+     * @return old score
+     */
+    public double getOldScore() {
+        return change.getOldScore();
+    }
+
+    /**
+     * Returns the score after the change.
+     *
+     * @return new score
+     */
+    public double getNewScore() {
+        return change.getNewScore();
+    }
+
+    /**
+     * Returns the edit as a ScoreChange, for adjusting derived results.
+     *
+     * @return the score edit
+     */
+    public ScoreChange getChange() {
+        return change;
+    }
+}
@@ -0,0 +1,10 @@
+package grader.model.gradebook.events;
+
+/**
+ * Published when any number of scores in scope have changed at once, such
+ * as when a batch of grades ends, a batch is undone or redone, or the
+ * scores are reverted or saved.  Listeners that can only adjust to one edit
+ * at a time should re-read the scores.
+ */
+public class ScoresChanged extends WorkSpaceEvent {
+}
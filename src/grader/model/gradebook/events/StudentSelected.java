@@ -0,0 +1,28 @@
+package grader.model.gradebook.events;
+
+import grader.model.people.Student;
+
+/**
+ * Published when a student is selected in the spreadsheet.
+ */
+public class StudentSelected extends WorkSpaceEvent {
+    private final Student student;
+
+    /**
+     * Constructor.
+     *
+     * @param student selected student, or null
+     */
+    public StudentSelected(Student student) {
+        this.student = student;
+    }
+
+    /**
+     * Returns the selected student.
+     *
+     * @return student, or null
+     */
+    public Student getStudent() {
+        return student;
+    }
+}
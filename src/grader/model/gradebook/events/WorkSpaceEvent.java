@@ -0,0 +1,10 @@
+package grader.model.gradebook.events;
+
+/**
+ * A WorkSpaceEvent tells the listeners of the WorkSpace what about it has
+ * changed, so each can skip the changes it does not display.  Each kind of
+ * change is its own subclass; listeners subscribe to the kinds they need
+ * through the EventBus.
+ */
+public abstract class WorkSpaceEvent {
+}
@@ -0,0 +1,15 @@
+package grader.model.gradebook.events;
+
+/**
+ * A WorkSpaceListener is told of the WorkSpace events it subscribed to.
+ *
+ * @param <E> kind of event listened for
+ */
+public interface WorkSpaceListener<E extends WorkSpaceEvent> {
+    /**
+     * Handles an event published on the bus.
+     *
+     * @param event the change that happened
+     */
+    void handle(E event);
+}
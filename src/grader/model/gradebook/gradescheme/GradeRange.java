@@ -3,6 +3,7 @@ package grader.model.gradebook.gradescheme;
 import grader.model.items.Percentage;
 import javafx.scene.paint.Color;
 
+
 /**
  *  GradeRange represents the percentage range that specifies
  *  a specific attainable LetterGrade within the class. A GradeRange contains the
@@ -33,6 +34,12 @@ public class GradeRange
      */
     private Color color;
 
+    /**
+     * The GradeScheme this GradeRange belongs to, if any, told whenever the
+     * lowerBound changes so its classifier stays current.
+     */
+    GradeScheme scheme;
+
     /**
      * Constructor for fields of GradeRange.
      */
@@ -67,11 +74,16 @@ public class GradeRange
     }
 
     /**
-     * Mutator method for the lowerBound.
+     * Mutator method for the lowerBound.  A GradeRange that belongs to a
+     * GradeScheme has the scheme reclassify with the new bound; the scheme's
+     * own update methods should be preferred, as they keep the bounds in
+     * order.
      * @param lowerBound the lowerBound Percentage of this GradeRange.
      */
     public void setLowerBound(Percentage lowerBound) {
         this.lowerBound = lowerBound;
+        if (scheme != null)
+            scheme.boundsChanged();
     }
 
     /**
@@ -4,7 +4,6 @@ import grader.model.items.Percentage;
 import javafx.scene.paint.Color;
 
 import java.util.ArrayList;
-import java.util.Collections;
 
 /**
  * GradeScheme represents the set of GradeRanges that allow for a student to
@@ -21,6 +20,25 @@ public class GradeScheme
      */
     public ArrayList<GradeRange> ranges;
 
+    /**
+     * Lower bound of every GradeRange, in the same order as ranges, used to
+     * classify percentages without scanning the ranges.  Each GradeRange
+     * added through add tells this GradeScheme when its bound changes, so
+     * this stays current.
+     */
+    private double[] bounds;
+
+    /**
+     * Incremented whenever the lower bounds change.
+     */
+    private int version;
+
+    /**
+     * True while several bounds are being moved at once, so the classifier
+     * is rebuilt once at the end instead of after each one.
+     */
+    private boolean moving;
+
     /**
      * Constructor for fields of GradeScheme which creates and sets
      * a generic GradeScheme to be used in the class.
@@ -32,19 +50,20 @@ public class GradeScheme
          * Create a generic GradeScheme to be used initially:
          * 90%-100%, A, Green | 80%-90%, B, Blue | 70%-80%, C, Yellow | 60%-70%, D, Purple | 0%-60%, F, Red
          */
-        ranges.add(new GradeRange(new Percentage(97.0), LetterGrade.A_PLUS, Color.LIGHTGREEN));
-        ranges.add(new GradeRange(new Percentage(93.0), LetterGrade.A, Color.GREEN));
-        ranges.add(new GradeRange(new Percentage(90.0), LetterGrade.A_MINUS, Color.DARKGREEN));
-        ranges.add(new GradeRange(new Percentage(87.0), LetterGrade.B_PLUS, Color.LIGHTBLUE));
-        ranges.add(new GradeRange(new Percentage(83.0), LetterGrade.B, Color.BLUE));
-        ranges.add(new GradeRange(new Percentage(80.0), LetterGrade.B_MINUS, Color.DARKBLUE));
-        ranges.add(new GradeRange(new Percentage(77.0), LetterGrade.C_PLUS, Color.LIGHTYELLOW));
-        ranges.add(new GradeRange(new Percentage(73.0), LetterGrade.C, Color.YELLOW));
-        ranges.add(new GradeRange(new Percentage(70.0), LetterGrade.C_MINUS, Color.GOLD));
-        ranges.add(new GradeRange(new Percentage(67.0), LetterGrade.D_PLUS, Color.LAVENDER));
-        ranges.add(new GradeRange(new Percentage(63.0), LetterGrade.D, Color.PURPLE));
-        ranges.add(new GradeRange(new Percentage(60.0), LetterGrade.D_MINUS, Color.DARKVIOLET));
-        ranges.add(new GradeRange(new Percentage(0.0), LetterGrade.F, Color.RED));
+        add(new GradeRange(new Percentage(97.0), LetterGrade.A_PLUS, Color.LIGHTGREEN));
+        add(new GradeRange(new Percentage(93.0), LetterGrade.A, Color.GREEN));
+        add(new GradeRange(new Percentage(90.0), LetterGrade.A_MINUS, Color.DARKGREEN));
+        add(new GradeRange(new Percentage(87.0), LetterGrade.B_PLUS, Color.LIGHTBLUE));
+        add(new GradeRange(new Percentage(83.0), LetterGrade.B, Color.BLUE));
+        add(new GradeRange(new Percentage(80.0), LetterGrade.B_MINUS, Color.DARKBLUE));
+        add(new GradeRange(new Percentage(77.0), LetterGrade.C_PLUS, Color.LIGHTYELLOW));
+        add(new GradeRange(new Percentage(73.0), LetterGrade.C, Color.YELLOW));
+        add(new GradeRange(new Percentage(70.0), LetterGrade.C_MINUS, Color.GOLD));
+        add(new GradeRange(new Percentage(67.0), LetterGrade.D_PLUS, Color.LAVENDER));
+        add(new GradeRange(new Percentage(63.0), LetterGrade.D, Color.PURPLE));
+        add(new GradeRange(new Percentage(60.0), LetterGrade.D_MINUS, Color.DARKVIOLET));
+        add(new GradeRange(new Percentage(0.0), LetterGrade.F, Color.RED));
+        rebuildClassifier();
     }
 
     /**
@@ -73,6 +92,87 @@ public class GradeScheme
         ranges.get(gradeToUpdate.ordinal()).setLowerBound(newPercent);
     }
 
+    /**
+     * Replaces the lower bound of every GradeRange at once.  The bounds must
+     * follow the same ordering rules as updateGradeRange: each one below the
+     * one before it, the first below the ceiling, and none negative.
+     * @param newBounds the new lower bounds, in the same order as ranges
+     * @throws OverlappingRangeException if two bounds are out of order
+     * @throws IllegalArgumentException if the wrong number of bounds is
+     * given or a bound is negative
+     */
+    public void setLowerBounds(double[] newBounds) throws OverlappingRangeException {
+        if (newBounds.length != ranges.size())
+            throw new IllegalArgumentException("Expected " + ranges.size()
+                    + " lower bounds but got " + newBounds.length);
+
+        double higher = ceiling;
+        for (double bound : newBounds) {
+            if (bound < 0)
+                throw new IllegalArgumentException("Lower bound " + bound
+                        + " is negative");
+            if (bound >= higher)
+                throw new OverlappingRangeException(String.valueOf(bound),
+                        String.valueOf(higher));
+            higher = bound;
+        }
+
+        Percentage[] percents = new Percentage[newBounds.length];
+        for (int i = 0; i < newBounds.length; ++i)
+            percents[i] = new Percentage(newBounds[i]);
+        moving = true;
+        for (int i = 0; i < newBounds.length; ++i)
+            ranges.get(i).setLowerBound(percents[i]);
+        moving = false;
+        rebuildClassifier();
+    }
+
+    /**
+     * Moves the lower bound of the specified LetterGrade, pushing the bounds
+     * of neighboring GradeRanges out of the way instead of failing when they
+     * overlap.  Lowering a bound pushes the ranges below it down, raising it
+     * pushes the ranges above it up, and every range stays at least gap
+     * apart from its neighbors.  The F bound stays at 0%, the highest bound
+     * stays below the ceiling, and the new bound is clamped so everything
+     * fits.  Only ranges that actually have to move are visited.
+     * @param gradeToUpdate the LetterGrade of the GradeRange to move
+     * @param newPercent the new lower bound
+     * @param gap the smallest allowed distance between neighboring bounds
+     */
+    public void shiftGradeRange(LetterGrade gradeToUpdate, Percentage newPercent, double gap) {
+        int index = gradeToUpdate.ordinal();
+        int last = ranges.size() - 1;
+        if (index >= last)
+            return;
+
+        // leave room for one gap per range between this one and either end
+        double lowest = ranges.get(last).getLowerBound().getValue() + gap * (last - index);
+        double highest = ceiling - gap * (index + 1);
+        double bound = Math.max(lowest, Math.min(highest, newPercent.getValue()));
+        double current = ranges.get(index).getLowerBound().getValue();
+        moving = true;
+        ranges.get(index).setLowerBound(new Percentage(bound));
+
+        if (bound < current) {
+            for (int i = index + 1; i < last; ++i) {
+                double limit = ranges.get(i - 1).getLowerBound().getValue() - gap;
+                if (ranges.get(i).getLowerBound().getValue() <= limit)
+                    break;
+                ranges.get(i).setLowerBound(new Percentage(limit));
+            }
+        }
+        else {
+            for (int i = index - 1; i >= 0; --i) {
+                double limit = ranges.get(i + 1).getLowerBound().getValue() + gap;
+                if (ranges.get(i).getLowerBound().getValue() >= limit)
+                    break;
+                ranges.get(i).setLowerBound(new Percentage(limit));
+            }
+        }
+        moving = false;
+        rebuildClassifier();
+    }
+
     /**
      * Updates the GradeRange of the specified LetterGrade with the specified Color.
      * @param gradeToUpdate the LetterGrade of the GradeRange to be updated
@@ -89,14 +189,80 @@ public class GradeScheme
      * or null
      */
     public GradeRange getGradeRange(Percentage percent) {
-        GradeRange found = null;
+        int found = classify(percent.getValue());
+        return found < 0 ? null : ranges.get(found);
+    }
 
-        for (GradeRange range : ranges)
-            if (percent.compareTo(range.getLowerBound()) >= 0) {
-                found = range;
-                break;
-            }
-        return found;
+    /**
+     * Finds the GradeRange in which the specified percent falls by binary
+     * search over the lower bounds.
+     * @param percent the percent to classify
+     * @return the index in ranges, which is also the LetterGrade ordinal,
+     * of the GradeRange the percent falls in, or -1 if it is below every
+     * lower bound
+     */
+    public int classify(double percent) {
+        // bounds descend, so the ranges the percent reaches form a suffix
+        int from = 0;
+        int to = bounds.length;
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (Double.compare(percent, bounds[mid]) >= 0)
+                to = mid;
+            else
+                from = mid + 1;
+        }
+        return from < bounds.length ? from : -1;
+    }
+
+    /**
+     * Classifies a whole roster of percents at once.
+     * @param totals the percents to classify
+     * @return the LetterGrade ordinal of each percent, in the same order,
+     * or -1 for any percent below every lower bound
+     */
+    public int[] classify(double[] totals) {
+        int[] letters = new int[totals.length];
+        for (int i = 0; i < totals.length; ++i)
+            letters[i] = classify(totals[i]);
+        return letters;
+    }
+
+    /**
+     * Returns a stamp that changes whenever a lower bound is moved, so
+     * results classified with this GradeScheme can tell they are stale.
+     * @return the version stamp
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Adds a GradeRange below the others and has it report bound changes
+     * to this GradeScheme.
+     * @param range the GradeRange to add
+     */
+    private void add(GradeRange range) {
+        range.scheme = this;
+        ranges.add(range);
+    }
+
+    /**
+     * Called by a GradeRange of this GradeScheme whose bound has changed.
+     */
+    void boundsChanged() {
+        if (!moving)
+            rebuildClassifier();
+    }
+
+    /**
+     * Copies the lower bounds of the ranges into the classifier.
+     */
+    private void rebuildClassifier() {
+        ++version;
+        bounds = new double[ranges.size()];
+        for (int i = 0; i < bounds.length; ++i)
+            bounds[i] = ranges.get(i).getLowerBound().getValue();
     }
 
     /**
@@ -116,7 +282,11 @@ public class GradeScheme
     */
     public GradeScheme copy() {
        GradeScheme copy = new GradeScheme();
-       Collections.copy(copy.ranges, this.ranges);
+       copy.ranges.clear();
+       for (GradeRange range : ranges)
+           copy.add(new GradeRange(range.getLowerBound(),
+                   range.getLetterGrade(), range.getColor()));
+       copy.rebuildClassifier();
        return copy;
     }
 }
@@ -10,20 +10,20 @@ import java.util.HashMap;
  */
 public enum LetterGrade
 {
-    A_PLUS ("A+", "A_Plus_Low", "A_High", "A_PLUS_COLOR"),
-    A ("A", "A_Low", "A_Minus_High", "A_COLOR"),
-    A_MINUS ("A-", "A_Minus_Low", "B_Plus_High", "A_MINUS_COLOR"),
-    B_PLUS ("B+", "B_Plus_Low", "B_High", "B_PLUS_COLOR"),
-    B ("B", "B_Low", "B_Minus_High", "B_COLOR"),
-    B_MINUS ("B-", "B_Minus_Low", "C_Plus_High", "B_COLOR"),
-    C_PLUS ("C+", "C_Plus_Low", "C_High", "C_PLUS_COLOR"),
-    C ("C", "C_Low", "C_Minus_High", "C_COLOR"),
-    C_MINUS ("C-", "C_Minus_Low", "D_Plus_High", "C_MINUS_COLOR"),
-    D_PLUS ("D+", "D_Plus_Low", "D_High", "D_PLUS_COLOR"),
-    D ("D", "D_Low", "D_Minus_High", "D_COLOR"),
-    D_MINUS ("D-", "D_Minus_Low", "F_High", "D_MINUS_COLOR"),
-    F ("F", "", "", "F_COLOR"),
-    SIZE("", "", "", "");
+    A_PLUS ("A+", "A_Plus_Low", "A_High", "A_PLUS_COLOR", 4.0),
+    A ("A", "A_Low", "A_Minus_High", "A_COLOR", 4.0),
+    A_MINUS ("A-", "A_Minus_Low", "B_Plus_High", "A_MINUS_COLOR", 3.7),
+    B_PLUS ("B+", "B_Plus_Low", "B_High", "B_PLUS_COLOR", 3.3),
+    B ("B", "B_Low", "B_Minus_High", "B_COLOR", 3.0),
+    B_MINUS ("B-", "B_Minus_Low", "C_Plus_High", "B_COLOR", 2.7),
+    C_PLUS ("C+", "C_Plus_Low", "C_High", "C_PLUS_COLOR", 2.3),
+    C ("C", "C_Low", "C_Minus_High", "C_COLOR", 2.0),
+    C_MINUS ("C-", "C_Minus_Low", "D_Plus_High", "C_MINUS_COLOR", 1.7),
+    D_PLUS ("D+", "D_Plus_Low", "D_High", "D_PLUS_COLOR", 1.3),
+    D ("D", "D_Low", "D_Minus_High", "D_COLOR", 1.0),
+    D_MINUS ("D-", "D_Minus_Low", "F_High", "D_MINUS_COLOR", 0.7),
+    F ("F", "", "", "F_COLOR", 0.0),
+    SIZE("", "", "", "", 0.0);
 
     /**
      * The String form of the LetterGrade represented by this Enum.
@@ -45,6 +45,11 @@ public enum LetterGrade
      */
     public final String colorID;
 
+    /**
+     * The grade points this LetterGrade is worth on a 4.0 scale.
+     */
+    public final double gradePoints;
+
     /**
      * Maps the fxml IDs to the corresponding LetterGrade.
      */
@@ -56,12 +61,14 @@ public enum LetterGrade
      * @param textID1 the fxml ID for the "Low" TextBox that must update this LetterGrade's GradeRange' Percentage.
      * @param textID2 the fxml ID for the "High" TextBox that must update this LetterGrade's GradeRange' Percentage.
      * @param colorID the fxml ID for the ColorPicker that must update this LetterGrade's GradeRange' Color.
+     * @param gradePoints the grade points this LetterGrade is worth on a 4.0 scale.
      */
-    LetterGrade(String letter, String textID1, String textID2, String colorID) {
+    LetterGrade(String letter, String textID1, String textID2, String colorID, double gradePoints) {
         this.letter = letter;
         this.textID1 = textID1;
         this.textID2 = textID2;
         this.colorID = colorID;
+        this.gradePoints = gradePoints;
     }
 
 
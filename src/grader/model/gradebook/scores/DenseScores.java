@@ -0,0 +1,488 @@
+package grader.model.gradebook.scores;
+
+import grader.model.items.Assignment;
+import grader.model.people.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A Scores implementation backed by a dense matrix of primitive doubles.
+ * <p>
+ * Every student and assignment is given an ordinal the first time a score is
+ * entered for it.  Each student owns a row of doubles indexed by assignment
+ * ordinal, so looking up a score costs two ordinal lookups and an array read,
+ * and no RawScore objects are kept around.  Cells that have never been given
+ * a score hold NaN, which is treated the same way the HashMap-backed Scores
+ * treats a missing entry.
+ * <p>
+ * The RawScores handed out by getScoresMap and getScores are views onto the
+ * matrix, so setting a score on one of them writes straight through.
+ * <p>
+ * Copies are copy-on-write.  A copy shares its rows with the matrix it was
+ * copied from, and whichever side first writes to a shared row clones it
+ * before writing.  Copying a scope out of the gradebook therefore costs one
+ * reference per student rather than one value per cell.
+ * <p>
+ * Any number of threads may read from a DenseScores at once, including
+ * through weightedTotal, provided nothing writes to it at the same time.
+ */
+public class DenseScores extends Scores {
+   /**
+    * Marker for a cell that has no score.
+    */
+   private static final double EMPTY = Double.NaN;
+
+   /**
+    * Initial capacity of the student and assignment dimensions.
+    */
+   private static final int INITIAL_CAPACITY = 16;
+
+   /**
+    * Students in ordinal order.
+    */
+   private ArrayList<Student> students;
+
+   /**
+    * Assignments in ordinal order.
+    */
+   private ArrayList<Assignment> assignments;
+
+   /**
+    * Student to row ordinal.
+    */
+   private HashMap<Student, Integer> studentOrdinals;
+
+   /**
+    * Assignment to column ordinal.
+    */
+   private HashMap<Assignment, Integer> assignmentOrdinals;
+
+   /**
+    * Score rows, indexed by student ordinal, then assignment ordinal.
+    * Rows may be shorter than the number of assignments; missing columns
+    * are empty.
+    */
+   private double[][] rows;
+
+   /**
+    * Whether each row is owned by this matrix alone and may be written in
+    * place.  Rows that are shared with a copy must be cloned first.
+    */
+   private boolean[] owned;
+
+   /**
+    * Column ordinals resolved for the last assignment array passed to
+    * weightedTotal.  Callers reuse the same array for every student, so the
+    * lookup is done once per array rather than once per student.
+    */
+   private ColumnMap columnMap;
+
+   /**
+    * Constructor.
+    */
+   public DenseScores() {
+      students = new ArrayList<Student>();
+      assignments = new ArrayList<Assignment>();
+      studentOrdinals = new HashMap<Student, Integer>();
+      assignmentOrdinals = new HashMap<Assignment, Integer>();
+      rows = new double[INITIAL_CAPACITY][];
+      owned = new boolean[INITIAL_CAPACITY];
+   }
+
+   ////////////////////
+   /* SCORES METHODS */
+   ////////////////////
+
+   @Override
+   public double getRawScore(Student student, Assignment assignment) {
+      Integer row = studentOrdinals.get(student);
+      Integer column = assignmentOrdinals.get(assignment);
+      if (row == null || column == null) return 0.0;
+      return getRawScore(row, column);
+   }
+
+   @Override
+   public boolean hasRawScore(Student student, Assignment assignment) {
+      Integer row = studentOrdinals.get(student);
+      Integer column = assignmentOrdinals.get(assignment);
+      return row != null && column != null && !Double.isNaN(cell(row, column));
+   }
+
+   @Override
+   public void addRawScore(Student student, Assignment assignment,
+                           double score) {
+      set(ordinalOf(student), ordinalOf(assignment), score);
+   }
+
+   @Override
+   public void updateRawScore(Student student, Assignment assignment,
+                              double newScore) {
+      set(studentOrdinals.get(student), assignmentOrdinals.get(assignment),
+          newScore);
+   }
+
+   @Override
+   public void removeRawScore(Student student, Assignment assignment) {
+      Integer row = studentOrdinals.get(student);
+      Integer column = assignmentOrdinals.get(assignment);
+      if (row != null && column != null && column < rows[row].length) {
+         set(row, column, EMPTY);
+      }
+   }
+
+   @Override
+   public double getAverageScore(Assignment assignment) {
+      int count = 0;
+      double totalScore = 0.0;
+      Integer column = assignmentOrdinals.get(assignment);
+
+      if (column != null) {
+         for (int row = 0; row < students.size(); ++row) {
+            double score = cell(row, column);
+            if (!Double.isNaN(score)) {
+               ++count;
+               totalScore += score;
+            }
+         }
+      }
+
+      return totalScore / count;
+   }
+
+   /**
+    * Sums a student's raw scores, each multiplied by a weight, reading
+    * straight from the student's row.
+    * @param student student whose scores to sum
+    * @param keys assignments to include
+    * @param weights weight of each assignment, parallel to keys
+    * @return weighted total of the student's scores
+    */
+   @Override
+   public double weightedTotal(Student student, Assignment[] keys,
+                               double[] weights) {
+      Integer row = studentOrdinals.get(student);
+      if (row == null) return super.weightedTotal(student, keys, weights);
+
+      int[] columns = columnsOf(keys);
+      double[] scores = rows[row];
+      double total = 0.0;
+      for (int i = 0; i < columns.length; ++i) {
+         int column = columns[i];
+         double score = column >= 0 && column < scores.length
+               ? scores[column] : EMPTY;
+         total += weights[i] * (Double.isNaN(score) ? 0.0 : score);
+      }
+      return total;
+   }
+
+   @Override
+   public List<RawScore> getScores(Assignment assignment) {
+      List<RawScore> scoresList = new ArrayList<RawScore>();
+      Integer column = assignmentOrdinals.get(assignment);
+
+      if (column != null) {
+         for (int row = 0; row < students.size(); ++row) {
+            if (!Double.isNaN(cell(row, column))) {
+               scoresList.add(new CellScore(row, column));
+            }
+         }
+      }
+      return scoresList;
+   }
+
+   @Override
+   public HashMap<Assignment, RawScore> getScoresMap(Student student) {
+      Integer row = studentOrdinals.get(student);
+      if (row == null) return null;
+
+      HashMap<Assignment, RawScore> map = new HashMap<Assignment, RawScore>();
+      double[] scores = rows[row];
+      for (int column = 0; column < scores.length; ++column) {
+         if (!Double.isNaN(scores[column])) {
+            map.put(assignments.get(column), new CellScore(row, column));
+         }
+      }
+      return map;
+   }
+
+   /**
+    * Copies the scores in the given map into the given student's row.
+    * Unlike the HashMap-backed Scores, the map itself is not retained.
+    * @param student student to add scores for
+    * @param scores assignment to scores map, may be null
+    */
+   @Override
+   public void addScoresMap(Student student,
+                            HashMap<Assignment, RawScore> scores) {
+      int row = ordinalOf(student);
+      if (scores != null) {
+         for (Assignment assignment : scores.keySet()) {
+            set(row, ordinalOf(assignment), scores.get(assignment).getScore());
+         }
+      }
+   }
+
+   @Override
+   public DenseScores copy() {
+      return copy(students);
+   }
+
+   /**
+    * Copies the rows of the given students into a new DenseScores.
+    * Column ordinals are preserved, so the copy can be indexed the same way.
+    * The rows themselves are shared until either matrix writes to them.
+    * @param scopedStudents students to copy scores for
+    * @return matrix holding only the given students' scores
+    */
+   @Override
+   public DenseScores copy(List<Student> scopedStudents) {
+      DenseScores copy = new DenseScores();
+      copy.assignments.addAll(assignments);
+      copy.assignmentOrdinals.putAll(assignmentOrdinals);
+      for (Student student : scopedStudents) {
+         Integer source = studentOrdinals.get(student);
+         if (source == null) {
+            copy.ordinalOf(student);
+         }
+         else if (!copy.studentOrdinals.containsKey(student)) {
+            copy.addRow(student, rows[source], false);
+            owned[source] = false;
+         }
+      }
+      return copy;
+   }
+
+   ///////////////////////
+   /* PRIMITIVE ACCESS  */
+   ///////////////////////
+
+   /**
+    * Gets the students in this matrix, in ordinal order.
+    * @return unmodifiable list of students
+    */
+   public List<Student> getStudents() {
+      return Collections.unmodifiableList(students);
+   }
+
+   /**
+    * Gets the assignments in this matrix, in ordinal order.
+    * @return unmodifiable list of assignments
+    */
+   public List<Assignment> getAssignments() {
+      return Collections.unmodifiableList(assignments);
+   }
+
+   /**
+    * Gets the row ordinal of the given student.
+    * @param student student to look up
+    * @return row ordinal, or -1 if the student has no scores
+    */
+   public int getStudentOrdinal(Student student) {
+      Integer row = studentOrdinals.get(student);
+      return row == null ? -1 : row;
+   }
+
+   /**
+    * Gets the column ordinal of the given assignment.
+    * @param assignment assignment to look up
+    * @return column ordinal, or -1 if the assignment has no scores
+    */
+   public int getAssignmentOrdinal(Assignment assignment) {
+      Integer column = assignmentOrdinals.get(assignment);
+      return column == null ? -1 : column;
+   }
+
+   /**
+    * Retrieves a raw score by ordinals.
+    * @param row student ordinal
+    * @param column assignment ordinal
+    * @return raw score, or 0.0 if there is none
+    */
+   public double getRawScore(int row, int column) {
+      double score = cell(row, column);
+      return Double.isNaN(score) ? 0.0 : score;
+   }
+
+   /**
+    * Gets the given student's scores, indexed by assignment ordinal.
+    * Missing scores are reported as 0.0.
+    * @param student student to get scores for
+    * @return a new array of the student's scores
+    */
+   public double[] getRow(Student student) {
+      double[] row = new double[assignments.size()];
+      Integer ordinal = studentOrdinals.get(student);
+      if (ordinal != null) {
+         for (int column = 0; column < row.length; ++column) {
+            row[column] = getRawScore(ordinal, column);
+         }
+      }
+      return row;
+   }
+
+   /**
+    * Gets every student's score for the given assignment, indexed by
+    * student ordinal.  Missing scores are reported as 0.0.
+    * @param assignment assignment to get scores for
+    * @return a new array of the assignment's scores
+    */
+   public double[] getColumn(Assignment assignment) {
+      double[] column = new double[students.size()];
+      Integer ordinal = assignmentOrdinals.get(assignment);
+      if (ordinal != null) {
+         for (int row = 0; row < column.length; ++row) {
+            column[row] = getRawScore(row, ordinal);
+         }
+      }
+      return column;
+   }
+
+   /////////////////////
+   /* PRIVATE METHODS */
+   /////////////////////
+
+   /**
+    * Gets the ordinal for a student, assigning a new empty row if needed.
+    */
+   private int ordinalOf(Student student) {
+      Integer row = studentOrdinals.get(student);
+      if (row == null) {
+         row = addRow(student,
+               emptyRow(Math.max(assignments.size(), INITIAL_CAPACITY)), true);
+      }
+      return row;
+   }
+
+   /**
+    * Appends a row for a new student.
+    * @param student student the row belongs to
+    * @param scores the row itself
+    * @param isOwned whether the row may be written in place
+    * @return the new row's ordinal
+    */
+   private int addRow(Student student, double[] scores, boolean isOwned) {
+      int row = students.size();
+      students.add(student);
+      studentOrdinals.put(student, row);
+      if (row == rows.length) {
+         rows = Arrays.copyOf(rows, rows.length * 2);
+         owned = Arrays.copyOf(owned, owned.length * 2);
+      }
+      rows[row] = scores;
+      owned[row] = isOwned;
+      return row;
+   }
+
+   /**
+    * Gets the ordinal for an assignment, assigning a new column if needed.
+    * Rows are widened lazily when a cell in the new column is written.
+    */
+   private int ordinalOf(Assignment assignment) {
+      Integer column = assignmentOrdinals.get(assignment);
+      if (column == null) {
+         column = assignments.size();
+         assignments.add(assignment);
+         assignmentOrdinals.put(assignment, column);
+         columnMap = null;
+      }
+      return column;
+   }
+
+   /**
+    * Resolves the column ordinal of each of the given assignments, reusing
+    * the last resolution if the same array is passed again.
+    * @param keys assignments to resolve
+    * @return column ordinals, -1 for assignments without a column
+    */
+   private int[] columnsOf(Assignment[] keys) {
+      ColumnMap map = columnMap;
+      if (map == null || map.keys != keys) {
+         int[] columns = new int[keys.length];
+         for (int i = 0; i < keys.length; ++i) {
+            columns[i] = getAssignmentOrdinal(keys[i]);
+         }
+         map = new ColumnMap(keys, columns);
+         columnMap = map;
+      }
+      return map.columns;
+   }
+
+   /**
+    * Reads a cell, returning EMPTY for columns past the end of the row.
+    */
+   private double cell(int row, int column) {
+      double[] scores = rows[row];
+      return column < scores.length ? scores[column] : EMPTY;
+   }
+
+   /**
+    * Writes a cell, widening the row if needed and cloning it first if it
+    * is shared with another matrix.
+    */
+   private void set(int row, int column, double score) {
+      double[] scores = rows[row];
+      if (column >= scores.length) {
+         int length = Math.max(column + 1, scores.length * 2);
+         double[] wider = Arrays.copyOf(scores, length);
+         Arrays.fill(wider, scores.length, length, EMPTY);
+         rows[row] = scores = wider;
+         owned[row] = true;
+      }
+      else if (!owned[row]) {
+         rows[row] = scores = scores.clone();
+         owned[row] = true;
+      }
+      scores[column] = score;
+      modified();
+   }
+
+   /**
+    * Creates a row with every cell empty.
+    */
+   private static double[] emptyRow(int length) {
+      double[] row = new double[length];
+      Arrays.fill(row, EMPTY);
+      return row;
+   }
+
+   /**
+    * Column ordinals resolved for one array of assignments.
+    */
+   private static class ColumnMap {
+      private final Assignment[] keys;
+      private final int[] columns;
+
+      ColumnMap(Assignment[] keys, int[] columns) {
+         this.keys = keys;
+         this.columns = columns;
+      }
+   }
+
+   /**
+    * A RawScore that reads and writes a single cell of the matrix.
+    */
+   private class CellScore extends RawScore {
+      private final int row;
+      private final int column;
+
+      CellScore(int row, int column) {
+         super(students.get(row), assignments.get(column), 0.0);
+         this.row = row;
+         this.column = column;
+      }
+
+      @Override
+      public double getScore() {
+         return getRawScore(row, column);
+      }
+
+      @Override
+      public void setScore(double score) {
+         set(row, column, score);
+      }
+   }
+}
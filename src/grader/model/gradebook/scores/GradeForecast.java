@@ -0,0 +1,286 @@
+package grader.model.gradebook.scores;
+
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.gradebook.stats.Statistics;
+import grader.model.items.Assignment;
+import grader.model.items.GradingPlan;
+import grader.model.people.Student;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A GradeForecast estimates how likely each student in a roster is to
+ * finish with each LetterGrade, by simulating many ways their ungraded
+ * assignments could turn out.
+ * <p>
+ * The score on an ungraded assignment is drawn from a normal distribution
+ * around the class mean on that assignment, shifted by how many standard
+ * deviations the student has been above or below the class mean on the
+ * assignments they have been graded on.  Its spread is the class standard
+ * deviation, and draws are clamped to between zero and the assignment's
+ * points.  When nobody has been graded on an assignment yet, the student's
+ * average fraction of points on their graded work is used instead, with a
+ * fixed spread; with no history at all the score is drawn uniformly.
+ * <p>
+ * Each simulated total is the student's current total plus each drawn score
+ * times its assignment's effective weight, and is classified by the
+ * GradeScheme.  Students are split across the common fork/join pool, and
+ * each student gets its own random generator seeded from the forecast seed
+ * and the student's roster position, so a forecast is repeatable no matter
+ * how the work is divided.  Results are kept in one primitive array.
+ */
+public class GradeForecast {
+    /** number of simulated completions per student used by default */
+    public static final int DEFAULT_TRIALS = 10000;
+
+    /**
+     * spread assumed for an assignment nobody has been graded on, as a
+     * fraction of its points
+     */
+    static final double FALLBACK_SPREAD = 0.15;
+
+    /** rosters at most this long are simulated on the calling thread */
+    static final int SEQUENTIAL_THRESHOLD = 16;
+
+    private final Student[] students;
+    private final HashMap<Student, Integer> studentIndex;
+    private final GradingPlan plan;
+    private final GradeScheme scheme;
+    private final int letters;
+    private final int trials;
+    private final long seed;
+
+    /** class mean, standard deviation, and count of graded scores per assignment */
+    private final double[] classMeans;
+    private final double[] classDeviations;
+    private final int[] classCounts;
+
+    /** chance of each letter, indexed by roster position then letter ordinal */
+    private final double[] probabilities;
+
+    /**
+     * Runs a forecast for a roster.
+     * @param plan grading plan of the assignment tree
+     * @param scores scores to forecast from; they are only read
+     * @param students roster to forecast, which is also the class the
+     * per-assignment statistics are taken over
+     * @param scheme grade scheme to classify simulated totals with
+     * @param trials number of simulated completions per student
+     * @param seed seed for the random generators
+     * @throws IllegalArgumentException if trials is not positive
+     */
+    public GradeForecast(GradingPlan plan, Scores scores, List<Student> students,
+                         GradeScheme scheme, int trials, long seed) {
+        if (trials <= 0)
+            throw new IllegalArgumentException("The number of trials must be positive");
+        this.plan = plan;
+        this.scheme = scheme;
+        this.trials = trials;
+        this.seed = seed;
+        this.letters = scheme.ranges.size();
+        this.students = students.toArray(new Student[students.size()]);
+        this.studentIndex = new HashMap<Student, Integer>();
+        for (int i = 0; i < this.students.length; ++i) {
+            studentIndex.put(this.students[i], i);
+        }
+
+        int size = plan.size();
+        classMeans = new double[size];
+        classDeviations = new double[size];
+        classCounts = new int[size];
+        for (int a = 0; a < size; ++a) {
+            Statistics.Accumulator acc = new Statistics.Accumulator(this.students.length);
+            Assignment assignment = plan.getAssignment(a);
+            for (Student student : this.students) {
+                if (scores.hasRawScore(student, assignment))
+                    acc.add(scores.getRawScore(student, assignment));
+            }
+            Statistics stats = acc.build();
+            classCounts[a] = stats.count;
+            classMeans[a] = stats.mean;
+            classDeviations[a] = stats.stddev;
+        }
+
+        probabilities = new double[this.students.length * letters];
+        SimulationTask task = new SimulationTask(scores, 0, this.students.length);
+        if (this.students.length <= SEQUENTIAL_THRESHOLD)
+            task.compute();
+        else
+            ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Gets the chance that a student finishes with a letter grade.
+     * @param student student in the roster
+     * @param letter letter grade
+     * @return the chance, between 0.0 and 1.0, or NaN if the student is
+     * unknown
+     */
+    public double getProbability(Student student, LetterGrade letter) {
+        Integer s = studentIndex.get(student);
+        if (s == null || letter.ordinal() >= letters)
+            return Double.NaN;
+        return probabilities[s * letters + letter.ordinal()];
+    }
+
+    /**
+     * Gets the chance of every letter grade for a student.
+     * @param student student in the roster
+     * @return chance of each letter, indexed by LetterGrade ordinal, or null
+     * if the student is unknown
+     */
+    public double[] getProbabilities(Student student) {
+        Integer s = studentIndex.get(student);
+        if (s == null)
+            return null;
+        return Arrays.copyOfRange(probabilities, s * letters, (s + 1) * letters);
+    }
+
+    /**
+     * Gets the chance that a student finishes below a letter grade, for
+     * flagging students who may need advising.
+     * @param student student in the roster
+     * @param letter the lowest acceptable letter grade
+     * @return the chance of any letter below the given one, or NaN if the
+     * student is unknown
+     */
+    public double getProbabilityBelow(Student student, LetterGrade letter) {
+        Integer s = studentIndex.get(student);
+        if (s == null)
+            return Double.NaN;
+        double below = 0.0;
+        for (int l = letter.ordinal() + 1; l < letters; ++l)
+            below += probabilities[s * letters + l];
+        return below;
+    }
+
+    /**
+     * Gets the number of simulated completions per student.
+     * @return the number of trials
+     */
+    public int getTrials() {
+        return trials;
+    }
+
+    /**
+     * Simulates one student's remaining assignments and records how often
+     * each letter comes up.
+     */
+    private void simulate(Scores scores, int s) {
+        Student student = students[s];
+        int size = plan.size();
+        double total = 0.0;
+        double zSum = 0.0;
+        int zCount = 0;
+        double fractionSum = 0.0;
+        int graded = 0;
+
+        // the assignments still to simulate, with the mean and spread of each
+        int[] open = new int[size];
+        int remaining = 0;
+        for (int a = 0; a < size; ++a) {
+            Assignment assignment = plan.getAssignment(a);
+            if (!scores.hasRawScore(student, assignment)) {
+                if (plan.getWeight(a) != 0.0)
+                    open[remaining++] = a;
+                continue;
+            }
+            double score = scores.getRawScore(student, assignment);
+            total += plan.getWeight(a) * score;
+            if (classDeviations[a] > 0.0) {
+                zSum += (score - classMeans[a]) / classDeviations[a];
+                ++zCount;
+            }
+            if (assignment.getPoints() > 0) {
+                fractionSum += score / assignment.getPoints();
+                ++graded;
+            }
+        }
+
+        int row = s * letters;
+        if (remaining == 0) {
+            int letter = scheme.classify(total);
+            if (letter >= 0)
+                probabilities[row + letter] = 1.0;
+            return;
+        }
+
+        double z = zCount == 0 ? 0.0 : zSum / zCount;
+        double fraction = graded == 0 ? Double.NaN : fractionSum / graded;
+        double[] means = new double[remaining];
+        double[] spreads = new double[remaining];
+        double[] maxima = new double[remaining];
+        double[] weights = new double[remaining];
+        for (int i = 0; i < remaining; ++i) {
+            int a = open[i];
+            maxima[i] = Math.max(0, plan.getAssignment(a).getPoints());
+            weights[i] = plan.getWeight(a);
+            if (classCounts[a] > 0) {
+                means[i] = classMeans[a] + z * classDeviations[a];
+                spreads[i] = classDeviations[a];
+            }
+            else if (!Double.isNaN(fraction)) {
+                means[i] = fraction * maxima[i];
+                spreads[i] = FALLBACK_SPREAD * maxima[i];
+            }
+            else {
+                // nothing known, so any score is as likely as another
+                means[i] = Double.NaN;
+            }
+        }
+
+        Random random = new Random(seed + 0x9E3779B97F4A7C15L * (s + 1));
+        int[] counts = new int[letters];
+        for (int t = 0; t < trials; ++t) {
+            double simulated = total;
+            for (int i = 0; i < remaining; ++i) {
+                double score = Double.isNaN(means[i])
+                        ? random.nextDouble() * maxima[i]
+                        : means[i] + spreads[i] * random.nextGaussian();
+                simulated += weights[i] * Math.max(0.0, Math.min(maxima[i], score));
+            }
+            int letter = scheme.classify(simulated);
+            if (letter >= 0)
+                ++counts[letter];
+        }
+        for (int l = 0; l < letters; ++l)
+            probabilities[row + l] = counts[l] / (double) trials;
+    }
+
+    /**
+     * Fork/join task simulating a slice of the roster.  Each task writes
+     * only its own students' results, so no locking is needed.
+     */
+    private class SimulationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Scores scores;
+        private final int from;
+        private final int to;
+
+        SimulationTask(Scores scores, int from, int to) {
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int s = from; s < to; ++s)
+                    simulate(scores, s);
+            }
+            else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SimulationTask(scores, from, mid),
+                          new SimulationTask(scores, mid, to));
+            }
+        }
+    }
+}
@@ -3,7 +3,6 @@ package grader.model.gradebook.scores;
 import grader.model.errors.ScoreOutOfRangeException;
 import grader.model.gradebook.WorkSpace;
 import grader.model.items.Assignment;
-import grader.model.items.AssignmentTree;
 import grader.model.people.Student;
 
 /**
@@ -42,8 +41,7 @@ public class Prediction {
     public double getRequired() {
         double oldTotal =
                 WorkSpace.instance.getAssignmentTree().calculatePercentage
-                        (WorkSpace.instance.getScores().getScoresMap(
-                                WorkSpace.instance.selectedScore.getStudent())).getValue();
+                        (scores, WorkSpace.instance.selectedScore.getStudent()).getValue();
         double required;
 
         // calculation for if the assignment has a weight
@@ -67,17 +65,6 @@ public class Prediction {
      * @return the number of assignments in the tree
      */
     public int countAssignments() {
-        AssignmentTree.AssignmentIterator itr =
-                WorkSpace.instance.getAssignmentTree().getAssignmentIterator();
-
-        int count = 0;
-
-        // iterate through all assignments and count
-        while (itr.hasNext()) {
-            itr.next();
-            ++count;
-        }
-
-        return count;
+        return WorkSpace.instance.getAssignmentTree().countAssignments();
     }
 }
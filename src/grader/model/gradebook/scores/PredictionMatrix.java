@@ -0,0 +1,227 @@
+package grader.model.gradebook.scores;
+
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.items.Assignment;
+import grader.model.items.GradingPlan;
+import grader.model.people.Student;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A PredictionMatrix holds, for every student in a roster and every
+ * assignment they have not been graded on, the score they would need on
+ * that assignment alone to reach each LetterGrade.
+ * <p>
+ * A total is each raw score times its assignment's effective weight, and an
+ * ungraded assignment adds nothing to it yet.  So the score needed on an
+ * ungraded assignment is the distance from the student's total to the
+ * letter's lower bound, divided by the assignment's effective weight.  Each
+ * student's scores are read once to find their total and their ungraded
+ * assignments, and every entry for that student follows from those.
+ * Large rosters are split across the common fork/join pool.
+ * <p>
+ * A needed score of 0.0 means the letter is already reached.  A needed
+ * score of positive infinity means no score up to the assignment's points
+ * can reach the letter, as when the assignment carries no weight.  Graded
+ * assignments have no entry and report NaN.
+ */
+public class PredictionMatrix {
+    /** rosters at most this long are filled on the calling thread */
+    static final int SEQUENTIAL_THRESHOLD = 128;
+
+    private final Student[] students;
+    private final HashMap<Student, Integer> studentIndex;
+    private final GradingPlan plan;
+    private final double[] bounds;
+    private final double[] totals;
+
+    /**
+     * Needed scores, indexed by student, then plan position, then range.
+     * Graded assignments hold NaN.
+     */
+    private final double[] required;
+
+    /**
+     * Builds the matrix for a roster.
+     * @param plan grading plan of the assignment tree
+     * @param scores scores to predict from; they are only read
+     * @param students roster to predict for
+     * @param scheme grade scheme giving the lower bound of each letter
+     */
+    public PredictionMatrix(GradingPlan plan, Scores scores,
+                            List<Student> students, GradeScheme scheme) {
+        this.plan = plan;
+        this.students = students.toArray(new Student[students.size()]);
+        this.studentIndex = new HashMap<Student, Integer>();
+        for (int i = 0; i < this.students.length; ++i) {
+            studentIndex.put(this.students[i], i);
+        }
+        this.bounds = new double[scheme.ranges.size()];
+        for (int i = 0; i < bounds.length; ++i) {
+            bounds[i] = scheme.ranges.get(i).getLowerBound().getValue();
+        }
+        this.totals = new double[this.students.length];
+        this.required = new double[this.students.length * plan.size()
+                * bounds.length];
+
+        FillTask task = new FillTask(scores, 0, this.students.length);
+        if (this.students.length <= SEQUENTIAL_THRESHOLD)
+            task.compute();
+        else
+            ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Gets the score a student needs on an assignment to reach a letter.
+     * @param student student in the roster
+     * @param assignment assignment in the plan
+     * @param letter letter grade to reach
+     * @return the raw score needed, 0.0 if the letter is already reached,
+     * positive infinity if it cannot be reached, or NaN if the assignment is
+     * graded or the student or assignment is unknown
+     */
+    public double getRequired(Student student, Assignment assignment,
+                              LetterGrade letter) {
+        Integer s = studentIndex.get(student);
+        int a = plan.indexOf(assignment);
+        if (s == null || a < 0 || letter.ordinal() >= bounds.length)
+            return Double.NaN;
+        return required[offset(s, a) + letter.ordinal()];
+    }
+
+    /**
+     * Gets the scores a student needs on an assignment to reach every
+     * letter.
+     * @param student student in the roster
+     * @param assignment assignment in the plan
+     * @return needed score for each letter, indexed by LetterGrade ordinal,
+     * or null if the student or assignment is unknown
+     */
+    public double[] getRequired(Student student, Assignment assignment) {
+        Integer s = studentIndex.get(student);
+        int a = plan.indexOf(assignment);
+        if (s == null || a < 0)
+            return null;
+        int from = offset(s, a);
+        return Arrays.copyOfRange(required, from, from + bounds.length);
+    }
+
+    /**
+     * Checks whether a student is still to be graded on an assignment.
+     * @param student student in the roster
+     * @param assignment assignment in the plan
+     * @return true if the matrix has entries for the pair
+     */
+    public boolean isUngraded(Student student, Assignment assignment) {
+        Integer s = studentIndex.get(student);
+        int a = plan.indexOf(assignment);
+        return s != null && a >= 0 && !Double.isNaN(required[offset(s, a)]);
+    }
+
+    /**
+     * Gets a student's current total, counting ungraded assignments as
+     * zero.
+     * @param student student in the roster
+     * @return the total percentage, or NaN if the student is unknown
+     */
+    public double getTotal(Student student) {
+        Integer s = studentIndex.get(student);
+        return s == null ? Double.NaN : totals[s];
+    }
+
+    /**
+     * Gets the roster the matrix was built for.
+     * @return the students, in roster order
+     */
+    public List<Student> getStudents() {
+        return Arrays.asList(students.clone());
+    }
+
+    /**
+     * Gets the assignments the matrix covers.
+     * @return the assignments, in plan order
+     */
+    public List<Assignment> getAssignments() {
+        return plan.getAssignments();
+    }
+
+    /**
+     * Finds where a student and assignment's entries start.
+     */
+    private int offset(int student, int assignment) {
+        return (student * plan.size() + assignment) * bounds.length;
+    }
+
+    /**
+     * Fills in one student's total and needed scores.
+     */
+    private void fill(Scores scores, int s) {
+        int size = plan.size();
+        boolean[] ungraded = new boolean[size];
+        double total = 0.0;
+        for (int a = 0; a < size; ++a) {
+            Assignment assignment = plan.getAssignment(a);
+            if (scores.hasRawScore(students[s], assignment))
+                total += plan.getWeight(a)
+                        * scores.getRawScore(students[s], assignment);
+            else
+                ungraded[a] = true;
+        }
+        totals[s] = total;
+
+        for (int a = 0; a < size; ++a) {
+            int from = offset(s, a);
+            if (!ungraded[a]) {
+                Arrays.fill(required, from, from + bounds.length, Double.NaN);
+                continue;
+            }
+            double weight = plan.getWeight(a);
+            int points = plan.getAssignment(a).getPoints();
+            for (int l = 0; l < bounds.length; ++l) {
+                double missing = bounds[l] - total;
+                if (missing <= 0.0)
+                    required[from + l] = 0.0;
+                else if (weight <= 0.0 || missing / weight > points)
+                    required[from + l] = Double.POSITIVE_INFINITY;
+                else
+                    required[from + l] = missing / weight;
+            }
+        }
+    }
+
+    /**
+     * Fork/join task filling a slice of the roster.  Each task writes only
+     * its own students' entries, so no locking is needed.
+     */
+    private class FillTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Scores scores;
+        private final int from;
+        private final int to;
+
+        FillTask(Scores scores, int from, int to) {
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int s = from; s < to; ++s)
+                    fill(scores, s);
+            }
+            else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new FillTask(scores, from, mid),
+                          new FillTask(scores, mid, to));
+            }
+        }
+    }
+}
@@ -98,6 +98,6 @@ public class RawScore implements Comparable<RawScore> {
      */
    @Override
    public int compareTo(RawScore other) {
-       return (int) (other.getScore() - score);
+       return (int) (other.getScore() - getScore());
    }
 }
@@ -0,0 +1,95 @@
+package grader.model.gradebook.scores;
+
+import grader.model.items.Assignment;
+import grader.model.people.Student;
+
+/**
+ * A ScoreChange records a single score edit: whose score changed, its value
+ * before and after, and the version stamp the Scores reached because of it.
+ * Models holding results derived from the scores can use it to adjust those
+ * results instead of recomputing them, as long as the change is the only
+ * one since their results were computed.
+ */
+public class ScoreChange {
+    private final Student student;
+    private final Assignment assignment;
+    private final double oldScore;
+    private final double newScore;
+    private final int version;
+
+    /**
+     * Constructor.
+     *
+     * @param student student whose score changed
+     * @param assignment assignment whose score changed
+     * @param oldScore score before the change
+     * @param newScore score after the change
+     * @param version version stamp of the Scores after the change
+     */
+    public ScoreChange(Student student, Assignment assignment,
+                       double oldScore, double newScore, int version) {
+        this.student = student;
+        this.assignment = assignment;
+        this.oldScore = oldScore;
+        this.newScore = newScore;
+        this.version = version;
+    }
+
+    /**
+     * Returns the student whose score changed.
+     *
+     * @return student
+     */
+    public Student getStudent() {
+        return student;
+    }
+
+    /**
+     * Returns the assignment whose score changed.
+     *
+     * @return assignment
+     */
+    public Assignment getAssignment() {
+        return assignment;
+    }
+
+    /**
+     * Returns the score before the change.
+     *
+     * @return old score
+     */
+    public double getOldScore() {
+        return oldScore;
+    }
+
+    /**
+     * Returns the score after the change.
+     *
+     * @return new score
+     */
+    public double getNewScore() {
+        return newScore;
+    }
+
+    /**
+     * Returns the version stamp of the Scores after the change.
+     *
+     * @return version stamp
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether this change is the only one made to the given Scores
+     * since it was at the given version.
+     *
+     * @param scores scores the change may have been made to
+     * @param since version stamp the caller last saw
+     * @return true if this change alone takes the scores from since to
+     * their current version
+     */
+    public boolean follows(Scores scores, int since) {
+        return version == scores.getVersion() && version == since + 1;
+    }
+}
@@ -20,6 +20,12 @@ public class Scores {
     */
     private HashMap<Student, HashMap<Assignment, RawScore>> rawScores;
 
+   /**
+    * Number of changes made through this object, used to detect stale
+    * results computed from it.
+    */
+    private int version;
+
     /**
      * Constructor.
      */
@@ -50,6 +56,19 @@ public class Scores {
       return rawScores.get(student).get(assignment).getScore();
    }
 
+   /**
+    * Checks whether a score has been entered for a student on an
+    * assignment.  getRawScore reports a missing score as 0.0, so this is
+    * how an ungraded assignment is told apart from a zero.
+    * @param student student
+    * @param assignment assignment
+    * @return true if there is a score for the student and assignment
+    */
+   public boolean hasRawScore(Student student, Assignment assignment) {
+      HashMap<Assignment, RawScore> scores = rawScores.get(student);
+      return scores != null && scores.get(assignment) != null;
+   }
+
    /**
     * Enters a raw score for an assignment for a particular student.
     * @param student student
@@ -86,6 +105,7 @@ public class Scores {
       }
 
       rawScores.get(student).put(assignment, new RawScore(student, assignment, score));
+      modified();
    }
 
    /**
@@ -122,6 +142,7 @@ public class Scores {
    public void updateRawScore(Student student, Assignment assignment,
                                 double newScore) {
       rawScores.get(student).get(assignment).setScore(newScore);
+      modified();
    }
 
    /**
@@ -153,6 +174,7 @@ public class Scores {
     */
    public void removeRawScore(Student student, Assignment assignment) {
        rawScores.get(student).remove(assignment);
+       modified();
    }
 
    /**
@@ -190,6 +212,23 @@ public class Scores {
       return totalScore / count;
    }
 
+   /**
+    * Sums a student's raw scores, each multiplied by a weight.
+    * Missing scores count as zero.
+    * @param student student whose scores to sum
+    * @param assignments assignments to include
+    * @param weights weight of each assignment, parallel to assignments
+    * @return weighted total of the student's scores
+    */
+   public double weightedTotal(Student student, Assignment[] assignments,
+                               double[] weights) {
+      double total = 0.0;
+      for (int i = 0; i < assignments.length; ++i) {
+         total += weights[i] * getRawScore(student, assignments[i]);
+      }
+      return total;
+   }
+
    /**
     * Gets a list of RawScores for the given assignment.
     * @param assignment assignment to get scores for
@@ -224,6 +263,24 @@ public class Scores {
    public void addScoresMap(Student student,
       HashMap<Assignment, RawScore> scores) {
       rawScores.put(student, scores);
+      modified();
+   }
+
+   /**
+    * Gets the version stamp of these scores.  The stamp changes whenever a
+    * score is added, updated, or removed through this object, so anything
+    * derived from the scores can be reused while the stamp is unchanged.
+    * @return current version stamp
+    */
+   public int getVersion() {
+      return version;
+   }
+
+   /**
+    * Advances the version stamp after a change to the scores.
+    */
+   protected void modified() {
+      ++version;
    }
 
    public Scores copy() {
@@ -236,4 +293,22 @@ public class Scores {
       }
       return copy;
    }
+
+   /**
+    * Deep copies the scores of the given students only.
+    * @param students students whose scores to copy
+    * @return copy containing only the given students' scores
+    */
+   public Scores copy(List<Student> students) {
+      Scores copy = new Scores();
+      for (Student student : students) {
+         HashMap<Assignment, RawScore> assignments = rawScores.get(student);
+         if (assignments == null) continue;
+         for (Assignment assignment : assignments.keySet()) {
+            copy.addRawScore(student, assignment,
+                             assignments.get(assignment).getScore());
+         }
+      }
+      return copy;
+   }
 }
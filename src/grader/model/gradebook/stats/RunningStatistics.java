@@ -0,0 +1,130 @@
+package grader.model.gradebook.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running aggregates for one column of scores that can be adjusted as
+ * scores are added, removed, or replaced.
+ * <p>
+ * The count, sum, and sum of squares give the mean and variance.  The
+ * scores themselves are kept as a sorted multiset of value counts, so the
+ * min and max survive removing a score that ties another, and the median
+ * and quartiles can be read off in one walk over the distinct values.
+ * Adding, removing, or replacing a score takes logarithmic time in the
+ * number of distinct values; toStatistics takes time linear in them, since
+ * it walks up to the third quartile.
+ */
+public class RunningStatistics {
+    private final TreeMap<Double, Integer> values;
+    private int count;
+    private double sum, sumOfSquares;
+
+    /**
+     * Constructs an empty set of running statistics.
+     */
+    public RunningStatistics() {
+        values = new TreeMap<Double, Integer>();
+    }
+
+    /**
+     * Adds a score.
+     * @param score the score to add
+     */
+    public void add(double score) {
+        Integer n = values.get(score);
+        values.put(score, n == null ? 1 : n + 1);
+        ++count;
+        sum += score;
+        sumOfSquares += score * score;
+    }
+
+    /**
+     * Removes one occurrence of a score.
+     * @param score the score to remove
+     * @return true if the score was present
+     */
+    public boolean remove(double score) {
+        Integer n = values.get(score);
+        if (n == null)
+            return false;
+        if (n == 1)
+            values.remove(score);
+        else
+            values.put(score, n - 1);
+        --count;
+        sum -= score;
+        sumOfSquares -= score * score;
+        return true;
+    }
+
+    /**
+     * Replaces one occurrence of a score with another.
+     * @param oldScore the score to remove
+     * @param newScore the score to add
+     */
+    public void replace(double oldScore, double newScore) {
+        if (remove(oldScore))
+            add(newScore);
+    }
+
+    /**
+     * Returns the number of scores.
+     * @return the count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Builds a snapshot of the current statistics.
+     * @return the statistics
+     */
+    public Statistics toStatistics() {
+        if (count == 0)
+            return new Statistics(new double[0]);
+
+        double mean = sum / count;
+        // the sums drift slightly as scores come and go, so clamp at zero
+        double variance = Math.max(0.0, sumOfSquares / count - mean * mean);
+        double[] quartiles = quartiles();
+        return new Statistics(count, values.firstKey(), values.lastKey(),
+                mean, variance, quartiles[1], quartiles[0], quartiles[2]);
+    }
+
+    /**
+     * Finds Q1, the median, and Q3, interpolating between neighboring ranks
+     * the same way Statistics does.
+     */
+    private double[] quartiles() {
+        double[] fractions = {0.25, 0.5, 0.75};
+        int[] ranks = new int[6];
+        for (int i = 0; i < 3; ++i) {
+            int rank = (int) (fractions[i] * (count - 1));
+            ranks[2 * i] = rank;
+            ranks[2 * i + 1] = Math.min(rank + 1, count - 1);
+        }
+
+        // ranks are nondecreasing, so one walk finds all of them
+        double[] found = new double[6];
+        int next = 0;
+        int seen = 0;
+        for (Map.Entry<Double, Integer> entry : values.entrySet()) {
+            seen += entry.getValue();
+            while (next < 6 && ranks[next] < seen)
+                found[next++] = entry.getKey();
+            if (next == 6)
+                break;
+        }
+
+        double[] result = new double[3];
+        for (int i = 0; i < 3; ++i) {
+            double position = fractions[i] * (count - 1);
+            double fraction = position - ranks[2 * i];
+            double lower = found[2 * i];
+            result[i] = fraction == 0.0 ? lower
+                    : lower + fraction * (found[2 * i + 1] - lower);
+        }
+        return result;
+    }
+}
@@ -1,36 +1,214 @@
 package grader.model.gradebook.stats;
 
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * A composite container that aggregates various statistical values for an
  * assignment or category.
+ * <p>
+ * Count, min, max, mean, and variance are computed in a single pass with
+ * Welford's method.  The median and quartiles are found by selection on a
+ * copy of the scores, so the scores are never fully sorted.  Quartiles
+ * interpolate linearly between the two nearest ranks.  The variance is the
+ * population variance, since the scores cover the whole class in scope.
+ * When there are no scores, every value other than count is NaN.
  *
  * @author Quan Tran
  */
 public class Statistics {
     // public for easy access without function call
     public final double min, max, mean;
+    public final double variance, stddev;
+    public final double median, q1, q3;
+    public final int count;
 
     /**
      * Constructs a new set of StatisticsBar for the given data collection.
      * @param scores a list of the scores as doubles for the item
      */
     public Statistics(List<Double> scores) {
-        Collections.sort(scores);
+        this(unbox(scores));
+    }
+
+    /**
+     * Constructs a new set of statistics for the given scores.
+     * The array is not modified.
+     * @param scores the scores for the item
+     */
+    public Statistics(double[] scores) {
+        this(accumulate(scores));
+    }
 
-        // get min and max values
-        min = scores.get(0);
-        max = scores.get(scores.size() - 1);
+    /**
+     * Constructs a new set of statistics from values that have already been
+     * computed, as RunningStatistics does.
+     */
+    Statistics(int count, double min, double max, double mean,
+               double variance, double median, double q1, double q3) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.variance = variance;
+        this.stddev = Math.sqrt(variance);
+        this.median = median;
+        this.q1 = q1;
+        this.q3 = q3;
+    }
 
-        // calculate mean value
-        double total = 0.0;
+    /**
+     * Constructs a new set of statistics from the scores gathered by an
+     * Accumulator.
+     * @param acc the accumulator holding the scores
+     */
+    private Statistics(Accumulator acc) {
+        count = acc.count;
+        if (count == 0) {
+            min = max = mean = variance = stddev = Double.NaN;
+            median = q1 = q3 = Double.NaN;
+            return;
+        }
+        min = acc.min;
+        max = acc.max;
+        mean = acc.mean;
+        variance = acc.m2 / count;
+        stddev = Math.sqrt(variance);
+
+        // selection reorders the values, so work on a copy
+        double[] values = Arrays.copyOf(acc.values, count);
+        median = percentile(values, 0.5);
+        q1 = percentile(values, 0.25);
+        q3 = percentile(values, 0.75);
+    }
+
+    /**
+     * Copies a list of boxed scores into a primitive array.
+     */
+    private static double[] unbox(List<Double> scores) {
+        double[] values = new double[scores.size()];
+        int i = 0;
         for (Double score : scores)
-            total += score;
-        mean = total / scores.size();
+            values[i++] = score;
+        return values;
+    }
+
+    /**
+     * Feeds an array of scores through a new Accumulator.
+     */
+    private static Accumulator accumulate(double[] scores) {
+        Accumulator acc = new Accumulator(scores.length);
+        for (double score : scores)
+            acc.add(score);
+        return acc;
+    }
+
+    /**
+     * Finds the value at fraction p of the way through the sorted values,
+     * interpolating between neighbors.  Partially reorders the array.
+     */
+    private static double percentile(double[] values, double p) {
+        double position = p * (values.length - 1);
+        int rank = (int) position;
+        double fraction = position - rank;
+        double lower = select(values, rank);
+        if (fraction == 0.0)
+            return lower;
+
+        // after selection every value above rank is at least lower, so the
+        // next value in order is the smallest of them
+        double upper = values[rank + 1];
+        for (int i = rank + 2; i < values.length; ++i)
+            if (values[i] < upper)
+                upper = values[i];
+        return lower + fraction * (upper - lower);
+    }
+
+    /**
+     * Finds the k-th smallest value by quickselect, leaving it at index k
+     * with no larger value before it and no smaller value after it.
+     */
+    private static double select(double[] values, int k) {
+        int from = 0;
+        int to = values.length - 1;
+        while (from < to) {
+            // median of three pivot guards against sorted input
+            int mid = (from + to) >>> 1;
+            double pivot = Math.max(Math.min(values[from], values[mid]),
+                    Math.min(Math.max(values[from], values[mid]), values[to]));
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (values[i] < pivot) ++i;
+                while (values[j] > pivot) --j;
+                if (i <= j) {
+                    double swap = values[i];
+                    values[i] = values[j];
+                    values[j] = swap;
+                    ++i;
+                    --j;
+                }
+            }
+            if (k <= j)
+                to = j;
+            else if (k >= i)
+                from = i;
+            else
+                break;
+        }
+        return values[k];
+    }
+
+    /**
+     * Gathers scores one at a time, updating the running count, min, max,
+     * mean, and sum of squared deviations as each score arrives.  The scores
+     * are kept in a primitive array for the percentile calculations.
+     */
+    public static class Accumulator {
+        private double[] values;
+        private int count;
+        private double min, max, mean, m2;
+
+        /**
+         * Constructs an empty Accumulator.
+         */
+        public Accumulator() {
+            this(16);
+        }
+
+        /**
+         * Constructs an empty Accumulator with room for the given number of
+         * scores.
+         * @param capacity expected number of scores
+         */
+        public Accumulator(int capacity) {
+            values = new double[Math.max(capacity, 1)];
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+        }
+
+        /**
+         * Adds a score.
+         * @param score the score to add
+         */
+        public void add(double score) {
+            if (count == values.length)
+                values = Arrays.copyOf(values, count * 2);
+            values[count++] = score;
+
+            if (score < min) min = score;
+            if (score > max) max = score;
+            double delta = score - mean;
+            mean += delta / count;
+            m2 += delta * (score - mean);
+        }
+
+        /**
+         * Builds the statistics for the scores added so far.
+         * @return the statistics
+         */
+        public Statistics build() {
+            return new Statistics(this);
+        }
     }
 }
@@ -2,36 +2,52 @@ package grader.model.gradebook.stats;
 
 import grader.controller.StatsController;
 import grader.model.gradebook.WorkSpace;
-import grader.model.gradebook.scores.RawScore;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
+import grader.model.gradebook.scores.ScoreChange;
 import grader.model.gradebook.scores.Scores;
 import grader.model.items.Assignment;
 import grader.model.items.AssignmentTree;
-import grader.model.items.Percentage;
 import grader.model.people.Student;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Observable;
-import java.util.Observer;
 
 /**
  * A container class for gradebook statistics aggregating all individual
  * StatisticsBar objects for the gradebook scope.
+ * <p>
+ * Each assignment column keeps RunningStatistics.  When the only change
+ * since the last update is a single score edit, just that column is
+ * adjusted.  The columns are rebuilt from scratch when the scope, the
+ * assignments, or the scores change in any other way, or when the roster
+ * holds different students, compared one by one by identity.
  * @author Quan Tran
  */
-public class StatsContainer implements Observer {
-    private final static int STATS_COUNT = 3;
+public class StatsContainer implements WorkSpaceListener<WorkSpaceEvent> {
+    private final static String[] STATS_LABELS =
+            {"Max", "Average", "Min", "Std Dev", "Median", "Q1", "Q3"};
+    private final static int STATS_COUNT = STATS_LABELS.length;
     private StatsController controller;
     private List<Student> students;
+
+    /** students in scope when the stats were last rebuilt, in order */
+    private Student[] roster;
     private List<Assignment> assignments;
     private AssignmentTree assignmentTree;
     private Scores scores;
     private Map<Assignment, Statistics> stats;
+    private Map<Assignment, RunningStatistics> columns;
     private Statistics totalGradeStats;
 
+    /** version stamp of the scores the stats were last brought up to */
+    private int version;
+
+    /** number of full rebuilds and single column adjustments, for checking */
+    private int rebuilds, columnUpdates;
+
     /**
      * Sets the controller for this StatsContainer.
      * @param controller the controller to use
@@ -44,12 +60,7 @@ public class StatsContainer implements Observer {
      * Builds the list of Assignments from the AssignmentTree.
      */
     private void buildAssignments() {
-        AssignmentTree.AssignmentIterator itr =
-                assignmentTree.getAssignmentIterator();
-
-        assignments = new ArrayList<Assignment>();
-        while (itr.hasNext())
-            assignments.add(itr.next());
+        assignments = assignmentTree.getAssignments();
     }
 
     /**
@@ -57,29 +68,81 @@ public class StatsContainer implements Observer {
      */
     private void buildStats() {
         stats = new HashMap<Assignment, Statistics>();
+        columns = new HashMap<Assignment, RunningStatistics>();
 
         // iterate through each assignment in the scope
         for (Assignment ass : assignments) {
-            List<Double> rawScores = new ArrayList<Double>();
+            RunningStatistics rawScores = new RunningStatistics();
 
             // iterate through each student in the scope
             for (Student student : students)
                 rawScores.add(scores.getRawScore(student, ass));
 
             // add the value to the map
-            stats.put(ass, new Statistics(rawScores));
+            columns.put(ass, rawScores);
+            stats.put(ass, rawScores.toStatistics());
         }
-        ArrayList<Double> totalScores = new ArrayList<Double>();
-        for (Student s : students)
-        {
-            HashMap<Assignment, RawScore> map = WorkSpace.instance.getScores().getScoresMap(s);
-            Percentage percent = WorkSpace.instance.getAssignmentTree().calculatePercentage(map);
-            totalScores.add(percent.getValue());
+        version = scores.getVersion();
+        ++rebuilds;
+    }
+
+    /**
+     * Adjusts the column of a single changed score.
+     * @param change the score change
+     */
+    private void updateColumn(ScoreChange change) {
+        RunningStatistics column = columns.get(change.getAssignment());
+        if (column != null) {
+            column.replace(change.getOldScore(), change.getNewScore());
+            stats.put(change.getAssignment(), column.toStatistics());
         }
+        version = change.getVersion();
+        ++columnUpdates;
+    }
+
+    /**
+     * Builds the statistics for the total grade column.
+     */
+    private void buildTotalStats() {
+        double[] totalScores = WorkSpace.instance.getTotals();
         //if update was called with a course
-        if(!totalScores.isEmpty())
+        if (totalScores.length > 0)
             totalGradeStats = new Statistics(totalScores);
+        else
+            totalGradeStats = null;
+    }
 
+    /**
+     * Gets the statistics for an assignment in scope.
+     * @param assignment the assignment
+     * @return its statistics, or null if it is not in scope
+     */
+    public Statistics getStatistics(Assignment assignment) {
+        return stats == null ? null : stats.get(assignment);
+    }
+
+    /**
+     * Gets the statistics for the total grade.
+     * @return total grade statistics, or null if no students are in scope
+     */
+    public Statistics getTotalGradeStatistics() {
+        return totalGradeStats;
+    }
+
+    /**
+     * Gets the number of times every column has been rebuilt.
+     * @return full rebuild count
+     */
+    public int getRebuildCount() {
+        return rebuilds;
+    }
+
+    /**
+     * Gets the number of times a single column has been adjusted.
+     * @return column update count
+     */
+    public int getColumnUpdateCount() {
+        return columnUpdates;
     }
 
     /**
@@ -90,42 +153,92 @@ public class StatsContainer implements Observer {
             int size = assignments.size();
             String[][] statsTable = new String[STATS_COUNT][size + 2];
 
-            statsTable[0][0] = "Max";
-            statsTable[1][0] = "Average";
-            statsTable[2][0] = "Min";
+            for (int row = 0; row < STATS_COUNT; ++row)
+                statsTable[row][0] = STATS_LABELS[row];
 
             DecimalFormat format = new DecimalFormat("0.0");
 
             // populate stats table
-            for (int i = 0; i < size; ++i) {
-                Statistics current = stats.get(assignments.get(i));
-
-                statsTable[0][i + 1] = format.format(current.max);
-                statsTable[1][i + 1] = format.format(current.mean);
-                statsTable[2][i + 1] = format.format(current.min);
-            }
+            for (int i = 0; i < size; ++i)
+                fillColumn(statsTable, i + 1, stats.get(assignments.get(i)), format);
             //if update was called with a course
             if(totalGradeStats != null)
-            {
-                statsTable[0][size + 1] = format.format(totalGradeStats.max);
-                statsTable[1][size + 1] = format.format(totalGradeStats.mean);
-                statsTable[2][size + 1] = format.format(totalGradeStats.min);
-            }
+                fillColumn(statsTable, size + 1, totalGradeStats, format);
 
             controller.render(statsTable);
         }
     }
 
     /**
-     * Observe update method.
+     * Fills one column of the stats table, in the order of STATS_LABELS.
+     * @param statsTable the table to fill
+     * @param column the column to fill
+     * @param current the statistics for the column
+     * @param format the number format to use
+     */
+    private static void fillColumn(String[][] statsTable, int column,
+                                   Statistics current, DecimalFormat format) {
+        double[] values = {current.max, current.mean, current.min,
+                current.stddev, current.median, current.q1, current.q3};
+        for (int row = 0; row < STATS_COUNT; ++row)
+            statsTable[row][column] = format.format(values[row]);
+    }
+
+    /**
+     * Updates the statistics when the scope, the assignments, or the scores
+     * change.
+     * @param event the change
+     */
+    @Override
+    public void handle(WorkSpaceEvent event) {
+        update();
+    }
+
+    /**
+     * Checks whether a roster holds the same students, in the same order,
+     * as the one the stats were last built for.
+     */
+    private boolean isRoster(List<Student> inScope) {
+        if (roster.length != inScope.size())
+            return false;
+        int s = 0;
+        for (Student student : inScope) {
+            if (roster[s++] != student)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Brings the statistics up to date.
      * Queries the WorkSpace for necessary data.
      */
-    public void update(Observable obj, Object args) {
-        students = WorkSpace.instance.getStudents();
-        assignmentTree = WorkSpace.instance.getAssignmentTree();
-        scores = WorkSpace.instance.getScores();
-        buildAssignments();
-        buildStats();
+    public void update() {
+        List<Student> inScope = WorkSpace.instance.getStudents();
+        AssignmentTree tree = WorkSpace.instance.getAssignmentTree();
+        Scores current = WorkSpace.instance.getScores();
+        boolean rescoped = stats == null || current != scores
+                || tree.getAssignments() != assignments
+                || !isRoster(inScope);
+
+        students = inScope;
+        roster = inScope.toArray(new Student[inScope.size()]);
+        assignmentTree = tree;
+        scores = current;
+
+        if (rescoped) {
+            buildAssignments();
+            buildStats();
+            buildTotalStats();
+        }
+        else if (scores.getVersion() != version) {
+            ScoreChange change = WorkSpace.instance.getLastChange();
+            if (change != null && change.follows(scores, version))
+                updateColumn(change);
+            else
+                buildStats();
+            buildTotalStats();
+        }
         render();
     }
 }
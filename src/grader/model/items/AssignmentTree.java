@@ -1,13 +1,30 @@
 package grader.model.items;
 
 import grader.model.gradebook.scores.RawScore;
+import grader.model.gradebook.scores.Scores;
+import grader.model.people.Student;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Beta implementation of AssignmentTree. Expect bugs.
+ * <p>
+ * Grade calculation does not modify the tree.  Totals are computed from an
+ * immutable GradingPlan, so any number of threads may calculate grades at
+ * once.  Structural changes and plan compilation are serialized on the tree
+ * itself; calculating a grade never takes that lock once the plan is built.
+ * <p>
+ * Every Category and Assignment is indexed to the Node that holds it, so
+ * adding under a parent and asking for parents or depths take constant time.
+ * <p>
+ * The Assignments in tree order are cached along with the GradingPlan, so
+ * listing, counting, and iterating over them does not walk the tree.
  *
  * @author Jon Amireh
  */
@@ -16,6 +33,15 @@ public class AssignmentTree
     private Node root;
     private ArrayList<Category> categories;
 
+    /** each Category's Node */
+    private IdentityHashMap<Category, Node> categoryNodes;
+
+    /** the Node each Assignment was added to */
+    private IdentityHashMap<Assignment, Node> assignmentNodes;
+
+    /** compiled weights, or null if the tree has changed since compiling */
+    private volatile GradingPlan plan;
+
     /**
      * Constructs a new Assignment tree with an empty list of Categories.
      */
@@ -23,25 +49,8 @@ public class AssignmentTree
     {
         root = new Node(null);
         categories = new ArrayList<Category>();
-    }
-
-    @Override
-    protected AssignmentTree clone()
-    {
-        AssignmentTree at = new AssignmentTree();
-        at.root = cloneHelper(root, null);
-        return at;
-    }
-
-    private Node cloneHelper(Node currentNode, Node parent)
-    {
-        Node toReturn = new Node(parent);
-        toReturn.assignments.addAll(currentNode.assignments);
-        for(Node n : currentNode.nodes)
-        {
-            toReturn.nodes.add(cloneHelper(n, toReturn));
-        }
-        return toReturn;
+        categoryNodes = new IdentityHashMap<Category, Node>();
+        assignmentNodes = new IdentityHashMap<Assignment, Node>();
     }
 
 
@@ -50,18 +59,15 @@ public class AssignmentTree
      * @param parent the parent Category
      * @param child the child Category
      */
-    public void addTo(Category parent, Category child)
+    public synchronized void addTo(Category parent, Category child)
     {
+        plan = null;
+        // a top level Node hangs off the root, otherwise look up the parent
+        Node parentNode = parent == null ? root : findNode(parent);
+        Node node = new Node(parentNode, child);
+        parentNode.addNode(node);
         categories.add(child);
-        // add a top level Node
-        if (parent == null)
-            root.addNode(new Node(null, child));
-        // otherwise find the parent node and add it
-        else
-        {
-            Node parentNode = findNode(parent);
-            parentNode.addNode(new Node(parentNode, child));
-        }
+        categoryNodes.put(child, node);
     }
 
     /**
@@ -69,14 +75,13 @@ public class AssignmentTree
      * @param parent the parent Category
      * @param assignment the child Assignment
      */
-    public void addTo(Category parent, Assignment assignment)
+    public synchronized void addTo(Category parent, Assignment assignment)
     {
-        // add a top level Assignment
-        if (parent == null)
-            root.addAssignment(assignment);
-        // otherwise add the Assignment
-        else
-            findNode(parent).addAssignment(assignment);
+        plan = null;
+        // a top level Assignment goes in the root, otherwise look up the parent
+        Node parentNode = parent == null ? root : findNode(parent);
+        parentNode.addAssignment(assignment);
+        assignmentNodes.put(assignment, parentNode);
     }
 
     /**
@@ -84,139 +89,257 @@ public class AssignmentTree
      * @param category the Category whose Node to find
      * @return the Node if found, otherwise null
      */
-    private Node findNode(Category category)
+    private synchronized Node findNode(Category category)
     {
-        ArrayList<Node> nodes = root.nodes;
-        Node n = null;
-        for(int i = 0; i < root.nodes.size() && n == null; i++)
-        {
-            n = findNodeHelper(category, nodes.get(i));
-        }
-        return n;
+        return categoryNodes.get(category);
     }
 
-    private Node findNodeHelper(Category category, Node n)
+    /**
+     * Finds the Node the given Assignment was added to.
+     * @param assignment the Assignment whose parent Node to find
+     * @return the Node if found, otherwise null
+     */
+    private synchronized Node findParent(Assignment assignment)
     {
-        ArrayList<Node> nodes = n.nodes;
-        Node ni = null;
-        if(n.is(category))
-            return n;
-        if(!nodes.isEmpty())
-        {
-            for (int i = 0; i < n.nodes.size() && ni == null; i++)
-            {
-                ni = findNodeHelper(category, nodes.get(i));
-            }
-            return ni;
-        }
+        return assignmentNodes.get(assignment);
+    }
 
-        return ni;
+    /**
+     * Checks whether the given Category is in this tree.
+     * @param category the Category to look for
+     * @return true if the Category has been added to this tree
+     */
+    public boolean contains(Category category)
+    {
+        return findNode(category) != null;
     }
 
-    private void clearGrades()
+    /**
+     * Checks whether the given Assignment is in this tree.
+     * @param assignment the Assignment to look for
+     * @return true if the Assignment has been added to this tree
+     */
+    public boolean contains(Assignment assignment)
     {
-        ArrayList<Node> nodes = root.nodes;
-        root.grade = 0.0;
-        root.total = 0.0;
-        for(int i = 0; i < root.nodes.size(); i++)
-        {
-            clearGradesHelper(nodes.get(i));
-        }
+        return findParent(assignment) != null;
     }
 
-    private void clearGradesHelper(Node n)
+    /**
+     * Gets the Category the given Category was added under.
+     * @param category the Category whose parent to get
+     * @return the parent Category, or null if the Category is top level or
+     * not in this tree
+     */
+    public Category getParent(Category category)
     {
-        ArrayList<Node> nodes = n.nodes;
-        n.grade = 0.0;
-        n.total = 0.0;
-        if(!nodes.isEmpty())
-        {
-            for (int i = 0; i < n.nodes.size(); i++) {
-                clearGradesHelper(nodes.get(i));
-            }
-        }
+        Node node = findNode(category);
+        return node == null ? null : node.parent.category;
+    }
 
+    /**
+     * Gets the Category the given Assignment was added under.
+     * @param assignment the Assignment whose parent to get
+     * @return the parent Category, or null if the Assignment is top level or
+     * not in this tree
+     */
+    public Category getParent(Assignment assignment)
+    {
+        Node node = findParent(assignment);
+        return node == null ? null : node.category;
     }
 
+    /**
+     * Gets how deep the given Category is nested.  Top level Categories are
+     * at depth 1.
+     * @param category the Category whose depth to get
+     * @return the number of Categories from the root down to and including
+     * this one, or -1 if it is not in this tree
+     */
+    public int getDepth(Category category)
+    {
+        Node node = findNode(category);
+        return node == null ? -1 : node.depth;
+    }
 
-    private double gradeCheckNode(Node node, HashMap<Assignment, RawScore> map)
+    /**
+     * Gets how deep the given Assignment is nested.  Top level Assignments
+     * are at depth 1.
+     * @param assignment the Assignment whose depth to get
+     * @return one more than the depth of its parent Category,
+     * or -1 if it is not in this tree
+     */
+    public int getDepth(Assignment assignment)
     {
-        ArrayList<Node> nodes = node.nodes;
-        for (int i = 0; i < nodes.size(); i++)
-        {
-            Category c = nodes.get(i).category;
-            node.total += c.weight.getValue()/100.0;
-        }
-        ArrayList<Assignment> unweightAssignments = new ArrayList<Assignment>();
-        for(Assignment a : node.assignments)
+        Node node = findParent(assignment);
+        return node == null ? -1 : node.depth + 1;
+    }
+
+    /**
+     * Gets the compiled GradingPlan for this tree, building it if the tree
+     * has changed since it was last built.
+     * @return the GradingPlan for this tree
+     */
+    public GradingPlan getGradingPlan()
+    {
+        GradingPlan current = plan;
+        if (current == null)
         {
-            if(a.hasWeight)
-            {
-                node.total += a.weight.getValue() / 100.0;
-                node.grade += a.weight.getValue() * (map.get(a).getScore()/a.rawPoints);
-            }
-            else
-            {
-                unweightAssignments.add(a);
-            }
+            current = compile();
         }
+        return current;
+    }
 
-        double indWeight = (1.0 - node.total)/unweightAssignments.size();
-        boolean equilDistribution;
-        try
+    /**
+     * Builds the GradingPlan, unless another thread already has.
+     * Holding the tree's lock keeps addTo from changing the tree mid-walk.
+     * @return the GradingPlan for this tree
+     */
+    private synchronized GradingPlan compile()
+    {
+        if (plan == null)
         {
-            equilDistribution = !node.category.uncategorizedByRawScore;
+            ArrayList<Assignment> assignments = new ArrayList<Assignment>();
+            ArrayList<Double> weights = new ArrayList<Double>();
+            ArrayList<Category> planCategories = new ArrayList<Category>();
+            ArrayList<int[]> paths = new ArrayList<int[]>();
+            compileNode(root, 100.0, new int[0], assignments, weights,
+                        planCategories, paths);
+            plan = new GradingPlan(assignments, weights, planCategories, paths);
         }
-        catch(NullPointerException e)
+        return plan;
+    }
+
+    /**
+     * Computes the effective weight of every Assignment under the given Node.
+     * A Node's grade is scaled by the weights of all the Categories above it,
+     * which is carried down as the multiplier.
+     * @param node the Node to compile
+     * @param multiplier the scale applied to this Node's grade
+     * @param path plan indices of the Categories from the root down to node
+     * @param assignments receives the Assignments in tree order
+     * @param weights receives the effective weight of each Assignment
+     * @param planCategories receives the Categories in tree order
+     * @param paths receives the Category path of each Assignment
+     */
+    private void compileNode(Node node, double multiplier, int[] path,
+                             ArrayList<Assignment> assignments,
+                             ArrayList<Double> weights,
+                             ArrayList<Category> planCategories,
+                             ArrayList<int[]> paths)
+    {
+        double total = 0.0;
+        for (Node n : node.nodes)
         {
-            equilDistribution = false;
+            total += n.category.weight.getValue() / 100.0;
         }
-        if(equilDistribution)
+        int unweighted = 0;
+        double totalRawScore = 0.0;
+        for (Assignment a : node.assignments)
         {
-            for(Assignment a : unweightAssignments)
+            if (a.hasWeight)
             {
-                node.grade += indWeight*(map.get(a).getScore()/a.rawPoints);
+                total += a.weight.getValue() / 100.0;
             }
-        }
-        else
-        {
-            double totalRawScore = 0.0;
-            for(Assignment a : unweightAssignments)
+            else
             {
+                unweighted++;
                 totalRawScore += a.rawPoints;
             }
-            double ref = 1.0 - node.total;
-            for(Assignment a : unweightAssignments)
-            {
-                double relWeight = ref * (a.rawPoints/totalRawScore);
-                node.grade += relWeight * (map.get(a).getScore()/a.rawPoints);
-            }
         }
-        for(Node n : nodes)
+
+        // unweighted assignments split whatever weight is left over, either
+        // evenly or in proportion to their raw points
+        double ref = 1.0 - total;
+        boolean equilDistribution = node.category != null
+                && !node.category.uncategorizedByRawScore;
+        for (Assignment a : node.assignments)
         {
-            n.grade += gradeCheckNode(n, map);
-            node.grade += n.grade;
+            double share;
+            if (a.hasWeight)
+                share = a.weight.getValue();
+            else if (equilDistribution)
+                share = ref / unweighted;
+            else
+                share = ref * (a.rawPoints / totalRawScore);
+            assignments.add(a);
+            weights.add(multiplier * share / a.rawPoints);
+            paths.add(path);
         }
-        if(node.category == null)
+
+        for (Node n : node.nodes)
         {
-            return node.grade;
+            int[] childPath = Arrays.copyOf(path, path.length + 1);
+            childPath[path.length] = planCategories.size();
+            planCategories.add(n.category);
+            compileNode(n, multiplier * (n.category.weight.getValue() / 100.0),
+                        childPath, assignments, weights, planCategories, paths);
         }
-        return node.grade * (node.category.weight.getValue() / 100.0);
-        
     }
 
     /**
      * Calculates the percentage for the current Student for the Assignment.
+     * Safe to call from any thread; the tree is not modified.
      * @param scores the map of assignment scores for the current Student
      * @return the Percentage representation of the Student's score
      */
     public Percentage calculatePercentage(HashMap<Assignment, RawScore> scores)
     {
-        Percentage toReturn;
-        double result = gradeCheckNode(root, scores) * 100.0;
-        toReturn = new Percentage(result);
-        clearGrades();
-        return toReturn;
+        return new Percentage(getGradingPlan().calculate(scores));
+    }
+
+    /**
+     * Calculates the total percentage for the given Student.
+     * Safe to call from any thread; the tree is not modified.
+     * @param scores the Scores to read from
+     * @param student the Student whose total to calculate
+     * @return the Percentage representation of the Student's score
+     */
+    public Percentage calculatePercentage(Scores scores, Student student)
+    {
+        return new Percentage(getGradingPlan().calculate(scores, student));
+    }
+
+    /**
+     * Calculates the total percentage of every Student in a roster,
+     * splitting large rosters across threads.
+     * @param scores the Scores to read from
+     * @param students the roster to total
+     * @return each Student's total percentage, in roster order
+     */
+    public double[] calculateTotals(Scores scores, List<Student> students)
+    {
+        return getGradingPlan().calculate(scores, students);
+    }
+
+    /**
+     * Gets every Assignment in this tree, in tree order: a Category's own
+     * Assignments come before those of its subcategories.  The list is
+     * cached until the tree changes, and an Assignment's position in it is
+     * its dense ordinal.
+     * @return read-only, random access list of the Assignments
+     */
+    public List<Assignment> getAssignments()
+    {
+        return getGradingPlan().getAssignments();
+    }
+
+    /**
+     * Counts the Assignments in this tree.
+     * @return the number of Assignments
+     */
+    public int countAssignments()
+    {
+        return getGradingPlan().size();
+    }
+
+    /**
+     * Gets the dense ordinal of the given Assignment.
+     * @param assignment the Assignment to look up
+     * @return its position in getAssignments, or -1 if not in this tree
+     */
+    public int indexOf(Assignment assignment)
+    {
+        return getGradingPlan().indexOf(assignment);
     }
 
     /**
@@ -225,7 +348,7 @@ public class AssignmentTree
      */
     public AssignmentIterator getAssignmentIterator()
     {
-        return new AssignmentIterator(clone());
+        return new AssignmentIterator(this);
     }
 
     /**
@@ -237,66 +360,22 @@ public class AssignmentTree
         return categories;
     }
 
-    //level iterator
-    //return list of categories
-
     /**
-     * Iterator class for the AssignmentTree.
+     * Iterator class for the AssignmentTree.  Iterates over the cached
+     * Assignment list as of when the iterator was built.
      */
     public class AssignmentIterator implements Iterator<Assignment>
     {
-        private Assignment nextAssignment;
-        private Node currentNode;
+        private final List<Assignment> assignments;
+        private int nextIndex;
 
         /**
          * Constructs a new AssignmentIterator.
          */
         public AssignmentIterator(AssignmentTree at)
         {
-            currentNode = at.root;
-            nextAssignment = findNextAssignment();
-        }
-
-        /**
-         * Gets the next Assignment on this iteration.
-         * @return the next Assignment
-         */
-        private Assignment findNextAssignment()
-        {
-            // check if the iterator has reached the end of the tree
-            if(currentNode == null)
-            {
-                return null;
-            }
-            // check if the current node has a next assignment
-            Assignment assignment = currentNode.getNextAssignment();
-            if(assignment != null)
-            {
-                return assignment;
-            }
-            // check if the next child node has an assignment
-            Node node = currentNode.getNextNode();
-            if(node != null)
-            {
-                currentNode = node;
-                return findNextAssignment();
-            }
-            // otherwise get the next node from the parent and try again
-            else
-            {
-                // check if there are no more assignments in the next node
-                if(currentNode.nodes.size() == currentNode.nextNodeIndex)
-                {
-                    currentNode = currentNode.parent;
-                    return findNextAssignment();
-                }
-                // otherwise get the next subcategory of the next node
-                else
-                {
-                    currentNode = currentNode.getNextNode();
-                    return findNextAssignment();
-                }
-            }
+            assignments = at.getAssignments();
+            nextIndex = 0;
         }
 
         /**
@@ -306,7 +385,7 @@ public class AssignmentTree
         @Override
         public boolean hasNext()
         {
-            return nextAssignment != null;
+            return nextIndex < assignments.size();
         }
 
         /**
@@ -316,9 +395,9 @@ public class AssignmentTree
         @Override
         public Assignment next()
         {
-            Assignment temp = nextAssignment;
-            nextAssignment = findNextAssignment();
-            return temp;
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return assignments.get(nextIndex++);
         }
     }
 
@@ -331,11 +410,7 @@ public class AssignmentTree
         private ArrayList<Node> nodes;
         private ArrayList<Assignment> assignments;
         private Node parent;
-        private int nextAssignIndex = 0;
-        private int nextNodeIndex = 0;
-
-        private double total;
-        private double grade;
+        private int depth;
 
         /**
          * Constructs a new Node with the given Node as parent.
@@ -344,11 +419,8 @@ public class AssignmentTree
         public Node(Node parent)
         {
             this.nodes = new ArrayList<Node>();
-            this.total = 0.0;
-            this.grade = 0.0;
             this.parent = parent;
-            this.nextAssignIndex = 0;
-            this.nextNodeIndex = 0;
+            this.depth = parent == null ? 0 : parent.depth + 1;
             this.assignments = new ArrayList<Assignment>();
         }
 
@@ -392,38 +464,5 @@ public class AssignmentTree
         {
             return this.category == category;
         }
-
-        /**
-         * Returns the next Assignment under the iterator and increments it.
-         * @return the next Assignment
-         */
-        public Assignment getNextAssignment()
-        {
-            // return null if either there are no Assignments
-            // or the iterator has reached the end of the list
-            if(assignments.size() == 0 ||
-               assignments.size() == nextAssignIndex)
-            {
-                return null;
-            }
-
-            return assignments.get(nextAssignIndex++);
-        }
-
-        /**
-         * Returns the next Node under the iterator and increments it.
-         * @return the next Node
-         */
-        public Node getNextNode()
-        {
-            // return null if either there are no Nodes
-            // or the iterator has reached the end of the list
-            if(nodes.size() == 0 || nodes.size() == nextNodeIndex)
-            {
-                return null;
-            }
-
-            return nodes.get(nextNodeIndex++);
-        }
     }
 }
@@ -0,0 +1,298 @@
+package grader.model.items;
+
+import grader.model.gradebook.scores.RawScore;
+import grader.model.gradebook.scores.Scores;
+import grader.model.people.Student;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A GradingPlan is the compiled form of an AssignmentTree.  Every assignment
+ * in the tree is given a single effective weight, which folds in the weights
+ * of all the categories above it and how its own category distributes
+ * unweighted assignments.  A student's total percentage is then the sum of
+ * each raw score times its assignment's effective weight.
+ * <p>
+ * Plans are immutable.  The AssignmentTree builds a new one after its
+ * structure changes.  A plan can be shared freely between threads, and
+ * calculating a total keeps all of its working state on the stack.
+ * <p>
+ * The plan also records the Categories each assignment falls under, so a
+ * total can be broken down into the points contributed by each Category,
+ * and a single score change can be applied to just the Categories it
+ * affects.
+ */
+public class GradingPlan
+{
+    /** rosters at most this long are totaled on the calling thread */
+    static final int SEQUENTIAL_THRESHOLD = 512;
+
+    /** assignments in tree order */
+    private final Assignment[] assignments;
+
+    /** read-only list view of the assignments */
+    private final List<Assignment> assignmentList;
+
+    /** effective weight of each assignment, in percentage points per raw point */
+    private final double[] weights;
+
+    /** assignment to position in the plan */
+    private final HashMap<Assignment, Integer> index;
+
+    /** categories in tree order */
+    private final Category[] categories;
+
+    /** category to position in the plan */
+    private final HashMap<Category, Integer> categoryIndex;
+
+    /** positions of the categories above each assignment, outermost first */
+    private final int[][] paths;
+
+    /**
+     * Constructs a new GradingPlan from parallel lists of assignments,
+     * effective weights, and category paths.
+     * @param assignments the assignments in tree order
+     * @param weights the effective weight of each assignment
+     * @param categories the categories in tree order
+     * @param paths the category positions above each assignment
+     */
+    GradingPlan(List<Assignment> assignments, List<Double> weights,
+                List<Category> categories, List<int[]> paths)
+    {
+        int size = assignments.size();
+        this.assignments = assignments.toArray(new Assignment[size]);
+        this.assignmentList = Collections.unmodifiableList(Arrays.asList(this.assignments));
+        this.weights = new double[size];
+        this.index = new HashMap<Assignment, Integer>();
+        for (int i = 0; i < size; i++)
+        {
+            this.weights[i] = weights.get(i);
+            if (!index.containsKey(this.assignments[i]))
+                index.put(this.assignments[i], i);
+        }
+        this.categories = categories.toArray(new Category[categories.size()]);
+        this.categoryIndex = new HashMap<Category, Integer>();
+        for (int i = 0; i < this.categories.length; i++)
+        {
+            if (!categoryIndex.containsKey(this.categories[i]))
+                categoryIndex.put(this.categories[i], i);
+        }
+        this.paths = paths.toArray(new int[paths.size()][]);
+    }
+
+    /**
+     * Gets the number of assignments in this plan.
+     * @return the number of assignments
+     */
+    public int size()
+    {
+        return assignments.length;
+    }
+
+    /**
+     * Gets the Assignment at the given position in the plan.
+     * @param i position in tree order
+     * @return the Assignment
+     */
+    public Assignment getAssignment(int i)
+    {
+        return assignments[i];
+    }
+
+    /**
+     * Gets the assignments of this plan in tree order.  Each Assignment's
+     * position in the list is its index in the plan.
+     * @return read-only, random access list of the assignments
+     */
+    public List<Assignment> getAssignments()
+    {
+        return assignmentList;
+    }
+
+    /**
+     * Gets the effective weight at the given position in the plan.
+     * @param i position in tree order
+     * @return percentage points gained per raw point scored
+     */
+    public double getWeight(int i)
+    {
+        return weights[i];
+    }
+
+    /**
+     * Gets the effective weight of the given Assignment.
+     * @param assignment the Assignment to look up
+     * @return percentage points gained per raw point scored,
+     * or 0.0 if the Assignment is not in the plan
+     */
+    public double getWeight(Assignment assignment)
+    {
+        int i = indexOf(assignment);
+        return i < 0 ? 0.0 : weights[i];
+    }
+
+    /**
+     * Gets the position of the given Assignment in the plan.
+     * @param assignment the Assignment to look up
+     * @return position in tree order, or -1 if not in the plan
+     */
+    public int indexOf(Assignment assignment)
+    {
+        Integer i = index.get(assignment);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * Gets the number of categories in this plan.
+     * @return the number of categories
+     */
+    public int categoryCount()
+    {
+        return categories.length;
+    }
+
+    /**
+     * Gets the Category at the given position in the plan.
+     * @param i position in tree order
+     * @return the Category
+     */
+    public Category getCategory(int i)
+    {
+        return categories[i];
+    }
+
+    /**
+     * Gets the position of the given Category in the plan.
+     * @param category the Category to look up
+     * @return position in tree order, or -1 if not in the plan
+     */
+    public int indexOf(Category category)
+    {
+        Integer i = categoryIndex.get(category);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * Calculates a total percentage from a map of assignment scores.
+     * Missing scores count as zero.
+     * @param scores the map of assignment scores for a Student
+     * @return the total percentage
+     */
+    public double calculate(HashMap<Assignment, RawScore> scores)
+    {
+        double total = 0.0;
+        for (int i = 0; i < assignments.length; i++)
+        {
+            RawScore score = scores.get(assignments[i]);
+            if (score != null)
+                total += weights[i] * score.getScore();
+        }
+        return total;
+    }
+
+    /**
+     * Calculates a Student's total percentage.
+     * @param scores the Scores to read from
+     * @param student the Student whose total to calculate
+     * @return the total percentage
+     */
+    public double calculate(Scores scores, Student student)
+    {
+        return scores.weightedTotal(student, assignments, weights);
+    }
+
+    /**
+     * Calculates the points each Category contributes to a Student's total.
+     * A Category's subtotal includes the points from its subcategories.
+     * @param scores the Scores to read from
+     * @param student the Student whose subtotals to calculate
+     * @return the subtotal of each Category, indexed by plan position
+     */
+    public double[] calculateSubtotals(Scores scores, Student student)
+    {
+        double[] subtotals = new double[categories.length];
+        for (int i = 0; i < assignments.length; i++)
+        {
+            double points = weights[i] * scores.getRawScore(student, assignments[i]);
+            if (points != 0.0)
+                addToSubtotals(subtotals, i, points);
+        }
+        return subtotals;
+    }
+
+    /**
+     * Adds points to the subtotal of every Category above an assignment.
+     * @param subtotals the subtotals to adjust, indexed by plan position
+     * @param i position of the assignment in the plan
+     * @param points the points to add
+     */
+    public void addToSubtotals(double[] subtotals, int i, double points)
+    {
+        for (int c : paths[i])
+            subtotals[c] += points;
+    }
+
+    /**
+     * Calculates the total percentage of every Student in a roster.
+     * Large rosters are split across the common fork/join pool.
+     * @param scores the Scores to read from
+     * @param students the roster to total
+     * @return each Student's total percentage, in roster order
+     */
+    public double[] calculate(Scores scores, List<Student> students)
+    {
+        Student[] roster = students.toArray(new Student[students.size()]);
+        double[] totals = new double[roster.length];
+        TotalsTask task = new TotalsTask(scores, roster, totals, 0, roster.length);
+        if (roster.length <= SEQUENTIAL_THRESHOLD)
+            task.compute();
+        else
+            ForkJoinPool.commonPool().invoke(task);
+        return totals;
+    }
+
+    /**
+     * Fork/join task totaling a slice of a roster into a shared result array.
+     * Each task writes only its own slice, so no locking is needed.
+     */
+    private class TotalsTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Scores scores;
+        private final Student[] roster;
+        private final double[] totals;
+        private final int from;
+        private final int to;
+
+        TotalsTask(Scores scores, Student[] roster, double[] totals, int from, int to)
+        {
+            this.scores = scores;
+            this.roster = roster;
+            this.totals = totals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= SEQUENTIAL_THRESHOLD)
+            {
+                for (int i = from; i < to; i++)
+                    totals[i] = calculate(scores, roster[i]);
+            }
+            else
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TotalsTask(scores, roster, totals, from, mid),
+                          new TotalsTask(scores, roster, totals, mid, to));
+            }
+        }
+    }
+}
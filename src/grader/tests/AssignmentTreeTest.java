@@ -0,0 +1,299 @@
+package grader.tests;
+
+import grader.model.gradebook.scores.DenseScores;
+import grader.model.items.Assignment;
+import grader.model.items.AssignmentTree;
+import grader.model.items.Category;
+import grader.model.items.GradingPlan;
+import grader.model.people.Name;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * The AssignmentTreeTest class is the companion testing class for the grader
+ * AssignmentTree. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test the effective weights of the compiled GradingPlan.
+ *
+ *    Phase 2: Unit test calculatePercentage from a score map and from Scores.
+ *
+ *    Phase 3: Unit test recompiling the plan after the tree changes.
+ *
+ *    Phase 4: Stress test calculating totals from many threads at once.
+ *
+ *    Phase 5: Unit test batch totals for small and fork/join sized rosters.
+ *
+ *    Phase 6: Unit test parent, depth, and membership lookups, including
+ *             deeply nested categories.
+ *
+ *    Phase 7: Unit test the cached assignment list, ordinals, and iterator.
+ *	                                       								 </pre>
+ */
+public class AssignmentTreeTest
+{
+    private static final double DELTA = 1e-9;
+
+    private AssignmentTree tree;
+    private Category homework, exams;
+    private Assignment hw1, hw2, midterm, fin;
+    private Student student;
+    private DenseScores scores;
+
+    /**
+     * Builds a tree with an evenly weighted Homework category worth 40% and
+     * an Exams category worth 60% weighted by raw points.
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        tree = new AssignmentTree();
+        homework = new Category("Homework", "40", false);
+        exams = new Category("Exams", "60", true);
+        tree.addTo(null, homework);
+        tree.addTo(null, exams);
+
+        hw1 = new Assignment("HW 1", null, "10", "");
+        hw2 = new Assignment("HW 2", null, "20", "");
+        midterm = new Assignment("Midterm", null, "50", "");
+        fin = new Assignment("Final", null, "150", "");
+        tree.addTo(homework, hw1);
+        tree.addTo(homework, hw2);
+        tree.addTo(exams, midterm);
+        tree.addTo(exams, fin);
+
+        student = new Student(new Name("Test", "", "Student"));
+        scores = new DenseScores();
+        scores.addRawScore(student, hw1, 5.0);
+        scores.addRawScore(student, hw2, 20.0);
+        scores.addRawScore(student, midterm, 25.0);
+        scores.addRawScore(student, fin, 150.0);
+    }
+
+    /**
+     * 1. Test the effective weights, in percentage points per raw point.
+     */
+    @Test
+    public void testGradingPlan()
+    {
+        GradingPlan plan = tree.getGradingPlan();
+        assertEquals(4, plan.size());
+        assertSame(hw1, plan.getAssignment(0));
+        assertSame(fin, plan.getAssignment(3));
+
+        assertEquals(2.0, plan.getWeight(hw1), DELTA);
+        assertEquals(1.0, plan.getWeight(hw2), DELTA);
+        assertEquals(0.3, plan.getWeight(midterm), DELTA);
+        assertEquals(0.3, plan.getWeight(fin), DELTA);
+        assertEquals(0.0, plan.getWeight(new Assignment("Other")), DELTA);
+
+        assertEquals(2, plan.categoryCount());
+        assertSame(exams, plan.getCategory(1));
+        assertEquals(2, plan.indexOf(midterm));
+        assertEquals(-1, plan.indexOf(new Category("Other", "0", false)));
+    }
+
+    /**
+     * 2. Test calculating a total: homework averages 75% and exams 87.5%.
+     */
+    @Test
+    public void testCalculatePercentage()
+    {
+        assertEquals(82.5, tree.calculatePercentage(scores, student).getValue(), DELTA);
+        assertEquals(82.5, tree.calculatePercentage(
+                scores.getScoresMap(student)).getValue(), DELTA);
+
+        double[] subtotals = tree.getGradingPlan().calculateSubtotals(scores, student);
+        assertEquals(30.0, subtotals[0], DELTA);
+        assertEquals(52.5, subtotals[1], DELTA);
+    }
+
+    /**
+     * 3. Test that adding to the tree rebuilds the plan.
+     */
+    @Test
+    public void testRecompile()
+    {
+        GradingPlan before = tree.getGradingPlan();
+        assertSame(before, tree.getGradingPlan());
+
+        Assignment hw3 = new Assignment("HW 3", null, "10", "");
+        tree.addTo(homework, hw3);
+        scores.addRawScore(student, hw3, 10.0);
+
+        GradingPlan after = tree.getGradingPlan();
+        assertNotSame(before, after);
+        assertEquals(5, after.size());
+        assertSame(hw3, after.getAssignment(2));
+
+        // homework is now (50% + 100% + 100%) / 3
+        assertEquals(40.0 * 2.5 / 3 + 52.5,
+                tree.calculatePercentage(scores, student).getValue(), DELTA);
+    }
+
+    /**
+     * 4. Test that concurrent calculations agree with a single thread.
+     */
+    @Test
+    public void testConcurrentCalculation() throws Exception
+    {
+        final List<Student> students = new ArrayList<Student>();
+        Random rand = new Random(309);
+        for (int i = 0; i < 500; i++)
+        {
+            Student s = new Student(new Name("Student", "", "Number"));
+            scores.addRawScore(s, hw1, rand.nextInt(11));
+            scores.addRawScore(s, hw2, rand.nextInt(21));
+            scores.addRawScore(s, midterm, rand.nextInt(51));
+            scores.addRawScore(s, fin, rand.nextInt(151));
+            students.add(s);
+        }
+
+        final double[] expected = new double[students.size()];
+        for (int i = 0; i < expected.length; i++)
+            expected[i] = tree.calculatePercentage(scores, students.get(i)).getValue();
+
+        // force every thread to race on compiling a fresh plan
+        tree.addTo(exams, new Assignment("Bonus", null, "10", "0"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<double[]>> results = new ArrayList<Future<double[]>>();
+        for (int t = 0; t < 8; t++)
+        {
+            results.add(pool.submit(new Callable<double[]>()
+            {
+                @Override
+                public double[] call()
+                {
+                    double[] totals = new double[students.size()];
+                    for (int i = 0; i < totals.length; i++)
+                        totals[i] = tree.calculatePercentage(scores, students.get(i)).getValue();
+                    return totals;
+                }
+            }));
+        }
+        for (Future<double[]> result : results)
+            assertArrayEquals(expected, result.get(), DELTA);
+        pool.shutdown();
+    }
+
+    /**
+     * 5. Test that batch totals match single totals, in roster order, both
+     * below and above the fork/join threshold.
+     */
+    @Test
+    public void testCalculateTotals()
+    {
+        List<Student> students = new ArrayList<Student>();
+        Random rand = new Random(5);
+        for (int i = 0; i < 2000; i++)
+        {
+            Student s = new Student(new Name("Student", "", "Number"));
+            scores.addRawScore(s, hw1, rand.nextInt(11));
+            scores.addRawScore(s, midterm, rand.nextInt(51));
+            scores.addRawScore(s, fin, rand.nextInt(151));
+            students.add(s);
+        }
+        students.add(0, student);
+
+        double[] totals = tree.calculateTotals(scores, students);
+        assertEquals(students.size(), totals.length);
+        assertEquals(82.5, totals[0], DELTA);
+        for (int i = 0; i < totals.length; i++)
+            assertEquals(tree.calculatePercentage(scores, students.get(i)).getValue(),
+                    totals[i], DELTA);
+
+        double[] few = tree.calculateTotals(scores, students.subList(0, 3));
+        assertArrayEquals(Arrays.copyOf(totals, 3), few, DELTA);
+        assertEquals(0, tree.calculateTotals(scores, new ArrayList<Student>()).length);
+    }
+
+    /**
+     * 6. Test the parent, depth, and contains lookups.
+     */
+    @Test
+    public void testLookups()
+    {
+        assertNull(tree.getParent(homework));
+        assertSame(homework, tree.getParent(hw2));
+        assertEquals(1, tree.getDepth(exams));
+        assertEquals(2, tree.getDepth(fin));
+        assertTrue(tree.contains(midterm));
+
+        Assignment extra = new Assignment("Extra", null, "5", "");
+        tree.addTo(null, extra);
+        assertNull(tree.getParent(extra));
+        assertEquals(1, tree.getDepth(extra));
+
+        Category other = new Category("Other", "0", false);
+        assertFalse(tree.contains(other));
+        assertFalse(tree.contains(new Assignment("Other")));
+        assertEquals(-1, tree.getDepth(other));
+        assertNull(tree.getParent(other));
+
+        // a chain of nested categories, each added under the last
+        Category parent = exams;
+        for (int i = 0; i < 300; i++)
+        {
+            Category child = new Category("Level " + i, "0", false);
+            tree.addTo(parent, child);
+            assertSame(parent, tree.getParent(child));
+            parent = child;
+        }
+        Assignment deep = new Assignment("Deep", null, "1", "");
+        tree.addTo(parent, deep);
+        assertEquals(301, tree.getDepth(parent));
+        assertEquals(302, tree.getDepth(deep));
+        assertSame(parent, tree.getParent(deep));
+    }
+
+    /**
+     * 7. Test that the assignment list is in tree order, cached until the
+     * tree changes, and read-only.
+     */
+    @Test
+    public void testAssignments()
+    {
+        Assignment loose = new Assignment("Loose", null, "5", "");
+        tree.addTo(null, loose);
+
+        List<Assignment> assignments = tree.getAssignments();
+        assertEquals(Arrays.asList(loose, hw1, hw2, midterm, fin), assignments);
+        assertSame(assignments, tree.getAssignments());
+        assertEquals(5, tree.countAssignments());
+        assertEquals(3, tree.indexOf(midterm));
+        assertEquals(-1, tree.indexOf(new Assignment("Other")));
+
+        AssignmentTree.AssignmentIterator itr = tree.getAssignmentIterator();
+        for (Assignment a : assignments)
+            assertSame(a, itr.next());
+        assertFalse(itr.hasNext());
+
+        try
+        {
+            assignments.add(loose);
+            fail("assignment list should be read-only");
+        }
+        catch (UnsupportedOperationException e)
+        {
+            // expected
+        }
+
+        Assignment hw3 = new Assignment("HW 3", null, "10", "");
+        tree.addTo(homework, hw3);
+        assertNotSame(assignments, tree.getAssignments());
+        assertEquals(3, tree.indexOf(hw3));
+        assertEquals(6, tree.countAssignments());
+    }
+}
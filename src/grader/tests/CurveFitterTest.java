@@ -0,0 +1,204 @@
+package grader.tests;
+
+import grader.model.curve.CurveFitter;
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import org.junit.Test;
+
+import java.util.EnumMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * The CurveFitterTest class is the companion testing class for the
+ * CurveFitter class. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test fitting distinct totals exactly.
+ *
+ *    Phase 2: Unit test ties and targets that cannot be met exactly.
+ *
+ *    Phase 3: Unit test invalid targets and gaps.
+ *
+ *    Phase 4: Unit test that empty letters capture no students when the
+ *             gap is as wide as the space between totals.
+ *	                                       								 </pre>
+ */
+public class CurveFitterTest {
+
+    /**
+     * Unit test fit on totals 0% through 99%.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input              Output               Remarks
+     * ====================================================================
+     *   1      A 15%, B 30%       A 15, B 30, F 55     Letter ranges, with
+     *                                                  plus and minus empty
+     *   2      Every letter 7%    7 per letter, F 16   Bounds at totals
+     *                                                  </pre>
+     */
+    @Test
+    public void testFit() {
+        double[] totals = new double[100];
+        for (int i = 0; i < totals.length; i++)
+            totals[i] = 99 - i;
+        GradeScheme base = new GradeScheme();
+
+        EnumMap<LetterGrade, Double> target = new EnumMap<LetterGrade, Double>(LetterGrade.class);
+        target.put(LetterGrade.A, 15.0);
+        target.put(LetterGrade.B, 30.0);
+        GradeScheme fitted = CurveFitter.fit(base, totals, target, 0.1);
+        int[] counts = count(fitted, totals);
+        assertEquals(15, counts[LetterGrade.A.ordinal()]);
+        assertEquals(30, counts[LetterGrade.B.ordinal()]);
+        assertEquals(55, counts[LetterGrade.F.ordinal()]);
+        assertEquals(85.0, fitted.ranges.get(LetterGrade.A.ordinal()).getLowerBound().getValue(), 1e-9);
+        assertOrdered(fitted);
+        assertEquals(97.0, base.ranges.get(0).getLowerBound().getValue(), 1e-9);
+
+        target.clear();
+        for (int i = 0; i < LetterGrade.F.ordinal(); i++)
+            target.put(LetterGrade.values()[i], 7.0);
+        counts = count(CurveFitter.fit(base, totals, target, 0.5), totals);
+        for (int i = 0; i < LetterGrade.F.ordinal(); i++)
+            assertEquals(7, counts[i]);
+        assertEquals(16, counts[LetterGrade.F.ordinal()]);
+    }
+
+    /**
+     * Unit test fit when the target cannot be met exactly.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input                   Output           Remarks
+     * ====================================================================
+     *   1      Ten at 90%, ten at 80%, A 10, B 10       Tie left out when
+     *          A 5%, B 55%                              closer to target
+     *   2      All at 50%, A 50%       A 20             Tie kept together
+     *   3      A 50%, gap 5            Bounds ordered   Clamped to fit
+     *                                                  </pre>
+     */
+    @Test
+    public void testTies() {
+        double[] totals = new double[20];
+        for (int i = 0; i < totals.length; i++)
+            totals[i] = i < 10 ? 90.0 : 80.0;
+        GradeScheme base = new GradeScheme();
+        EnumMap<LetterGrade, Double> target = new EnumMap<LetterGrade, Double>(LetterGrade.class);
+        target.put(LetterGrade.A, 5.0);
+        target.put(LetterGrade.B, 55.0);
+        int[] counts = count(CurveFitter.fit(base, totals, target, 1.0), totals);
+        assertEquals(0, counts[LetterGrade.A.ordinal()]);
+        assertEquals(10, counts[LetterGrade.B.ordinal()]);
+
+        java.util.Arrays.fill(totals, 50.0);
+        target.clear();
+        target.put(LetterGrade.A, 50.0);
+        counts = count(CurveFitter.fit(base, totals, target, 1.0), totals);
+        assertEquals(20, counts[LetterGrade.A.ordinal()]);
+
+        GradeScheme fitted = CurveFitter.fit(base, totals, target, 5.0);
+        assertOrdered(fitted);
+        assertTrue(fitted.ranges.get(0).getLowerBound().getValue() < GradeScheme.ceiling);
+    }
+
+    /**
+     * Unit test fit with a gap of one point on whole-number totals.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input              Output               Remarks
+     * ====================================================================
+     *   1      A 15%, B 30%       A 15, B 30, F 55     Plus and minus
+     *          totals 0 to 99                          letters empty
+     *   2      Ten at 95%, ten    A 10, B 10           Empty letters fit
+     *          at 85%, A 50%,                          between the ties
+     *          B 50%
+     *                                                  </pre>
+     */
+    @Test
+    public void testEmptyLetters() {
+        double[] totals = new double[100];
+        for (int i = 0; i < totals.length; i++)
+            totals[i] = 99 - i;
+        GradeScheme base = new GradeScheme();
+        EnumMap<LetterGrade, Double> target = new EnumMap<LetterGrade, Double>(LetterGrade.class);
+        target.put(LetterGrade.A, 15.0);
+        target.put(LetterGrade.B, 30.0);
+        GradeScheme fitted = CurveFitter.fit(base, totals, target, 1.0);
+        int[] counts = count(fitted, totals);
+        for (LetterGrade letter : LetterGrade.values()) {
+            if (letter == LetterGrade.SIZE)
+                continue;
+            int expected = letter == LetterGrade.A ? 15
+                    : letter == LetterGrade.B ? 30
+                    : letter == LetterGrade.F ? 55 : 0;
+            assertEquals(letter.toString(), expected, counts[letter.ordinal()]);
+        }
+        assertEquals(85.0, fitted.ranges.get(LetterGrade.A.ordinal()).getLowerBound().getValue(), 1e-9);
+        assertEquals(55.0, fitted.ranges.get(LetterGrade.B.ordinal()).getLowerBound().getValue(), 1e-9);
+        assertOrdered(fitted);
+
+        totals = new double[20];
+        for (int i = 0; i < totals.length; i++)
+            totals[i] = i < 10 ? 95.0 : 85.0;
+        target.put(LetterGrade.A, 50.0);
+        target.put(LetterGrade.B, 50.0);
+        fitted = CurveFitter.fit(base, totals, target, 1.0);
+        counts = count(fitted, totals);
+        assertEquals(0, counts[LetterGrade.A_PLUS.ordinal()]);
+        assertEquals(10, counts[LetterGrade.A.ordinal()]);
+        assertEquals(0, counts[LetterGrade.A_MINUS.ordinal()]);
+        assertEquals(0, counts[LetterGrade.B_PLUS.ordinal()]);
+        assertEquals(10, counts[LetterGrade.B.ordinal()]);
+        assertEquals(0, counts[LetterGrade.F.ordinal()]);
+        assertOrdered(fitted);
+    }
+
+    /**
+     * Unit test that invalid targets and gaps are rejected.
+     */
+    @Test
+    public void testInvalid() {
+        GradeScheme base = new GradeScheme();
+        EnumMap<LetterGrade, Double> target = new EnumMap<LetterGrade, Double>(LetterGrade.class);
+        target.put(LetterGrade.A, 60.0);
+        target.put(LetterGrade.B, 60.0);
+        try {
+            CurveFitter.fit(base, new double[] {50.0}, target, 1.0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        target.put(LetterGrade.B, -1.0);
+        try {
+            CurveFitter.fit(base, new double[] {50.0}, target, 1.0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        target.put(LetterGrade.B, 10.0);
+        try {
+            CurveFitter.fit(base, new double[] {50.0}, target, 10.0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static int[] count(GradeScheme scheme, double[] totals) {
+        int[] counts = new int[LetterGrade.SIZE.ordinal()];
+        for (int letter : scheme.classify(totals))
+            counts[letter]++;
+        return counts;
+    }
+
+    private static void assertOrdered(GradeScheme scheme) {
+        for (int i = 1; i < scheme.ranges.size(); i++)
+            assertTrue(scheme.ranges.get(i).getLowerBound().getValue()
+                    < scheme.ranges.get(i - 1).getLowerBound().getValue());
+        assertEquals(0.0, scheme.ranges.get(scheme.ranges.size() - 1).getLowerBound().getValue(), 0.0);
+    }
+}
@@ -0,0 +1,108 @@
+package grader.tests;
+
+import grader.model.curve.CurveSimulator;
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.items.Percentage;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The CurveSimulatorTest class is the companion testing class for the
+ * CurveSimulator class. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test the distribution, mean GPA, and changed grades for
+ *             a small hand-checked roster.
+ *
+ *    Phase 2: Unit test a batch of random candidates against classifying
+ *             every total one at a time.
+ *	                                       								 </pre>
+ */
+public class CurveSimulatorTest {
+
+    /**
+     * Unit test simulate on four students.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input              Output                  Remarks
+     * ====================================================================
+     *   1      Default scheme     A+ 1, B+ 1, B 1, F 1    No grades change
+     *
+     *   2      A- to 88%          A+ 1, A- 1, B 1, F 1    89% moves from
+     *                                                     B+ to A-
+     *                                                  </pre>
+     */
+    @Test
+    public void testSimulate() {
+        double[] totals = {89.0, 98.0, 50.0, 84.0};
+        GradeScheme baseline = new GradeScheme();
+        CurveSimulator simulator = new CurveSimulator(totals, baseline);
+        assertEquals(89.0, totals[0], 0.0);
+        assertEquals(4, simulator.size());
+
+        CurveSimulator.Result same = simulator.simulate(baseline);
+        assertEquals(1, same.getCount(LetterGrade.A_PLUS));
+        assertEquals(1, same.getCount(LetterGrade.B_PLUS));
+        assertEquals(1, same.getCount(LetterGrade.B));
+        assertEquals(1, same.getCount(LetterGrade.F));
+        assertEquals((4.0 + 3.3 + 3.0 + 0.0) / 4, same.getMeanGpa(), 1e-9);
+        assertEquals(0, same.getChanged());
+
+        GradeScheme lower = baseline.copy();
+        lower.shiftGradeRange(LetterGrade.A_MINUS, new Percentage(88.0), 1.0);
+        CurveSimulator.Result result = simulator.simulate(lower);
+        assertEquals(1, result.getCount(LetterGrade.A_MINUS));
+        assertEquals(1, result.getCount(LetterGrade.B));
+        assertEquals(1, result.getChanged());
+        assertEquals((4.0 + 3.7 + 3.0 + 0.0) / 4, result.getMeanGpa(), 1e-9);
+        assertSame(lower, result.getScheme());
+    }
+
+    /**
+     * Unit test a batch of random candidate schemes over random totals,
+     * checking every result against GradeScheme.classify.
+     */
+    @Test
+    public void testBatch() {
+        Random random = new Random(16);
+        double[] totals = new double[500];
+        for (int i = 0; i < totals.length; i++)
+            totals[i] = Math.round(random.nextDouble() * 1050) / 10.0;
+        GradeScheme baseline = new GradeScheme();
+        int[] before = baseline.classify(totals);
+
+        List<GradeScheme> candidates = new ArrayList<GradeScheme>();
+        for (int i = 0; i < 200; i++) {
+            GradeScheme candidate = baseline.copy();
+            LetterGrade letter = LetterGrade.values()[random.nextInt(12)];
+            candidate.shiftGradeRange(letter,
+                    new Percentage(random.nextDouble() * 100), 0.5);
+            candidates.add(candidate);
+        }
+
+        List<CurveSimulator.Result> results =
+                new CurveSimulator(totals, baseline).simulate(candidates);
+        assertEquals(candidates.size(), results.size());
+        for (CurveSimulator.Result result : results) {
+            int[] after = result.getScheme().classify(totals);
+            int[] counts = new int[LetterGrade.SIZE.ordinal()];
+            int changed = 0;
+            double points = 0;
+            for (int i = 0; i < totals.length; i++) {
+                counts[after[i]]++;
+                points += LetterGrade.values()[after[i]].gradePoints;
+                if (after[i] != before[i])
+                    changed++;
+            }
+            assertArrayEquals(counts, result.getCounts());
+            assertEquals(changed, result.getChanged());
+            assertEquals(points / totals.length, result.getMeanGpa(), 1e-9);
+        }
+    }
+}
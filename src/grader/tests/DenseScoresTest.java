@@ -0,0 +1,158 @@
+package grader.tests;
+
+import grader.model.gradebook.scores.DenseScores;
+import grader.model.gradebook.scores.RawScore;
+import grader.model.items.Assignment;
+import grader.model.people.Name;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * The DenseScoresTest class is the companion testing class for the
+ * DenseScores matrix. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test adding, updating, and retrieving raw scores.
+ *
+ *    Phase 2: Unit test the score map views and their write-through.
+ *
+ *    Phase 3: Unit test the primitive row and column accessors.
+ *
+ *    Phase 4: Unit test copying the whole matrix and a subset of students,
+ *             including copy-on-write row sharing.
+ *	                                       								 </pre>
+ */
+public class DenseScoresTest {
+    private static final double DELTA = 1e-12;
+
+    private DenseScores scores;
+    private Student alice, bob;
+    private Assignment quiz, midterm;
+
+    /**
+     * Sets up a two by two matrix of scores.
+     */
+    @Before
+    public void setUp() throws Exception {
+        alice = new Student(new Name("Alice", "", "Adams"));
+        bob = new Student(new Name("Bob", "", "Brown"));
+        quiz = new Assignment("Quiz");
+        midterm = new Assignment("Midterm");
+
+        scores = new DenseScores();
+        scores.addRawScore(alice, quiz, 10.0);
+        scores.addRawScore(alice, midterm, 80.0);
+        scores.addRawScore(bob, quiz, 6.0);
+        scores.addRawScore(bob, midterm, 70.0);
+    }
+
+    /**
+     * 1. Test adding, updating, removing, and averaging scores.
+     */
+    @Test
+    public void testRawScores() {
+        assertEquals(10.0, scores.getRawScore(alice, quiz), DELTA);
+        assertEquals(70.0, scores.getRawScore(bob, midterm), DELTA);
+
+        scores.updateRawScore(bob, quiz, 9.0);
+        assertEquals(9.0, scores.getRawScore(bob, quiz), DELTA);
+        assertEquals(9.5, scores.getAverageScore(quiz), DELTA);
+
+        scores.removeRawScore(bob, quiz);
+        assertEquals(0.0, scores.getRawScore(bob, quiz), DELTA);
+        assertEquals(10.0, scores.getAverageScore(quiz), DELTA);
+        assertEquals(1, scores.getScores(quiz).size());
+
+        // unknown students and assignments score zero
+        assertEquals(0.0, scores.getRawScore(alice, new Assignment("Final")), DELTA);
+    }
+
+    /**
+     * 2. Test that score maps write through to the matrix.
+     */
+    @Test
+    public void testScoresMap() {
+        HashMap<Assignment, RawScore> map = scores.getScoresMap(alice);
+        assertEquals(2, map.size());
+        assertSame(alice, map.get(quiz).getStudent());
+        assertSame(quiz, map.get(quiz).getAssignment());
+
+        map.get(quiz).setScore(4.0);
+        assertEquals(4.0, scores.getRawScore(alice, quiz), DELTA);
+
+        scores.updateRawScore(alice, midterm, 90.0);
+        assertEquals(90.0, map.get(midterm).getScore(), DELTA);
+
+        assertNull(scores.getScoresMap(new Student(alice.name)));
+    }
+
+    /**
+     * 3. Test the primitive row and column accessors.
+     */
+    @Test
+    public void testRowsAndColumns() {
+        int quizColumn = scores.getAssignmentOrdinal(quiz);
+        int midtermColumn = scores.getAssignmentOrdinal(midterm);
+        int bobRow = scores.getStudentOrdinal(bob);
+
+        double[] row = scores.getRow(bob);
+        assertEquals(6.0, row[quizColumn], DELTA);
+        assertEquals(70.0, row[midtermColumn], DELTA);
+        assertEquals(70.0, scores.getRawScore(bobRow, midtermColumn), DELTA);
+
+        double[] column = scores.getColumn(midterm);
+        assertEquals(80.0, column[scores.getStudentOrdinal(alice)], DELTA);
+        assertEquals(70.0, column[bobRow], DELTA);
+
+        // a new assignment widens the matrix without disturbing old cells
+        Assignment project = new Assignment("Project");
+        scores.addRawScore(bob, project, 50.0);
+        assertEquals(3, scores.getRow(alice).length);
+        assertEquals(0.0, scores.getRow(alice)[scores.getAssignmentOrdinal(project)], DELTA);
+        assertEquals(50.0, scores.getRawScore(bob, project), DELTA);
+        assertEquals(6.0, scores.getRawScore(bob, quiz), DELTA);
+    }
+
+    /**
+     * 4. Test that copies are independent of the original.
+     */
+    @Test
+    public void testCopy() {
+        DenseScores copy = scores.copy();
+        copy.updateRawScore(alice, quiz, 1.0);
+        assertEquals(10.0, scores.getRawScore(alice, quiz), DELTA);
+        assertEquals(1.0, copy.getRawScore(alice, quiz), DELTA);
+
+        DenseScores scoped = scores.copy(Arrays.asList(bob));
+        assertEquals(1, scoped.getStudents().size());
+        assertNull(scoped.getScoresMap(alice));
+        assertEquals(70.0, scoped.getRawScore(bob, midterm), DELTA);
+        scoped.updateRawScore(bob, midterm, 0.0);
+        assertEquals(70.0, scores.getRawScore(bob, midterm), DELTA);
+    }
+
+    /**
+     * 4. Test that writes to the original after a copy are not seen by the
+     * copy, even though the copy shares the original's rows.
+     */
+    @Test
+    public void testCopyOnWrite() {
+        DenseScores scoped = scores.copy(Arrays.asList(alice, bob));
+        HashMap<Assignment, RawScore> view = scoped.getScoresMap(alice);
+
+        scores.updateRawScore(alice, quiz, 2.0);
+        scores.removeRawScore(bob, midterm);
+        assertEquals(10.0, scoped.getRawScore(alice, quiz), DELTA);
+        assertEquals(10.0, view.get(quiz).getScore(), DELTA);
+        assertEquals(70.0, scoped.getRawScore(bob, midterm), DELTA);
+
+        view.get(midterm).setScore(85.0);
+        assertEquals(85.0, scoped.getRawScore(alice, midterm), DELTA);
+        assertEquals(80.0, scores.getRawScore(alice, midterm), DELTA);
+    }
+}
@@ -0,0 +1,219 @@
+package grader.tests;
+
+import grader.model.gradebook.Course;
+import grader.model.gradebook.Section;
+import grader.model.gradebook.WorkSpace;
+import grader.model.gradebook.events.EventBus;
+import grader.model.gradebook.events.GradeSchemeChanged;
+import grader.model.gradebook.events.RosterChanged;
+import grader.model.gradebook.events.ScopeChanged;
+import grader.model.gradebook.events.ScoreChanged;
+import grader.model.gradebook.events.ScoresChanged;
+import grader.model.gradebook.events.StudentSelected;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
+import grader.model.items.Assignment;
+import grader.model.people.Student;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The EventBusTest class is the companion testing class for the EventBus
+ * and the events the WorkSpace publishes on it. It implements the following
+ * module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test delivering events to the listeners of their type
+ *             and its superclasses, in order.
+ *
+ *    Phase 2: Unit test unsubscribing, including while an event is being
+ *             delivered.
+ *
+ *    Phase 3: Unit test the events the WorkSpace publishes for each kind
+ *             of change, and that a grade edit reaches no listener of the
+ *             scope or roster.
+ *	                                       								 </pre>
+ */
+public class EventBusTest {
+    /**
+     * Listener that records each event it hears of, with a tag.
+     */
+    private static class Recorder implements WorkSpaceListener<WorkSpaceEvent> {
+        private final String tag;
+        private final List<String> log;
+        final List<WorkSpaceEvent> heard = new ArrayList<WorkSpaceEvent>();
+
+        Recorder(String tag, List<String> log) {
+            this.tag = tag;
+            this.log = log;
+        }
+
+        @Override
+        public void handle(WorkSpaceEvent event) {
+            heard.add(event);
+            log.add(tag);
+        }
+    }
+
+    private List<String> log;
+    private WorkSpace workspace;
+    private Recorder all, sidebar;
+    private List<Student> students;
+    private Assignment assignment;
+
+    /**
+     * Scopes the workspace to the first section of the canned gradebook
+     * and subscribes a listener to every event and one to the sidebar's.
+     */
+    @Before
+    public void setUp() {
+        log = new ArrayList<String>();
+        workspace = WorkSpace.instance;
+        Course course = workspace.getGradebook().courses.get(0);
+        Section section = course.sections.get(0);
+        workspace.sidebarSelect(course, section, null);
+        workspace.revertGrades();
+        students = workspace.getStudents();
+        assignment = workspace.getAssignmentTree().getAssignments().get(0);
+
+        all = new Recorder("all", log);
+        sidebar = new Recorder("sidebar", log);
+        workspace.getEventBus().subscribe(WorkSpaceEvent.class, all);
+        workspace.getEventBus().subscribe(ScopeChanged.class, sidebar);
+        workspace.getEventBus().subscribe(RosterChanged.class, sidebar);
+    }
+
+    /**
+     * Leaves the workspace as it was found.
+     */
+    @After
+    public void tearDown() {
+        workspace.getEventBus().unsubscribeAll(all);
+        workspace.getEventBus().unsubscribeAll(sidebar);
+        workspace.revertGrades();
+    }
+
+    /**
+     * Phase 1: delivery by type, in order.
+     */
+    @Test
+    public void testDelivery() {
+        EventBus bus = new EventBus();
+        Recorder scores = new Recorder("scores", log);
+        Recorder score = new Recorder("score", log);
+        Recorder any = new Recorder("any", log);
+        Recorder first = new Recorder("first", log);
+        bus.subscribe(WorkSpaceEvent.class, any);
+        bus.subscribe(ScoresChanged.class, scores);
+        bus.subscribe(ScoreChanged.class, score);
+        bus.subscribe(ScoreChanged.class, first);
+
+        bus.publish(new ScoreChanged(null));
+        assertEquals(Arrays.asList("score", "first", "scores", "any"), log);
+
+        log.clear();
+        bus.publish(new ScoresChanged());
+        assertEquals(Arrays.asList("scores", "any"), log);
+
+        log.clear();
+        bus.publish(new StudentSelected(null));
+        assertEquals(Arrays.asList("any"), log);
+
+        assertEquals(2, bus.getListeners(ScoreChanged.class).size());
+        assertTrue(bus.getListeners(ScopeChanged.class).isEmpty());
+    }
+
+    /**
+     * Phase 2: unsubscribing.
+     */
+    @Test
+    public void testUnsubscribe() {
+        final EventBus bus = new EventBus();
+        final Recorder later = new Recorder("later", log);
+        WorkSpaceListener<WorkSpaceEvent> remover = new WorkSpaceListener<WorkSpaceEvent>() {
+            @Override
+            public void handle(WorkSpaceEvent event) {
+                log.add("remover");
+                bus.unsubscribe(ScopeChanged.class, later);
+            }
+        };
+        bus.subscribe(ScopeChanged.class, remover);
+        bus.subscribe(ScopeChanged.class, later);
+        bus.subscribe(GradeSchemeChanged.class, later);
+
+        // the change takes effect from the next event
+        bus.publish(new ScopeChanged(null, null, null));
+        assertEquals(Arrays.asList("remover", "later"), log);
+        log.clear();
+        bus.publish(new ScopeChanged(null, null, null));
+        assertEquals(Arrays.asList("remover"), log);
+
+        log.clear();
+        bus.publish(new GradeSchemeChanged(null, false));
+        assertEquals(Arrays.asList("later"), log);
+        bus.unsubscribeAll(later);
+        bus.unsubscribe(ScopeChanged.class, later);
+        log.clear();
+        bus.publish(new GradeSchemeChanged(null, false));
+        assertTrue(log.isEmpty());
+    }
+
+    /**
+     * Phase 3: the events the WorkSpace publishes.
+     */
+    @Test
+    public void testWorkSpaceEvents() {
+        Student student = students.get(0);
+        double old = workspace.getScores().getRawScore(student, assignment);
+
+        workspace.updateGrade(student, assignment, old + 1);
+        assertEquals(1, all.heard.size());
+        ScoreChanged edit = (ScoreChanged) all.heard.get(0);
+        assertSame(student, edit.getStudent());
+        assertSame(assignment, edit.getAssignment());
+        assertEquals(old, edit.getOldScore(), 0.0);
+        assertEquals(old + 1, edit.getNewScore(), 0.0);
+
+        workspace.undo();
+        ScoreChanged undone = (ScoreChanged) all.heard.get(1);
+        assertEquals(old + 1, undone.getOldScore(), 0.0);
+        assertEquals(old, undone.getNewScore(), 0.0);
+        workspace.redo();
+        assertTrue(all.heard.get(2) instanceof ScoreChanged);
+
+        workspace.batchGrade(students.get(1), assignment, 1.0);
+        workspace.batchGrade(students.get(2), assignment, 2.0);
+        workspace.endBatch();
+        assertEquals(4, all.heard.size());
+        assertEquals(ScoresChanged.class, all.heard.get(3).getClass());
+
+        workspace.setSelectedStudent(student);
+        StudentSelected selected = (StudentSelected) all.heard.get(4);
+        assertSame(student, selected.getStudent());
+
+        // none of these reach the sidebar
+        assertTrue(sidebar.heard.isEmpty());
+
+        workspace.setGradeSchemeChanged();
+        GradeSchemeChanged scheme = (GradeSchemeChanged) all.heard.get(5);
+        assertSame(workspace.getGradeScheme(), scheme.getGradeScheme());
+        assertFalse(scheme.isCommitted());
+
+        workspace.revertGrades();
+        assertEquals(ScoresChanged.class, all.heard.get(6).getClass());
+
+        workspace.update();
+        ScopeChanged scope = (ScopeChanged) all.heard.get(7);
+        assertSame(workspace.getCourse(), scope.getCourse());
+        assertSame(workspace.getSection(), scope.getSection());
+        assertNull(scope.getGroup());
+        assertEquals(1, sidebar.heard.size());
+        assertSame(scope, sidebar.heard.get(0));
+    }
+}
@@ -0,0 +1,229 @@
+package grader.tests;
+
+import grader.model.edit.Find;
+import grader.model.edit.SearchIndex;
+import grader.model.gradebook.Course;
+import grader.model.gradebook.Gradebook;
+import grader.model.gradebook.Section;
+import grader.model.items.Assignment;
+import grader.model.people.Name;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The FindTest class is the companion testing class for the Find and
+ * SearchIndex classes. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test SearchIndex on short and long queries, ignoring
+ *             case, re-adding and removing items, and rebuilding once
+ *             most ids are removed.
+ *
+ *    Phase 2: Unit test finding students and assignments by course.
+ *
+ *    Phase 3: Unit test keeping the index current as students and
+ *             assignments are added or edited.
+ *
+ *    Phase 4: Unit test a large roster against a plain scan.
+ *	                                       								 </pre>
+ */
+public class FindTest {
+    private Gradebook gradebook;
+    private Course cpe309, cpe357;
+    private Section section1, section2;
+    private Student jane, john, mary;
+    private Assignment project, midterm, lab;
+    private Find find;
+
+    /**
+     * Sets up a gradebook of two courses, one with two sections.
+     */
+    @Before
+    public void setUp() throws Exception {
+        gradebook = new Gradebook();
+        cpe309 = new Course("CPE 309");
+        cpe357 = new Course("CPE 357");
+        section1 = new Section("01");
+        section2 = new Section("02");
+        cpe309.addSection(section1);
+        cpe309.addSection(section2);
+        Section other = new Section("01");
+        cpe357.addSection(other);
+        gradebook.addCourse(cpe309);
+        gradebook.addCourse(cpe357);
+
+        TestRoster people = new TestRoster();
+        jane = people.jane;
+        john = people.john;
+        mary = people.mary;
+        section1.addStudent(jane);
+        section2.addStudent(john);
+        other.addStudent(mary);
+        // enrolled in both courses
+        other.addStudent(jane);
+
+        project = new Assignment("Project 1");
+        midterm = new Assignment("Midterm");
+        lab = new Assignment("Lab 1");
+        cpe309.addAssignment(null, project);
+        cpe309.addAssignment(null, midterm);
+        cpe357.addAssignment(null, lab);
+
+        find = new Find(gradebook);
+    }
+
+    /**
+     * Phase 1: SearchIndex queries, re-adding, and removing.
+     */
+    @Test
+    public void testSearchIndex() {
+        SearchIndex<String> index = new SearchIndex<String>();
+        index.add("a", "Alexander", "amiller");
+        index.add("b", "Alexandra", null, "");
+        index.add("c", "Xander");
+
+        assertEquals(3, index.find("").size());
+        assertEquals(3, index.find("x").size());
+        assertEquals(3, index.find("AND").size());
+        assertEquals(2, index.find("alexand").size());
+        assertEquals(1, index.find("alexander").size());
+        assertEquals("a", index.find("MILL").get(0));
+        assertTrue(index.find("zz").isEmpty());
+        assertTrue(index.find("xandera").isEmpty());
+        // every trigram is present but not in one key
+        assertTrue(index.find("andermil").isEmpty());
+
+        index.add("a", "Zed");
+        assertEquals(3, index.size());
+        assertTrue(index.find("mill").isEmpty());
+        assertEquals("a", index.find("zed").get(0));
+
+        assertTrue(index.remove("c"));
+        assertFalse(index.remove("c"));
+        assertFalse(index.contains("c"));
+        assertEquals(2, index.size());
+        assertEquals(1, index.find("xand").size());
+
+        // editing an item over and over does not grow the index for good
+        for (int i = 0; i < 1000; i++) {
+            index.add("b", "Alexandra", "edit" + i);
+        }
+        assertTrue(index.getIdCount() <= 40);
+        assertEquals(2, index.size());
+        assertEquals(1, index.find("edit999").size());
+        assertTrue(index.find("edit998").isEmpty());
+        // rebuilding keeps the items in the order they were added
+        assertEquals("a", index.find("").get(0));
+        assertEquals("b", index.find("").get(1));
+
+        // removing items without adding them back also compacts
+        String[] added = new String[100];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = "item" + i;
+            index.add(added[i], "Item " + i);
+        }
+        for (String item : added) {
+            assertTrue(index.remove(item));
+        }
+        assertTrue(index.getIdCount() <= 40);
+        assertEquals(2, index.size());
+        assertEquals(1, index.find("xand").size());
+        assertTrue(index.find("item").isEmpty());
+    }
+
+    /**
+     * Phase 2: finding students and assignments, in one course or all.
+     */
+    @Test
+    public void testFind() {
+        Collection<Student> found = find.findStudents("john", "CPE 309");
+        assertEquals(1, found.size());
+        assertTrue(found.contains(john));
+
+        found = find.findStudents("john", null);
+        assertEquals(2, found.size());
+        assertTrue(found.contains(mary));
+
+        found = find.findStudents("jane doe", null);
+        assertEquals(1, found.size());
+        assertTrue(found.contains(jane));
+
+        assertTrue(find.findStudents("quinn", "CPE 357").contains(jane));
+        assertTrue(find.findStudents("JDOE", "CPE 309").contains(jane));
+        assertTrue(find.findStudents("jane", "CPE 101").isEmpty());
+
+        Collection<Assignment> assignments = find.findAssignments("1", null);
+        assertEquals(2, assignments.size());
+        assertTrue(assignments.contains(project));
+        assertTrue(assignments.contains(lab));
+        assertEquals(1, find.findAssignments("term", "CPE 309").size());
+        assertTrue(find.findAssignments("lab", "CPE 309").isEmpty());
+    }
+
+    /**
+     * Phase 3: keeping the index current.
+     */
+    @Test
+    public void testUpdates() throws Exception {
+        assertTrue(find.findStudents("lee", null).isEmpty());
+
+        Student lee = new Student(new Name("Ann", "", "Lee"), "alee", "");
+        section2.addStudent(lee);
+        find.studentAdded(cpe309, lee);
+        assertTrue(find.findStudents("lee", "CPE 309").contains(lee));
+
+        // added without telling the index, which rebuilds on the count change
+        Student kim = new Student(new Name("Kim", "", "Park"), "kpark", "");
+        section1.addStudent(kim);
+        assertTrue(find.findStudents("park", null).contains(kim));
+
+        Assignment quiz = new Assignment("Quiz 1");
+        cpe357.addAssignment(null, quiz);
+        find.assignmentAdded(cpe357, quiz);
+        assertEquals(2, find.findAssignments("1", "CPE 357").size());
+
+        john.editStudentInfo(new Name("Jon", "", "Smyth"), "jsmyth", "");
+        find.studentChanged(john);
+        assertTrue(find.findStudents("smith", null).isEmpty());
+        assertTrue(find.findStudents("smyth", null).contains(john));
+    }
+
+    /**
+     * Phase 4: a large roster gives the same results as a plain scan.
+     */
+    @Test
+    public void testLargeRoster() throws Exception {
+        Random random = new Random(309);
+        Section big = new Section("03");
+        cpe309.addSection(big);
+        List<Student> roster = new ArrayList<Student>();
+        roster.add(jane);
+        roster.add(john);
+        for (int i = 0; i < 5000; i++) {
+            Student student = new Student(new Name(TestRoster.word(random), "",
+                    TestRoster.word(random)), TestRoster.word(random), "");
+            big.addStudent(student);
+            roster.add(student);
+        }
+
+        String[] queries = {"a", "ab", "abc", "bcd", "aabb", "cdab", "abcab"};
+        for (String query : queries) {
+            List<Student> expected = new ArrayList<Student>();
+            for (Student student : roster) {
+                if (student.name.toString().toLowerCase().contains(query)
+                        || student.userID.toLowerCase().contains(query))
+                    expected.add(student);
+            }
+            Collection<Student> found = find.findStudents(query, "CPE 309");
+            assertEquals(query, expected.size(), found.size());
+            assertTrue(query, found.containsAll(expected));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package grader.tests;
+
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.gradebook.scores.DenseScores;
+import grader.model.gradebook.scores.GradeForecast;
+import grader.model.items.Assignment;
+import grader.model.items.AssignmentTree;
+import grader.model.people.Name;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The GradeForecastTest class is the companion testing class for the
+ * GradeForecast class. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test forecasts that are certain: fully graded students
+ *             and assignments the whole class scored the same on.
+ *
+ *    Phase 2: Unit test a forecast with no history against the exact
+ *             chance of each outcome.
+ *
+ *    Phase 3: Unit test that a large roster, split across threads, is
+ *             repeatable for a fixed seed.
+ *	                                       								 </pre>
+ */
+public class GradeForecastTest {
+    private static final double DELTA = 1e-12;
+
+    private AssignmentTree tree;
+    private Assignment hw1, hw2;
+    private Student alice, bob, carol;
+    private List<Student> students;
+    private DenseScores scores;
+    private GradeScheme scheme;
+
+    /**
+     * Sets up two homework assignments worth 10 points each.
+     */
+    @Before
+    public void setUp() throws Exception {
+        TestCourse course = new TestCourse();
+        tree = course.tree;
+        hw1 = course.hw1;
+        hw2 = course.hw2;
+        scores = course.scores;
+
+        alice = TestCourse.student("Alice", "Adams");
+        bob = TestCourse.student("Bob", "Brown");
+        carol = TestCourse.student("Carol", "Clark");
+        students = new ArrayList<Student>();
+        students.add(alice);
+        students.add(bob);
+        students.add(carol);
+        scheme = new GradeScheme();
+    }
+
+    /**
+     * 1. Test that certain outcomes get a chance of one.
+     */
+    @Test
+    public void testCertain() {
+        scores.addRawScore(alice, hw1, 10.0);
+        scores.addRawScore(bob, hw1, 8.0);
+        scores.addRawScore(bob, hw2, 10.0);
+        scores.addRawScore(carol, hw1, 6.0);
+        scores.addRawScore(carol, hw2, 10.0);
+
+        GradeForecast forecast = new GradeForecast(tree.getGradingPlan(),
+                scores, students, scheme, 1000, 19);
+        assertEquals(1.0, forecast.getProbability(bob, LetterGrade.A_MINUS), DELTA);
+        assertEquals(1.0, forecast.getProbability(carol, LetterGrade.B_MINUS), DELTA);
+        assertEquals(1.0, forecast.getProbability(alice, LetterGrade.A_PLUS), DELTA);
+        assertEquals(0.0, forecast.getProbabilityBelow(alice, LetterGrade.A_PLUS), DELTA);
+        assertEquals(1.0, forecast.getProbabilityBelow(carol, LetterGrade.B), DELTA);
+        assertEquals(1000, forecast.getTrials());
+
+        Student dave = new Student(new Name("Dave", "", "Drake"));
+        assertNull(forecast.getProbabilities(dave));
+        assertTrue(Double.isNaN(forecast.getProbability(dave, LetterGrade.A)));
+    }
+
+    /**
+     * 2. Test that with nothing graded, each score is drawn uniformly.  The
+     * total is 50 times the sum of two uniform draws, so it falls below 60%
+     * with chance 1 - 0.8 * 0.8 / 2.
+     */
+    @Test
+    public void testNoHistory() {
+        GradeForecast forecast = new GradeForecast(tree.getGradingPlan(),
+                scores, students, scheme, 20000, 19);
+        assertEquals(0.68, forecast.getProbability(alice, LetterGrade.F), 0.02);
+        double sum = 0.0;
+        for (double p : forecast.getProbabilities(alice))
+            sum += p;
+        assertEquals(1.0, sum, 1e-9);
+    }
+
+    /**
+     * 3. Test that a roster large enough to split gives the same forecast
+     * every time for the same seed, and that students who have done better
+     * so far are forecast to do better.
+     */
+    @Test
+    public void testRepeatable() {
+        Random random = new Random(19);
+        List<Student> roster = new ArrayList<Student>();
+        for (int i = 0; i < 200; i++) {
+            String first = "" + (char) ('A' + i / 26) + (char) ('a' + i % 26);
+            Student student = new Student(new Name(first, "", "Test"));
+            roster.add(student);
+            scores.addRawScore(student, hw1, random.nextInt(11));
+            if (i % 2 == 0)
+                scores.addRawScore(student, hw2, random.nextInt(11));
+        }
+        Student strong = roster.get(1);
+        Student weak = roster.get(3);
+        scores.updateRawScore(strong, hw1, 10.0);
+        scores.updateRawScore(weak, hw1, 1.0);
+
+        GradeForecast first = new GradeForecast(tree.getGradingPlan(),
+                scores, roster, scheme, 2000, 7);
+        GradeForecast second = new GradeForecast(tree.getGradingPlan(),
+                scores, roster, scheme, 2000, 7);
+        for (Student student : roster)
+            assertArrayEquals(first.getProbabilities(student),
+                    second.getProbabilities(student), 0.0);
+        assertTrue(first.getProbabilityBelow(weak, LetterGrade.C)
+                > first.getProbabilityBelow(strong, LetterGrade.C));
+    }
+}
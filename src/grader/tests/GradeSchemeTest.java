@@ -1,6 +1,7 @@
 package grader.tests;
 
 import grader.model.errors.OverlappingRangeException;
+import grader.model.gradebook.gradescheme.GradeRange;
 import grader.model.gradebook.gradescheme.GradeScheme;
 import grader.model.gradebook.gradescheme.LetterGrade;
 import grader.model.items.Percentage;
@@ -25,6 +26,13 @@ import static org.junit.Assert.*;
  *    Phase 5: Unit test toString.
  *
  *    Phase 6: Repeat phases 1 through 5.
+ *
+ *    Phase 7: Unit test shiftGradeRange cascading and clamping.
+ *
+ *    Phase 8: Unit test classify against a linear scan of the ranges,
+ *             after bound changes, and on copies.
+ *
+ *    Phase 9: Unit test setLowerBounds ordering rules.
  *	                                       								 </pre>
  *	  @author Tobias Bleisch
  */
@@ -258,8 +266,200 @@ public class GradeSchemeTest {
     @Test
     public void testCopy() {
         GradeScheme gradeScheme = new GradeScheme();
-        assertEquals(gradeScheme.ranges, gradeScheme.copy().ranges);
+        assertSameRanges(gradeScheme, gradeScheme.copy());
         gradeScheme.ranges.get(0).setColor(new Color(.1, .2, .3, .4));
-        assertEquals(gradeScheme.ranges, gradeScheme.copy().ranges);
+        assertSameRanges(gradeScheme, gradeScheme.copy());
+
+        GradeScheme copy = gradeScheme.copy();
+        copy.shiftGradeRange(LetterGrade.B, new Percentage(85.0), 1.0);
+        assertBound(gradeScheme, LetterGrade.B, 83.0);
+        assertEquals(LetterGrade.B_MINUS.ordinal(), gradeScheme.classify(82.0));
+        assertEquals(LetterGrade.B_MINUS.ordinal(), copy.classify(84.0));
+    }
+
+    /**
+     * Checks that a copy has distinct ranges with the same fields.
+     */
+    private static void assertSameRanges(GradeScheme expected, GradeScheme copy) {
+        assertEquals(expected.ranges.size(), copy.ranges.size());
+        for (int i = 0; i < expected.ranges.size(); i++) {
+            GradeRange range = expected.ranges.get(i);
+            GradeRange copied = copy.ranges.get(i);
+            assertNotSame(range, copied);
+            assertEquals(range.getLowerBound(), copied.getLowerBound());
+            assertEquals(range.getLetterGrade(), copied.getLetterGrade());
+            assertEquals(range.getColor(), copied.getColor());
+        }
+    }
+
+    /**
+     * Unit test shiftGradeRange, which pushes neighboring ranges along
+     * instead of throwing an OverlappingRangeException.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input           Output                     Remarks
+     * ====================================================================
+     *   1      B to 88%        B+ 89%, A- 90%, A 93%      Cascade upward
+     *                                                     stops at A
+     *   2      C+ to 71.5%     C 71%, C- 70%              Fractional gap of
+     *                                                     0.5 stops at C-
+     *   3      A to 1%         A 11%, F 0%                Clamped so the ten
+     *                                                     ranges below fit
+     *   4      D- to 99.9%     A+ 99%, D- 88%             Clamped below the
+     *                                                     ceiling
+     *                                       </pre>
+     */
+    @Test
+    public void testShiftGradeRange() {
+        GradeScheme gradeScheme = new GradeScheme();
+        gradeScheme.shiftGradeRange(LetterGrade.B, new Percentage(88.0), 1.0);
+        assertBound(gradeScheme, LetterGrade.B, 88.0);
+        assertBound(gradeScheme, LetterGrade.B_PLUS, 89.0);
+        assertBound(gradeScheme, LetterGrade.A_MINUS, 90.0);
+        assertBound(gradeScheme, LetterGrade.A, 93.0);
+        assertBound(gradeScheme, LetterGrade.B_MINUS, 80.0);
+
+        gradeScheme = new GradeScheme();
+        gradeScheme.shiftGradeRange(LetterGrade.C_PLUS, new Percentage(71.5), 0.5);
+        assertBound(gradeScheme, LetterGrade.C_PLUS, 71.5);
+        assertBound(gradeScheme, LetterGrade.C, 71.0);
+        assertBound(gradeScheme, LetterGrade.C_MINUS, 70.0);
+
+        gradeScheme = new GradeScheme();
+        gradeScheme.shiftGradeRange(LetterGrade.A, new Percentage(1.0), 1.0);
+        assertBound(gradeScheme, LetterGrade.A, 11.0);
+        assertBound(gradeScheme, LetterGrade.D_MINUS, 1.0);
+        assertBound(gradeScheme, LetterGrade.F, 0.0);
+        assertBound(gradeScheme, LetterGrade.A_PLUS, 97.0);
+
+        gradeScheme = new GradeScheme();
+        gradeScheme.shiftGradeRange(LetterGrade.D_MINUS, new Percentage(99.9), 1.0);
+        assertBound(gradeScheme, LetterGrade.A_PLUS, 99.0);
+        assertBound(gradeScheme, LetterGrade.D_MINUS, 88.0);
+        assertBound(gradeScheme, LetterGrade.F, 0.0);
+        for (int i = 1; i < gradeScheme.ranges.size(); i++)
+            assertTrue(gradeScheme.ranges.get(i).getLowerBound().compareTo(
+                    gradeScheme.ranges.get(i - 1).getLowerBound()) < 0);
+    }
+
+    private static void assertBound(GradeScheme gradeScheme, LetterGrade grade, double bound) {
+        assertEquals(bound, gradeScheme.ranges.get(grade.ordinal()).getLowerBound().getValue(), 1e-9);
+    }
+
+    /**
+     * Unit test classify, which finds ranges by binary search over a copy
+     * of the lower bounds.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input              Output          Remarks
+     * ====================================================================
+     *   1      0% to 105%         Same as scan    Every bound and the
+     *          by 0.25%                           points between them
+     *
+     *   2      -1%                -1              Below every bound
+     *
+     *   3      A- to 91%, 90.5%   B+              Rebuilt by
+     *                                             updateGradeRange
+     *
+     *   4      C to 80%, 80.5%    C               Rebuilt by
+     *                                             shiftGradeRange
+     *
+     *   5      A+ range to 98%,   A               Rebuilt when a
+     *          97.5%                              range is moved
+     *                                       </pre>
+     */
+    @Test
+    public void testClassify() throws Exception {
+        GradeScheme gradeScheme = new GradeScheme();
+        double[] totals = new double[421];
+        for (int i = 0; i < totals.length; i++)
+            totals[i] = i * 0.25;
+        int[] letters = gradeScheme.classify(totals);
+        for (int i = 0; i < totals.length; i++)
+            assertEquals(scan(gradeScheme, totals[i]), letters[i]);
+
+        assertEquals(-1, gradeScheme.classify(-1.0));
+
+        gradeScheme.updateGradeRange(LetterGrade.A_MINUS, new Percentage(91.0));
+        assertEquals(LetterGrade.B_PLUS.ordinal(), gradeScheme.classify(90.5));
+        assertEquals(LetterGrade.B_PLUS,
+                gradeScheme.getGradeRange(new Percentage(90.5)).getLetterGrade());
+
+        gradeScheme.shiftGradeRange(LetterGrade.C, new Percentage(80.0), 1.0);
+        assertEquals(LetterGrade.C.ordinal(), gradeScheme.classify(80.5));
+        letters = gradeScheme.classify(totals);
+        for (int i = 0; i < totals.length; i++)
+            assertEquals(scan(gradeScheme, totals[i]), letters[i]);
+
+        GradeScheme copy = gradeScheme.copy();
+        int version = copy.getVersion();
+        copy.ranges.get(LetterGrade.A_PLUS.ordinal()).setLowerBound(new Percentage(98.0));
+        assertNotEquals(version, copy.getVersion());
+        assertEquals(LetterGrade.A.ordinal(), copy.classify(97.5));
+        assertEquals(LetterGrade.A_PLUS.ordinal(), gradeScheme.classify(97.5));
+    }
+
+    /**
+     * Finds the range a percent falls in by scanning every range.
+     */
+    private static int scan(GradeScheme gradeScheme, double percent) {
+        for (int i = 0; i < gradeScheme.ranges.size(); i++)
+            if (percent >= gradeScheme.ranges.get(i).getLowerBound().getValue())
+                return i;
+        return -1;
+    }
+
+    /**
+     * Unit test setLowerBounds, which replaces every bound at once.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input              Output                     Remarks
+     * ====================================================================
+     *   1      96% down to 0%     Bounds replaced            4 points apart
+     *   2      C above C+         OverlappingRangeException  Nothing changed
+     *   3      A+ at 100%         OverlappingRangeException  At the ceiling
+     *   4      F at -1%           IllegalArgumentException   Negative bound
+     *                                                  </pre>
+     */
+    @Test
+    public void testSetLowerBounds() throws Exception {
+        GradeScheme gradeScheme = new GradeScheme();
+        double[] bounds = new double[gradeScheme.ranges.size()];
+        for (int i = 0; i < bounds.length; i++)
+            bounds[i] = 4.0 * (bounds.length - 1 - i) + (i == bounds.length - 1 ? 0 : 48);
+        gradeScheme.setLowerBounds(bounds);
+        assertBound(gradeScheme, LetterGrade.A_PLUS, 96.0);
+        assertBound(gradeScheme, LetterGrade.D_MINUS, 52.0);
+        assertEquals(LetterGrade.F.ordinal(), gradeScheme.classify(51.0));
+
+        double[] crossed = bounds.clone();
+        crossed[LetterGrade.C.ordinal()] = 80.0;
+        try {
+            gradeScheme.setLowerBounds(crossed);
+            fail();
+        } catch (OverlappingRangeException e) {
+            assertBound(gradeScheme, LetterGrade.C, bounds[LetterGrade.C.ordinal()]);
+        }
+
+        double[] high = bounds.clone();
+        high[0] = GradeScheme.ceiling;
+        try {
+            gradeScheme.setLowerBounds(high);
+            fail();
+        } catch (OverlappingRangeException e) {
+            assertBound(gradeScheme, LetterGrade.A_PLUS, 96.0);
+        }
+
+        double[] negative = bounds.clone();
+        negative[LetterGrade.F.ordinal()] = -1.0;
+        try {
+            gradeScheme.setLowerBounds(negative);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertBound(gradeScheme, LetterGrade.F, 0.0);
+        }
     }
-}
\ No newline at end of file
+}
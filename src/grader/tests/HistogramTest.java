@@ -3,9 +3,15 @@ package grader.tests;
 import grader.model.curve.Entry;
 import grader.model.curve.Histogram;
 import grader.model.gradebook.*;
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.items.Assignment;
+import grader.model.items.Percentage;
+import grader.model.people.Student;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 /**
  * The HistogramTest class is the companion testing class for the
@@ -16,6 +22,10 @@ import static org.junit.Assert.assertEquals;
  *    Phase 2: Unit test adjustHistogram().
  *
  *    Phase 3: Repeat phases 1 through 2.
+ *
+ *    Phase 4: Unit test bin counts, range queries, and bin widths.
+ *
+ *    Phase 5: Unit test moving single totals against recounting them all.
  *	                                       								 </pre>
  *	  @author Mallika Potter
  */
@@ -29,6 +39,8 @@ public class HistogramTest {
      *  Case    Input      Output          Remarks
      * ====================================================================
      *   1        0.0       new Entry("A-", "90.0", " ")             Checks default values.
+     *   2        2.0       new Entry(" ", "2.0", "")                Below every
+     *                                                               bound.
      *
      *                                                  </pre>
      */
@@ -45,6 +57,12 @@ public class HistogramTest {
         histogram.push();
         assertEquals(histogram.getEntry(90.0), new Entry("A-", "90.0", ""));
 
+        GradeScheme raised = new GradeScheme();
+        raised.ranges.get(LetterGrade.F.ordinal()).setLowerBound(new Percentage(5.0));
+        Histogram below = new Histogram();
+        below.update(new double[] {50.0}, raised);
+        assertEquals(new Entry(" ", "2.0", ""), below.getEntry(2.0));
+        assertEquals(new Entry("F", "5.0", ""), below.getEntry(5.0));
     }
 
     /**
@@ -95,5 +113,130 @@ public class HistogramTest {
 
     }
 
+    /**
+     * Unit test counting totals into bins of different widths.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input      Output          Remarks
+     * ====================================================================
+     *   1       1.0       89.2 in 89      Each total counted in the bin
+     *                     90.0 in 90      at or below it.
+     *   2       any       2 at or above   89.2 is not at or above 90,
+     *                     90              whatever the width.
+     *   3       0.1       59.99 in 59.9   Finer bins.
+     *   4       0.3       exception       Width must divide 100.
+     *                                                  </pre>
+     */
+    @Test
+    public void testBins()
+    {
+        Histogram histogram = new Histogram();
+        histogram.update(new double[] {89.2, 90.0, 59.99, 100.0, 0.0, 72.5},
+                new GradeScheme());
+
+        assertEquals(6, histogram.getTotalCount());
+        assertEquals(1, histogram.getCount(89.0));
+        assertEquals(1, histogram.getCount(90.0));
+        assertEquals(1, histogram.getCount(59.0));
+        assertEquals(0, histogram.getCount(60.0));
+        assertEquals(1, histogram.getCount(72.0));
+        assertEquals(1, histogram.getCount(100.0));
+        assertEquals(1, histogram.getCount(0.0));
+
+        for (double width : new double[] {1.0, 0.5, 0.1})
+        {
+            histogram.setBinWidth(width);
+            assertEquals(6, histogram.countAtOrAbove(0.0));
+            assertEquals(4, histogram.countAtOrAbove(60.0));
+            assertEquals(4, histogram.countAtOrAbove(72.5));
+            assertEquals(3, histogram.countAtOrAbove(72.6));
+            assertEquals(2, histogram.countAtOrAbove(89.3));
+            assertEquals(2, histogram.countAtOrAbove(90.0));
+            assertEquals(1, histogram.countAtOrAbove(100.0));
+            assertEquals(0, histogram.countAtOrAbove(100.1));
+            assertEquals(2, histogram.countBetween(60.0, 90.0));
+            assertEquals(1, histogram.countBetween(59.99, 60.0));
+
+            int sum = 0;
+            for (int i = 0; i < histogram.getBinCount(); i++)
+                sum += histogram.getCount(histogram.getPercent(i));
+            assertEquals(6, sum);
+        }
+        assertEquals(1001, histogram.getBinCount());
+        assertEquals(90.1, histogram.getPercent(901), 0.0);
+        assertEquals(1, histogram.getCount(59.9));
+        assertEquals(1, histogram.getCount(89.2));
+        assertEquals(0, histogram.getCount(89.1));
+
+        try
+        {
+            histogram.setBinWidth(0.3);
+            fail("0.3 does not divide 100");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertEquals(0.1, histogram.getBinWidth(), 0.0);
+        }
+    }
+
+    /**
+     * Unit test changing one total at a time.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input              Output               Remarks
+     * ====================================================================
+     *   1      Random moves       Same as recounting   Up, down, within a
+     *                                                  bin, and onto ties
+     *   2      A grade edit       Same as recounting   Through the WorkSpace
+     *                                                  </pre>
+     */
+    @Test
+    public void testUpdateTotal()
+    {
+        java.util.Random random = new java.util.Random(12);
+        double[] totals = new double[50];
+        for (int i = 0; i < totals.length; i++)
+            totals[i] = random.nextInt(201) / 2.0;
+        Histogram histogram = new Histogram();
+        histogram.setBinWidth(0.5);
+        histogram.update(totals, new GradeScheme());
+
+        for (int move = 0; move < 200; move++)
+        {
+            int index = random.nextInt(totals.length);
+            totals[index] = move % 3 == 0 ? totals[random.nextInt(totals.length)]
+                    : random.nextInt(1001) / 10.0;
+            histogram.updateTotal(index, totals[index]);
+        }
+        Histogram recounted = new Histogram();
+        recounted.setBinWidth(0.5);
+        recounted.update(totals, new GradeScheme());
+        assertSameCounts(recounted, histogram);
+
+        Course course = WorkSpace.instance.getGradebook().courses.get(0);
+        WorkSpace.instance.sidebarSelect(course, course.sections.get(0), null);
+        WorkSpace.instance.revertGrades();
+        Histogram live = WorkSpace.instance.getHistogram();
+        Student student = WorkSpace.instance.getStudents().get(0);
+        Assignment assignment = WorkSpace.instance.getAssignmentTree().getAssignments().get(0);
+        WorkSpace.instance.updateGrade(student, assignment, 0.0);
+        recounted = new Histogram();
+        recounted.update(WorkSpace.instance.getTotals(), new GradeScheme());
+        assertSameCounts(recounted, live);
+        WorkSpace.instance.revertGrades();
+    }
 
+    private static void assertSameCounts(Histogram expected, Histogram actual)
+    {
+        assertEquals(expected.getTotalCount(), actual.getTotalCount());
+        for (int i = 0; i < expected.getBinCount(); i++)
+        {
+            double percent = expected.getPercent(i);
+            assertEquals(expected.getCount(percent), actual.getCount(percent));
+            assertEquals(expected.countAtOrAbove(percent), actual.countAtOrAbove(percent));
+            assertEquals(expected.countAtOrAbove(percent + 0.05), actual.countAtOrAbove(percent + 0.05));
+        }
+    }
 }
@@ -2,11 +2,18 @@ package grader.tests;
 
 import grader.model.curve.PieChart;
 import grader.model.gradebook.*;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.items.AssignmentTree;
 import grader.model.items.Percentage;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.EnumMap;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * The PieChart class is the companion testing class for the
@@ -17,6 +24,8 @@ import static org.junit.Assert.assertEquals;
  *    Phase 2: Unit test update()
  *
  *    Phase 3: Repeat phases 1 through 2.
+ *
+ *    Phase 4: Unit test the whole distribution and multi-section counts.
  *	                                       								 </pre>
  *	  @author Mallika Potter
  */
@@ -105,7 +114,60 @@ public class PieChartTest {
 
     }
 
+    /**
+     * Unit test getDistribution, getCounts, and countLetters.
+     *
+     *                                                                    <pre>
+     *  Test
+     *  Case    Input           Output             Remarks
+     * ====================================================================
+     *   1      Section 2       A+ 100%            Whole distribution
+     *                                             matches the getters
+     *   2      addToGrade      Counts rebuilt     Next update discards
+     *                                             hand-added grades
+     *   3      All sections    Sum of sections    Each section uses its
+     *                                             own grade scheme
+     *                                                  </pre>
+     */
+    @Test
+    public void testDistribution() throws Exception {
+        PieChart pie = WorkSpace.instance.getPieChart();
+        Gradebook gradeTemp = WorkSpace.instance.getGradebook();
+        Course course = gradeTemp.courses.get(0);
+        Section sec = course.sections.get(1);
+        WorkSpace.instance.sidebarSelect(course, sec, null);
 
-
-
+        EnumMap<LetterGrade, Double> distribution = pie.getDistribution();
+        assertEquals(LetterGrade.SIZE.ordinal(), distribution.size());
+        assertEquals(pie.getNumAPlus(), distribution.get(LetterGrade.A_PLUS), 1e-9);
+        assertEquals(pie.getNumF(), distribution.get(LetterGrade.F), 1e-9);
+        int counted = 0;
+        for (int count : pie.getCounts())
+            counted += count;
+        assertEquals(sec.getStudents().size(), counted);
+
+        pie.addToGrade(new Percentage(50.0));
+        assertEquals(counted + 1, pie.getCounts()[LetterGrade.F.ordinal()]
+                + pie.getCounts()[LetterGrade.A_PLUS.ordinal()]);
+        WorkSpace.instance.update();
+        assertEquals(0, pie.getCounts()[LetterGrade.F.ordinal()]);
+
+        AssignmentTree tree = course.getAssignmentTree();
+        int[] combined = PieChart.countLetters(tree, gradeTemp.getScores(), course.sections);
+        int[] expected = new int[LetterGrade.SIZE.ordinal()];
+        int students = 0;
+        for (Section section : course.sections) {
+            int[] single = PieChart.countLetters(tree, gradeTemp.getScores(),
+                    Collections.singletonList(section));
+            for (int i = 0; i < expected.length; i++)
+                expected[i] += single[i];
+            students += section.getStudents().size();
+        }
+        assertArrayEquals(expected, combined);
+        double percent = 0;
+        for (double value : pie.getDistribution(course.sections).values())
+            percent += value;
+        assertTrue(students > 0);
+        assertEquals(100.0, percent, 1e-9);
+    }
 }
@@ -0,0 +1,178 @@
+package grader.tests;
+
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.gradescheme.LetterGrade;
+import grader.model.gradebook.scores.DenseScores;
+import grader.model.gradebook.scores.PredictionMatrix;
+import grader.model.gradebook.scores.Scores;
+import grader.model.items.Assignment;
+import grader.model.items.AssignmentTree;
+import grader.model.items.Category;
+import grader.model.people.Name;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The PredictionMatrixTest class is the companion testing class for the
+ * PredictionMatrix class. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test needed scores for a small roster, including graded
+ *             assignments, reached letters, weightless assignments, and
+ *             letters out of reach of the assignment's points.
+ *
+ *    Phase 2: Unit test telling ungraded assignments apart from zeros.
+ *
+ *    Phase 3: Unit test a roster large enough to be split across threads.
+ *	                                       								 </pre>
+ */
+public class PredictionMatrixTest {
+    private static final double DELTA = 1e-9;
+
+    private AssignmentTree tree;
+    private Assignment hw1, hw2, bonus;
+    private Student alice, bob;
+    private List<Student> students;
+    private DenseScores scores;
+    private GradeScheme scheme;
+
+    /**
+     * Sets up two homework assignments worth 10 points each, plus a bonus
+     * assignment in a category worth nothing.
+     */
+    @Before
+    public void setUp() throws Exception {
+        TestCourse course = new TestCourse();
+        tree = course.tree;
+        hw1 = course.hw1;
+        hw2 = course.hw2;
+        Category extra = course.addCategory(course.homework, "Extra", "0");
+        bonus = course.addAssignment(extra, "Bonus", "10");
+
+        alice = TestCourse.student("Alice", "Adams");
+        bob = TestCourse.student("Bob", "Brown");
+        students = new ArrayList<Student>();
+        students.add(alice);
+        students.add(bob);
+
+        scores = course.scores;
+        scores.addRawScore(alice, hw1, 10.0);
+        scores.addRawScore(bob, hw1, 0.0);
+        scores.addRawScore(bob, hw2, 10.0);
+        scheme = new GradeScheme();
+    }
+
+    /**
+     * 1. Test needed scores against the closed form.
+     */
+    @Test
+    public void testRequired() {
+        PredictionMatrix matrix = new PredictionMatrix(tree.getGradingPlan(),
+                scores, students, scheme);
+        assertEquals(50.0, matrix.getTotal(alice), DELTA);
+        assertEquals(9.4, matrix.getRequired(alice, hw2, LetterGrade.A_PLUS), DELTA);
+        assertEquals(6.0, matrix.getRequired(alice, hw2, LetterGrade.B_MINUS), DELTA);
+        assertEquals(0.0, matrix.getRequired(alice, hw2, LetterGrade.F), DELTA);
+        assertEquals(Double.POSITIVE_INFINITY,
+                matrix.getRequired(alice, bonus, LetterGrade.A), 0.0);
+        assertEquals(0.0, matrix.getRequired(alice, bonus, LetterGrade.F), 0.0);
+        assertTrue(Double.isNaN(matrix.getRequired(alice, hw1, LetterGrade.A)));
+
+        double[] row = matrix.getRequired(bob, bonus);
+        assertEquals(LetterGrade.SIZE.ordinal(), row.length);
+        assertTrue(Double.isNaN(matrix.getRequired(bob, hw1, LetterGrade.A)));
+        Student carol = TestCourse.student("Carol", "Clark");
+        assertNull(matrix.getRequired(carol, hw1));
+        assertTrue(Double.isNaN(matrix.getTotal(carol)));
+    }
+
+    /**
+     * 1. Test letters that need more than an assignment's points.
+     */
+    @Test
+    public void testOutOfReach() {
+        Student carol = TestCourse.student("Carol", "Clark");
+        Student dan = TestCourse.student("Dan", "Davis");
+        students.add(carol);
+        students.add(dan);
+        scores.addRawScore(dan, hw1, 2.0);
+        PredictionMatrix matrix = new PredictionMatrix(tree.getGradingPlan(),
+                scores, students, scheme);
+
+        // Dan has 10%, so D- needs exactly the 10 points HW 2 is worth
+        assertEquals(10.0, matrix.getRequired(dan, hw2, LetterGrade.D_MINUS), DELTA);
+        assertEquals(Double.POSITIVE_INFINITY,
+                matrix.getRequired(dan, hw2, LetterGrade.D), 0.0);
+
+        // Carol has nothing yet, so no letter but F is in reach of one 50%
+        // assignment
+        for (LetterGrade letter : new LetterGrade[] {LetterGrade.A_PLUS,
+                LetterGrade.C, LetterGrade.D_MINUS}) {
+            assertEquals(Double.POSITIVE_INFINITY,
+                    matrix.getRequired(carol, hw1, letter), 0.0);
+        }
+        assertEquals(0.0, matrix.getRequired(carol, hw1, LetterGrade.F), 0.0);
+    }
+
+    /**
+     * 2. Test that a zero is graded and a missing score is not, for both
+     * kinds of Scores.
+     */
+    @Test
+    public void testUngraded() {
+        PredictionMatrix matrix = new PredictionMatrix(tree.getGradingPlan(),
+                scores, students, scheme);
+        assertTrue(matrix.isUngraded(alice, hw2));
+        assertFalse(matrix.isUngraded(bob, hw1));
+        assertTrue(matrix.isUngraded(bob, bonus));
+
+        Scores sparse = new Scores();
+        sparse.addRawScore(alice, hw1, 0.0);
+        assertTrue(sparse.hasRawScore(alice, hw1));
+        assertFalse(sparse.hasRawScore(alice, hw2));
+        assertFalse(sparse.hasRawScore(bob, hw1));
+        assertFalse(scores.hasRawScore(alice, hw2));
+        assertTrue(scores.hasRawScore(bob, hw1));
+    }
+
+    /**
+     * 3. Test a large roster against computing each entry on its own.
+     */
+    @Test
+    public void testParallel() {
+        Random random = new Random(18);
+        List<Student> roster = new ArrayList<Student>();
+        for (int i = 0; i < 1000; i++) {
+            String first = "" + (char) ('A' + i / 676) + (char) ('a' + i / 26 % 26) + (char) ('a' + i % 26);
+            Student student = new Student(new Name(first, "", "Test"));
+            roster.add(student);
+            if (random.nextBoolean())
+                scores.addRawScore(student, hw1, random.nextInt(11));
+            if (random.nextBoolean())
+                scores.addRawScore(student, hw2, random.nextInt(11));
+        }
+        PredictionMatrix matrix = new PredictionMatrix(tree.getGradingPlan(),
+                scores, roster, scheme);
+        for (Student student : roster) {
+            double total = tree.getGradingPlan().calculate(scores, student);
+            assertEquals(total, matrix.getTotal(student), DELTA);
+            for (Assignment a : new Assignment[] {hw1, hw2}) {
+                assertEquals(!scores.hasRawScore(student, a), matrix.isUngraded(student, a));
+                if (!matrix.isUngraded(student, a))
+                    continue;
+                double expected = Math.max(0.0,
+                        (scheme.ranges.get(LetterGrade.B.ordinal()).getLowerBound().getValue()
+                                - total) / 5.0);
+                if (expected > 10.0)
+                    expected = Double.POSITIVE_INFINITY;
+                assertEquals(expected, matrix.getRequired(student, a, LetterGrade.B), DELTA);
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package grader.tests;
+
+import grader.model.edit.RapidEntry;
+import grader.model.gradebook.Course;
+import grader.model.gradebook.Section;
+import grader.model.gradebook.WorkSpace;
+import grader.model.gradebook.events.WorkSpaceEvent;
+import grader.model.gradebook.events.WorkSpaceListener;
+import grader.model.items.Assignment;
+import grader.model.people.Student;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The RapidEntryTest class is the companion testing class for the
+ * RapidEntry class and the WorkSpace grade batches it uses. It implements
+ * the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test that buffered grades are applied at once but
+ *             published only when flushed.
+ *
+ *    Phase 2: Unit test undoing and redoing a flushed batch as one step.
+ *
+ *    Phase 3: Unit test flushing on every grade with a zero interval, and
+ *             rejecting grades while rapid entry is off.
+ *
+ *    Phase 4: Unit test that other edits during rapid entry are published
+ *             at once, flushing once idle, and the configured interval.
+ *	                                       								 </pre>
+ */
+public class RapidEntryTest {
+    private WorkSpace workspace;
+    private List<Student> students;
+    private Assignment assignment;
+    private int notifications;
+    private WorkSpaceListener<WorkSpaceEvent> counter;
+
+    /**
+     * Scopes the workspace to the first section of the canned gradebook
+     * and counts the events it publishes.
+     */
+    @Before
+    public void setUp() {
+        workspace = WorkSpace.instance;
+        Course course = workspace.getGradebook().courses.get(0);
+        Section section = course.sections.get(0);
+        workspace.sidebarSelect(course, section, null);
+        workspace.revertGrades();
+        students = workspace.getStudents();
+        assignment = workspace.getAssignmentTree().getAssignments().get(0);
+
+        counter = new WorkSpaceListener<WorkSpaceEvent>() {
+            @Override
+            public void handle(WorkSpaceEvent event) {
+                ++notifications;
+            }
+        };
+        workspace.getEventBus().subscribe(WorkSpaceEvent.class, counter);
+    }
+
+    /**
+     * Leaves the workspace as it was found.
+     */
+    @After
+    public void tearDown() {
+        workspace.getEventBus().unsubscribeAll(counter);
+        workspace.endBatch();
+        workspace.revertGrades();
+    }
+
+    /**
+     * Phase 1: grades are applied at once and published on flush.
+     */
+    @Test
+    public void testBuffering() {
+        RapidEntry entry = new RapidEntry(workspace, Long.MAX_VALUE);
+        assertFalse(entry.isActive());
+        entry.start();
+        assertTrue(entry.isActive());
+        assertTrue(workspace.isBatching());
+
+        double before = workspace.getTotal(students.get(0));
+        entry.enter(students.get(0), assignment, 1.0);
+        entry.enter(students.get(1), assignment, 2.0);
+        entry.enter(students.get(2), assignment, 3.0);
+        assertEquals(0, notifications);
+        assertEquals(3, entry.getPending());
+        assertEquals(2.0, workspace.getScores().getRawScore(students.get(1), assignment), 0.0);
+        assertEquals(3, workspace.deltas.size());
+        // totals follow each grade without an event
+        assertNotEquals(before, workspace.getTotal(students.get(0)), 0.0);
+
+        entry.flush();
+        assertEquals(1, notifications);
+        assertEquals(0, entry.getPending());
+        assertTrue(workspace.isBatching());
+
+        entry.flush();
+        assertEquals(1, notifications);
+
+        entry.enter(students.get(3), assignment, 4.0);
+        entry.stop();
+        assertEquals(2, notifications);
+        assertFalse(entry.isActive());
+        assertFalse(workspace.isBatching());
+        assertEquals(4, workspace.deltas.size());
+    }
+
+    /**
+     * Phase 2: a batch is undone and redone as one step.
+     */
+    @Test
+    public void testUndoBatch() {
+        double original0 = workspace.getScores().getRawScore(students.get(0), assignment);
+        double original1 = workspace.getScores().getRawScore(students.get(1), assignment);
+
+        workspace.updateGrade(students.get(2), assignment, 5.0);
+        RapidEntry entry = new RapidEntry(workspace, Long.MAX_VALUE);
+        entry.start();
+        entry.enter(students.get(0), assignment, 1.0);
+        entry.enter(students.get(1), assignment, 2.0);
+        entry.stop();
+        assertEquals(3, workspace.deltas.size());
+
+        workspace.undo();
+        assertEquals(1, workspace.deltas.size());
+        assertEquals(2, workspace.futureDeltas.size());
+        assertEquals(original0, workspace.getScores().getRawScore(students.get(0), assignment), 0.0);
+        assertEquals(original1, workspace.getScores().getRawScore(students.get(1), assignment), 0.0);
+        assertEquals(5.0, workspace.getScores().getRawScore(students.get(2), assignment), 0.0);
+
+        workspace.redo();
+        assertEquals(3, workspace.deltas.size());
+        assertEquals(0, workspace.futureDeltas.size());
+        assertEquals(1.0, workspace.getScores().getRawScore(students.get(0), assignment), 0.0);
+        assertEquals(2.0, workspace.getScores().getRawScore(students.get(1), assignment), 0.0);
+        assertSame(students.get(1), workspace.getLatestChange().getStudent());
+
+        // single edits are still undone one at a time
+        workspace.undo();
+        workspace.undo();
+        assertFalse(workspace.canUndo());
+
+        // an undo in the middle of rapid entry closes the open batch
+        entry.start();
+        entry.enter(students.get(0), assignment, 7.0);
+        workspace.undo();
+        assertEquals(original0, workspace.getScores().getRawScore(students.get(0), assignment), 0.0);
+        entry.enter(students.get(1), assignment, 8.0);
+        entry.stop();
+        assertEquals(1, workspace.deltas.size());
+    }
+
+    /**
+     * Phase 3: zero interval and misuse.
+     */
+    @Test
+    public void testIntervalAndErrors() {
+        RapidEntry entry = new RapidEntry(workspace, 0);
+        try {
+            entry.enter(students.get(0), assignment, 1.0);
+            fail();
+        }
+        catch (IllegalStateException e) {
+            // rapid entry is off
+        }
+        entry.start();
+        entry.enter(students.get(0), assignment, 1.0);
+        entry.enter(students.get(1), assignment, 2.0);
+        assertEquals(2, notifications);
+        assertEquals(0, entry.getPending());
+        entry.stop();
+        assertEquals(2, notifications);
+
+        try {
+            new RapidEntry(workspace, -1);
+            fail();
+        }
+        catch (IllegalArgumentException e) {
+            // negative interval
+        }
+    }
+
+    /**
+     * Phase 4: edits outside the batch, idle flushing, and the interval.
+     */
+    @Test
+    public void testOtherEditsAndIdle() throws InterruptedException {
+        RapidEntry entry = new RapidEntry(workspace, Long.MAX_VALUE);
+        entry.start();
+        entry.enter(students.get(0), assignment, 1.0);
+        assertEquals(0, notifications);
+
+        // a paste publishes the buffered grade, then itself, at once
+        workspace.setSelectedScore(workspace.getScores()
+                .getScoresMap(students.get(1)).get(assignment));
+        workspace.copiedScore = 9.0;
+        workspace.validCopy = true;
+        workspace.paste();
+        assertEquals(2, notifications);
+        assertEquals(9.0, workspace.getScores().getRawScore(students.get(1), assignment), 0.0);
+        assertTrue(workspace.isBatching());
+
+        workspace.cut();
+        assertEquals(3, notifications);
+        assertEquals(0.0, workspace.getScores().getRawScore(students.get(1), assignment), 0.0);
+
+        // the paste and cut are undone on their own, not with the batch
+        entry.enter(students.get(2), assignment, 2.0);
+        entry.stop();
+        assertEquals(4, notifications);
+        workspace.undo();
+        assertEquals(3, workspace.deltas.size());
+        workspace.undo();
+        assertEquals(2, workspace.deltas.size());
+        workspace.setSelectedScore(null);
+
+        RapidEntry idle = new RapidEntry(workspace, 20);
+        assertFalse(idle.flushIfIdle());
+        idle.start();
+        assertFalse(idle.flushIfIdle());
+        idle.enter(students.get(3), assignment, 3.0);
+        int before = notifications;
+        Thread.sleep(40);
+        assertTrue(idle.flushIfIdle());
+        assertEquals(before + 1, notifications);
+        assertFalse(idle.flushIfIdle());
+        idle.stop();
+    }
+
+    /**
+     * Phase 4: the interval set by the system property.
+     */
+    @Test
+    public void testConfiguredInterval() {
+        String saved = System.getProperty(RapidEntry.INTERVAL_PROPERTY);
+        try {
+            System.clearProperty(RapidEntry.INTERVAL_PROPERTY);
+            assertEquals(RapidEntry.DEFAULT_INTERVAL, RapidEntry.configuredInterval());
+            System.setProperty(RapidEntry.INTERVAL_PROPERTY, " 500 ");
+            assertEquals(500, RapidEntry.configuredInterval());
+            System.setProperty(RapidEntry.INTERVAL_PROPERTY, "-5");
+            assertEquals(RapidEntry.DEFAULT_INTERVAL, RapidEntry.configuredInterval());
+            System.setProperty(RapidEntry.INTERVAL_PROPERTY, "soon");
+            assertEquals(RapidEntry.DEFAULT_INTERVAL, RapidEntry.configuredInterval());
+        }
+        finally {
+            if (saved == null)
+                System.clearProperty(RapidEntry.INTERVAL_PROPERTY);
+            else
+                System.setProperty(RapidEntry.INTERVAL_PROPERTY, saved);
+        }
+    }
+}
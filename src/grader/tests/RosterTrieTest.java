@@ -0,0 +1,174 @@
+package grader.tests;
+
+import grader.model.gradebook.Course;
+import grader.model.gradebook.RosterTrie;
+import grader.model.gradebook.Section;
+import grader.model.gradebook.WorkSpace;
+import grader.model.people.Name;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The RosterTrieTest class is the companion testing class for the
+ * RosterTrie class. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test one and several word queries, ignoring case, with
+ *             results in roster order.
+ *
+ *    Phase 2: Unit test the Section rebuilding its trie as the roster
+ *             changes, including a student swapped for another.
+ *
+ *    Phase 3: Unit test a large roster against a plain scan.
+ *
+ *    Phase 4: Unit test the WorkSpace rebuilding only the tries of the
+ *             sections an edited student is on.
+ *	                                       								 </pre>
+ */
+public class RosterTrieTest {
+    private Student jane, john, mary, jon;
+    private RosterTrie trie;
+
+    /**
+     * Sets up a small roster, out of order.
+     */
+    @Before
+    public void setUp() throws Exception {
+        TestRoster people = new TestRoster();
+        jane = people.jane;
+        john = people.john;
+        mary = people.mary;
+        jon = people.jon;
+        trie = new RosterTrie(Arrays.asList(john, mary, jane, jon));
+    }
+
+    /**
+     * Phase 1: queries.
+     */
+    @Test
+    public void testFind() {
+        assertEquals(Arrays.asList(jane, jon, mary, john), trie.find(""));
+        assertEquals(Arrays.asList(jane, jon, mary, john), trie.find(" , "));
+        assertEquals(Arrays.asList(jane, jon, mary, john), trie.find("j"));
+        assertEquals(Arrays.asList(mary, john), trie.find("JOH"));
+        assertEquals(Arrays.asList(jane, jon), trie.find("doe"));
+        assertEquals(Arrays.asList(jane), trie.find("quinn"));
+        assertEquals(Arrays.asList(jane), trie.find("jane d"));
+        assertEquals(Arrays.asList(jane), trie.find("Doe, Jane"));
+        assertEquals(Arrays.asList(jon), trie.find("jondoe"));
+        assertTrue(trie.find("ohn").isEmpty());
+        assertTrue(trie.find("jane smith").isEmpty());
+        assertTrue(trie.find("x").isEmpty());
+        assertEquals(4, trie.size());
+    }
+
+    /**
+     * Phase 2: the Section rebuilds its trie.
+     */
+    @Test
+    public void testSection() throws Exception {
+        Section section = new Section("01");
+        section.addStudent(john);
+        RosterTrie first = section.getRosterTrie();
+        assertSame(first, section.getRosterTrie());
+        assertTrue(first.find("doe").isEmpty());
+
+        section.addStudent(jane);
+        assertEquals(Arrays.asList(jane), section.getRosterTrie().find("doe"));
+
+        jane.editStudentInfo(new Name("Jane", "", "Roe"), "jroe", "");
+        section.rosterChanged();
+        assertTrue(section.getRosterTrie().find("doe").isEmpty());
+        assertEquals(Arrays.asList(jane), section.getRosterTrie().find("roe"));
+
+        // one student swapped for another through the roster list itself
+        section.getStudents().remove(john);
+        section.getStudents().add(mary);
+        assertTrue(section.getRosterTrie().find("smith").isEmpty());
+        assertEquals(Arrays.asList(mary), section.getRosterTrie().find("johnson"));
+
+        assertEquals(0, new Section().getRosterTrie().size());
+    }
+
+    /**
+     * Phase 4: an edited student is found by their new name in their own
+     * section, and other sections keep their tries.
+     */
+    @Test
+    public void testStudentChanged() throws Exception {
+        WorkSpace workspace = WorkSpace.instance;
+        Course course = workspace.getGradebook().courses.get(0);
+        Section own = course.sections.get(0);
+        Section other = course.sections.get(1);
+        Student student = own.getStudents().get(0);
+        assertFalse(other.getStudents().contains(student));
+        RosterTrie otherTrie = other.getRosterTrie();
+        own.getRosterTrie();
+
+        Name name = student.name;
+        try {
+            student.name = new Name("Zed", "", "Zzyzx");
+            workspace.studentChanged(student);
+            assertEquals(Arrays.asList(student), own.getRosterTrie().find("zzyzx"));
+            assertSame(otherTrie, other.getRosterTrie());
+        }
+        finally {
+            student.name = name;
+            workspace.studentChanged(student);
+        }
+    }
+
+    /**
+     * Phase 3: a large roster gives the same results as a plain scan.
+     */
+    @Test
+    public void testLargeRoster() throws Exception {
+        Random random = new Random(357);
+        List<Student> roster = new ArrayList<Student>();
+        for (int i = 0; i < 5000; i++) {
+            roster.add(new Student(new Name(TestRoster.word(random),
+                    TestRoster.word(random), TestRoster.word(random)),
+                    TestRoster.word(random), ""));
+        }
+        RosterTrie big = new RosterTrie(roster);
+        List<Student> sorted = new ArrayList<Student>(roster);
+        Collections.sort(sorted);
+
+        String[] queries = {"a", "ab", "abc", "dcba", "a b", "ab cd", "b, a"};
+        for (String query : queries) {
+            List<Student> expected = new ArrayList<Student>();
+            for (Student student : sorted) {
+                if (matchesAll(student, query.split("[\\s,]+")))
+                    expected.add(student);
+            }
+            assertEquals(query, expected, big.find(query));
+        }
+    }
+
+    /**
+     * Checks whether every word starts one of the student's words.
+     */
+    private static boolean matchesAll(Student student, String[] words) {
+        String[] keys = {student.name.getFirstName(), student.name.getMiddleName(),
+                student.name.getLastName(), student.userID};
+        for (String word : words) {
+            boolean matched = false;
+            for (String key : keys) {
+                if (key.toLowerCase(Locale.ROOT).startsWith(word))
+                    matched = true;
+            }
+            if (!matched)
+                return false;
+        }
+        return true;
+    }
+}
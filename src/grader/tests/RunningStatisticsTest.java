@@ -0,0 +1,113 @@
+package grader.tests;
+
+import grader.model.gradebook.stats.RunningStatistics;
+import grader.model.gradebook.stats.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the RunningStatistics class.
+ * It implements the following module test plan:
+ *
+ *    Phase 1: Unit test adding scores against Statistics over the same scores.
+ *
+ *    Phase 2: Unit test removing tied and extreme scores.
+ *
+ *    Phase 3: Stress test random replacements against fresh Statistics.
+ */
+public class RunningStatisticsTest {
+    private static final double DELTA = 1e-9;
+
+    private RunningStatistics running;
+    private List<Double> scores;
+
+    /**
+     * Sets up running statistics over the multiples of ten from 0 to 100.
+     */
+    @Before
+    public void setUp() {
+        running = new RunningStatistics();
+        scores = new ArrayList<Double>();
+        for (int i = 0; i <= 10; ++i) {
+            running.add(10.0 * i);
+            scores.add(10.0 * i);
+        }
+    }
+
+    /**
+     * Checks that running statistics agree with statistics built from a list.
+     */
+    private static void assertAgrees(List<Double> scores, RunningStatistics running) {
+        Statistics expected = new Statistics(scores);
+        Statistics actual = running.toStatistics();
+        assertEquals(expected.count, actual.count);
+        assertEquals(expected.min, actual.min, DELTA);
+        assertEquals(expected.max, actual.max, DELTA);
+        assertEquals(expected.mean, actual.mean, DELTA);
+        assertEquals(expected.stddev, actual.stddev, 1e-6);
+        assertEquals(expected.median, actual.median, DELTA);
+        assertEquals(expected.q1, actual.q1, DELTA);
+        assertEquals(expected.q3, actual.q3, DELTA);
+    }
+
+    /**
+     * 1. Test the statistics after adding scores.
+     */
+    @Test
+    public void testAdd() {
+        assertAgrees(scores, running);
+        running.add(35.0);
+        scores.add(35.0);
+        assertAgrees(scores, running);
+        assertEquals(12, running.getCount());
+    }
+
+    /**
+     * 2. Test that removing one of two tied extremes keeps the extreme, and
+     * removing the last one moves it.
+     */
+    @Test
+    public void testRemove() {
+        running.add(100.0);
+        assertTrue(running.remove(100.0));
+        assertEquals(100.0, running.toStatistics().max, DELTA);
+        assertTrue(running.remove(100.0));
+        assertEquals(90.0, running.toStatistics().max, DELTA);
+        assertTrue(running.remove(0.0));
+        assertEquals(10.0, running.toStatistics().min, DELTA);
+        assertFalse(running.remove(55.0));
+
+        scores.remove(100.0);
+        scores.remove(0.0);
+        assertAgrees(scores, running);
+
+        RunningStatistics empty = new RunningStatistics();
+        empty.add(1.0);
+        empty.remove(1.0);
+        assertEquals(0, empty.toStatistics().count);
+        assertTrue(Double.isNaN(empty.toStatistics().mean));
+    }
+
+    /**
+     * 3. Test many random replacements.
+     */
+    @Test
+    public void stressTest() {
+        Random rand = new Random(11);
+        for (int i = 0; i < 2000; ++i) {
+            int index = rand.nextInt(scores.size());
+            double next = rand.nextInt(101);
+            running.replace(scores.get(index), next);
+            scores.set(index, next);
+            if (i % 100 == 0)
+                assertAgrees(scores, running);
+        }
+        assertAgrees(scores, running);
+    }
+}
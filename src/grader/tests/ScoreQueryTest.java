@@ -0,0 +1,243 @@
+package grader.tests;
+
+import grader.model.edit.ScoreIndex;
+import grader.model.edit.ScoreQuery;
+import grader.model.errors.MissingInputException;
+import grader.model.errors.QueryFormatException;
+import grader.model.gradebook.gradescheme.GradeScheme;
+import grader.model.gradebook.scores.DenseScores;
+import grader.model.items.Assignment;
+import grader.model.items.AssignmentTree;
+import grader.model.items.Category;
+import grader.model.people.Group;
+import grader.model.people.Name;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The ScoreQueryTest class is the companion testing class for the
+ * ScoreQuery and ScoreIndex classes. It implements the following module
+ * test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test each kind of condition on a small roster.
+ *
+ *    Phase 2: Unit test combining conditions with and, or, not, and
+ *             parentheses.
+ *
+ *    Phase 3: Unit test rejecting malformed queries and unknown names.
+ *
+ *    Phase 4: Unit test making a Group of the matches and telling when the
+ *             index is out of date.
+ *
+ *    Phase 5: Unit test a large roster against a plain scan.
+ *	                                       								 </pre>
+ */
+public class ScoreQueryTest {
+    private AssignmentTree tree;
+    private Assignment hw1, hw2, midterm;
+    private Student ann, ben, cal, dee;
+    private List<Student> students;
+    private DenseScores scores;
+    private GradeScheme scheme;
+    private ScoreIndex index;
+
+    /**
+     * Sets up homework worth 40% and a midterm worth 60%, and four
+     * students with totals of 94, 40, 76, and 20.
+     */
+    @Before
+    public void setUp() throws Exception {
+        TestCourse course = new TestCourse("40");
+        tree = course.tree;
+        hw1 = course.hw1;
+        hw2 = course.hw2;
+        Category exams = course.addCategory(null, "Exams", "60");
+        midterm = course.addAssignment(exams, "Midterm 1", "100");
+
+        ann = TestCourse.student("Ann", "Adams");
+        ben = TestCourse.student("Ben", "Brown");
+        cal = TestCourse.student("Cal", "Clark");
+        dee = TestCourse.student("Dee", "Davis");
+        students = Arrays.asList(ann, ben, cal, dee);
+
+        scores = course.scores;
+        scores.addRawScore(ann, hw1, 10.0);
+        scores.addRawScore(ann, hw2, 10.0);
+        scores.addRawScore(ann, midterm, 90.0);
+        scores.addRawScore(ben, hw1, 5.0);
+        scores.addRawScore(ben, midterm, 50.0);
+        scores.addRawScore(cal, hw1, 8.0);
+        scores.addRawScore(cal, hw2, 6.0);
+        scores.addRawScore(cal, midterm, 80.0);
+        scores.addRawScore(dee, hw1, 0.0);
+        scores.addRawScore(dee, hw2, 10.0);
+        scheme = new GradeScheme();
+        index = new ScoreIndex(tree.getGradingPlan(), scores, students, scheme);
+    }
+
+    private List<Student> run(String query) throws QueryFormatException {
+        return ScoreQuery.parse(query).select(index);
+    }
+
+    /**
+     * Phase 1: each kind of condition.
+     */
+    @Test
+    public void testConditions() throws Exception {
+        assertEquals(Arrays.asList(ben), run("percent \"Midterm 1\" < 60"));
+        assertEquals(Arrays.asList(ann, cal), run("score \"midterm 1\" >= 80"));
+        assertEquals(Arrays.asList(ben), run("score \"HW 1\" = 5"));
+        assertEquals(Arrays.asList(ann, cal, dee), run("score \"HW 1\" != 5"));
+        assertEquals(Arrays.asList(ben), run("missing \"HW 2\""));
+        assertEquals(Arrays.asList(ann, ben, cal), run("graded \"Midterm 1\""));
+        assertEquals(Arrays.asList(ann, cal), run("total >= 70"));
+        assertEquals(Arrays.asList(ben, dee), run("total < 50%"));
+        assertEquals(Arrays.asList(ann), run("subtotal Homework > 30"));
+        assertEquals(Arrays.asList(ann), run("grade >= B"));
+        assertEquals(Arrays.asList(ben, dee), run("grade < c"));
+        assertEquals(Arrays.asList(cal), run("grade = C"));
+        assertEquals(Arrays.asList(ann, cal), run("grade != F"));
+        assertEquals(students, run("grade <= A+"));
+        assertTrue(run("grade > A+").isEmpty());
+
+        ScoreIndex noScheme = new ScoreIndex(tree.getGradingPlan(), scores,
+                students, null);
+        assertTrue(ScoreQuery.parse("grade >= F").select(noScheme).isEmpty());
+    }
+
+    /**
+     * Phase 2: combining conditions.
+     */
+    @Test
+    public void testCombine() throws Exception {
+        assertEquals(Arrays.asList(ben),
+                run("percent \"Midterm 1\" < 60 and missing \"HW 2\""));
+        assertEquals(Arrays.asList(ann, dee),
+                run("missing \"Midterm 1\" or score \"HW 1\" >= 10"));
+        assertEquals(Arrays.asList(ben), run("NOT graded \"HW 2\""));
+        assertEquals(Arrays.asList(ann, ben),
+                run("(total < 50 or grade = A) and not missing \"Midterm 1\""));
+        // and binds tighter than or
+        assertEquals(Arrays.asList(ann, ben),
+                run("grade = A or total < 50 and graded \"Midterm 1\""));
+        assertEquals(Arrays.asList(cal, dee),
+                run("not (total < 50 and graded \"Midterm 1\") and total < 90"));
+    }
+
+    /**
+     * Phase 3: malformed queries and unknown names.
+     */
+    @Test
+    public void testErrors() {
+        String[] malformed = {"", "total <", "total >> 5", "total > five",
+                "percent \"Midterm 1 < 5", "grade >= E", "grade >= \"A\"",
+                "total > 5 extra", "(total > 5", "score < 5", "total ~ 5",
+                "and total > 5"};
+        for (String query : malformed) {
+            try {
+                ScoreQuery.parse(query);
+                fail(query);
+            }
+            catch (QueryFormatException e) {
+                assertEquals(query, e.getQuery());
+            }
+        }
+
+        try {
+            ScoreQuery.parse("missing Quiz or total > 5").select(index);
+            fail();
+        }
+        catch (QueryFormatException e) {
+            assertEquals(8, e.getPosition());
+        }
+        try {
+            run("subtotal Labs > 5");
+            fail();
+        }
+        catch (QueryFormatException e) {
+            assertEquals(9, e.getPosition());
+        }
+    }
+
+    /**
+     * Phase 4: groups and staleness.
+     */
+    @Test
+    public void testGroup() throws Exception {
+        Group group = ScoreQuery.parse("total < 50").toGroup("Struggling", index);
+        assertEquals("Struggling", group.groupName);
+        assertEquals(Arrays.asList(ben, dee), group.getStudents());
+        try {
+            ScoreQuery.parse("total > 100").toGroup("Nobody", index);
+            fail();
+        }
+        catch (MissingInputException e) {
+            // no student matched
+        }
+
+        assertTrue(index.isCurrent(tree.getGradingPlan(), scores, students, scheme));
+        assertFalse(index.isCurrent(tree.getGradingPlan(), scores,
+                Arrays.asList(ann, ben, dee, cal), scheme));
+        assertFalse(index.isCurrent(tree.getGradingPlan(), scores, students,
+                new GradeScheme()));
+        scores.addRawScore(ben, hw2, 10.0);
+        assertFalse(index.isCurrent(tree.getGradingPlan(), scores, students, scheme));
+    }
+
+    /**
+     * Phase 5: a large roster gives the same results as a plain scan.
+     */
+    @Test
+    public void testLargeRoster() throws Exception {
+        Random random = new Random(22);
+        List<Student> roster = new ArrayList<Student>();
+        DenseScores big = new DenseScores();
+        for (int i = 0; i < 3000; i++) {
+            Student student = new Student(new Name("Student", "", letters(i)));
+            roster.add(student);
+            if (random.nextInt(10) > 0)
+                big.addRawScore(student, hw1, random.nextInt(11));
+            if (random.nextInt(10) > 0)
+                big.addRawScore(student, hw2, random.nextInt(11));
+            if (random.nextInt(10) > 0)
+                big.addRawScore(student, midterm, random.nextInt(101));
+        }
+        ScoreIndex bigIndex = new ScoreIndex(tree.getGradingPlan(), big, roster, scheme);
+        List<Student> found = ScoreQuery.parse(
+                "percent \"Midterm 1\" < 60 and (missing \"HW 2\" or score \"HW 1\" <= 3)")
+                .select(bigIndex);
+
+        List<Student> expected = new ArrayList<Student>();
+        for (Student student : roster) {
+            boolean lowMidterm = big.hasRawScore(student, midterm)
+                    && big.getRawScore(student, midterm) < 60;
+            boolean missingHw2 = !big.hasRawScore(student, hw2);
+            boolean lowHw1 = big.hasRawScore(student, hw1)
+                    && big.getRawScore(student, hw1) <= 3;
+            if (lowMidterm && (missingHw2 || lowHw1))
+                expected.add(student);
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, found);
+    }
+
+    /**
+     * Spells a number in letters, since names may only hold letters.
+     */
+    private static String letters(int n) {
+        StringBuilder name = new StringBuilder("N");
+        do {
+            name.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return name.toString();
+    }
+}
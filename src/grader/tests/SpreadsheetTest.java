@@ -0,0 +1,130 @@
+package grader.tests;
+
+import grader.model.gradebook.Spreadsheet;
+import grader.model.gradebook.Spreadsheet.Change;
+import grader.model.gradebook.scores.DenseScores;
+import grader.model.gradebook.scores.ScoreChange;
+import grader.model.items.Assignment;
+import grader.model.items.AssignmentTree;
+import grader.model.items.Category;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The SpreadsheetTest class is the companion testing class for the
+ * Spreadsheet row model. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test the rows, headers, and cell text.
+ *
+ *    Phase 2: Unit test which change each kind of update reports.
+ *	                                       								 </pre>
+ */
+public class SpreadsheetTest {
+    private AssignmentTree tree;
+    private Category homework;
+    private Assignment hw1, hw2;
+    private Student ann, ben, cal;
+    private List<Student> students;
+    private DenseScores scores;
+    private Spreadsheet spreadsheet;
+
+    /**
+     * Sets up two assignments and three students, given out of order.
+     */
+    @Before
+    public void setUp() throws Exception {
+        TestCourse course = new TestCourse();
+        tree = course.tree;
+        homework = course.homework;
+        hw1 = course.hw1;
+        hw2 = course.hw2;
+
+        ann = TestCourse.student("Ann", "Adams");
+        ben = TestCourse.student("Ben", "Brown");
+        cal = TestCourse.student("Cal", "Clark");
+        students = new ArrayList<Student>(Arrays.asList(cal, ann, ben));
+
+        scores = course.scores;
+        scores.addRawScore(ann, hw1, 10.0);
+        scores.addRawScore(ben, hw1, 5.0);
+        scores.addRawScore(ben, hw2, 7.5);
+        spreadsheet = new Spreadsheet();
+    }
+
+    private Change update(ScoreChange last) {
+        return spreadsheet.update(tree.getAssignments(), tree.getGradingPlan(),
+                students, scores, last);
+    }
+
+    /**
+     * Phase 1: rows, headers, and cells.
+     */
+    @Test
+    public void testRows() {
+        assertEquals(Change.COLUMNS, update(null));
+        assertEquals(Arrays.asList(ann, ben, cal), spreadsheet.getStudents());
+        assertEquals(Arrays.asList(cal, ann, ben), students);
+        assertEquals(Arrays.asList("HW 1", "HW 2"), spreadsheet.getHeaders());
+        assertEquals(3, spreadsheet.getRowCount());
+        assertSame(cal, spreadsheet.getStudent(2));
+        assertEquals(1, spreadsheet.indexOf(ben));
+        assertEquals(-1, spreadsheet.indexOf(new Student(null)));
+
+        assertEquals("10.0", spreadsheet.getScoreText(ann, 0));
+        assertEquals("", spreadsheet.getScoreText(ann, 1));
+        assertEquals("7.5", spreadsheet.getScoreText(ben, 1));
+        assertEquals(7.5, spreadsheet.getRawScore(ben, 1).getScore(), 0.0);
+        assertNull(spreadsheet.getRawScore(ann, 1));
+        assertNull(spreadsheet.getRawScore(cal, 0));
+        assertEquals("62.5", Spreadsheet.formatTotal(62.5));
+        assertEquals("33.3", Spreadsheet.formatTotal(100.0 / 3));
+    }
+
+    /**
+     * Phase 2: the change each update reports.
+     */
+    @Test
+    public void testChanges() throws Exception {
+        assertEquals(Change.COLUMNS, update(null));
+        assertEquals(Change.NONE, update(null));
+
+        // one edit redraws one row
+        scores.updateRawScore(ben, hw1, 6.0);
+        ScoreChange last = new ScoreChange(ben, hw1, 5.0, 6.0, scores.getVersion());
+        assertEquals(Change.ROW, update(last));
+        assertEquals(1, spreadsheet.getChangedRow());
+        assertEquals("6.0", spreadsheet.getScoreText(ben, 0));
+        assertEquals(Change.NONE, update(last));
+        assertEquals(-1, spreadsheet.getChangedRow());
+
+        // two edits since the last update redraw every row
+        scores.updateRawScore(ben, hw1, 7.0);
+        scores.updateRawScore(ann, hw1, 9.0);
+        last = new ScoreChange(ann, hw1, 10.0, 9.0, scores.getVersion());
+        assertEquals(Change.CELLS, update(last));
+
+        // a reloaded scope re-sorts the rows
+        scores = new DenseScores();
+        assertEquals(Change.ROWS, update(null));
+
+        students.add(TestCourse.student("Abe", "Aaron"));
+        assertEquals(Change.ROWS, update(null));
+        assertEquals(0, spreadsheet.indexOf(students.get(3)));
+
+        Assignment quiz = new Assignment("Quiz", null, "10", "");
+        tree.addTo(homework, quiz);
+        assertEquals(Change.COLUMNS, update(null));
+        assertEquals(3, spreadsheet.getHeaders().size());
+
+        quiz.name = "Quiz 1";
+        assertEquals(Change.COLUMNS, update(null));
+        assertEquals("Quiz 1", spreadsheet.getHeaders().get(2));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -24,6 +25,12 @@ import static org.junit.Assert.*;
  *
  *    Phase 5: Stress test with expected input * 10.
  *
+ *    Phase 6: Unit test variance and standard deviation.
+ *
+ *    Phase 7: Unit test median and quartiles against a sorted copy.
+ *
+ *    Phase 8: Unit test the accumulator, primitive input, and empty input.
+ *
  * @author Quan Tran
  */
 public class StatisticsTest {
@@ -130,4 +137,73 @@ public class StatisticsTest {
         for (int i = 0; i < STRESS_COUNT; ++i)
             stats[i] = new Statistics(listB);
     }
-}
\ No newline at end of file
+
+    /**
+     * 6. Test the population variance and standard deviation.
+     */
+    @Test
+    public void testVariance() {
+        Statistics statsA = new Statistics(listA);
+
+        // multiples of ten from 0 to 100 have a variance of 1000
+        assertEquals(1000.0, statsA.variance, 1e-9);
+        assertEquals(Math.sqrt(1000.0), statsA.stddev, 1e-9);
+
+        double squares = 0.0;
+        for (double score : listB)
+            squares += (score - bMean) * (score - bMean);
+        assertEquals(squares / LIST_B_SIZE, new Statistics(listB).variance, 1e-9);
+    }
+
+    /**
+     * 7. Test the median and quartiles, including ties and sorted input.
+     */
+    @Test
+    public void testPercentiles() {
+        Statistics statsA = new Statistics(listA);
+        assertEquals(50.0, statsA.median, DELTA);
+        assertEquals(25.0, statsA.q1, DELTA);
+        assertEquals(75.0, statsA.q3, DELTA);
+
+        double[] sorted = new double[LIST_B_SIZE];
+        for (int i = 0; i < LIST_B_SIZE; ++i)
+            sorted[i] = listB.get(i);
+        Arrays.sort(sorted);
+        Statistics statsB = new Statistics(listB);
+        assertEquals((sorted[49] + sorted[50]) / 2, statsB.median, DELTA);
+        assertEquals(sorted[24] + 0.75 * (sorted[25] - sorted[24]), statsB.q1, DELTA);
+        assertEquals(sorted[74] + 0.25 * (sorted[75] - sorted[74]), statsB.q3, DELTA);
+
+        // sorted input and ties
+        Statistics statsC = new Statistics(new double[] {1, 2, 2, 2, 2, 2, 3, 9});
+        assertEquals(2.0, statsC.median, DELTA);
+        assertEquals(2.0, statsC.q1, DELTA);
+        assertEquals(2.25, statsC.q3, DELTA);
+    }
+
+    /**
+     * 8. Test building from the accumulator and from arrays, leaving the
+     * input untouched, and empty input.
+     */
+    @Test
+    public void testAccumulator() {
+        Statistics.Accumulator acc = new Statistics.Accumulator(1);
+        for (double score : listB)
+            acc.add(score);
+        Statistics statsB = acc.build();
+        assertEquals(LIST_B_SIZE, statsB.count);
+        assertEquals(bMin, statsB.min, DELTA);
+        assertEquals(bMax, statsB.max, DELTA);
+        assertEquals(bMean, statsB.mean, 1e-9);
+
+        double[] scores = {5.0, 1.0, 3.0};
+        Statistics small = new Statistics(scores);
+        assertEquals(3.0, small.median, DELTA);
+        assertArrayEquals(new double[] {5.0, 1.0, 3.0}, scores, DELTA);
+
+        Statistics empty = new Statistics(new double[0]);
+        assertEquals(0, empty.count);
+        assertTrue(Double.isNaN(empty.mean));
+        assertTrue(Double.isNaN(empty.median));
+    }
+}
@@ -0,0 +1,119 @@
+package grader.tests;
+
+import grader.model.gradebook.Course;
+import grader.model.gradebook.Gradebook;
+import grader.model.gradebook.Section;
+import grader.model.gradebook.WorkSpace;
+import grader.model.gradebook.scores.Scores;
+import grader.model.gradebook.stats.Statistics;
+import grader.model.gradebook.stats.StatsContainer;
+import grader.model.items.Assignment;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the StatsContainer class.
+ * It implements the following module test plan:
+ *
+ *    Phase 1: Unit test single score edits adjusting only their column.
+ *
+ *    Phase 2: Unit test scope changes, reverts, and reordered rosters
+ *             rebuilding every column.
+ */
+public class StatsContainerTest {
+    private static final double DELTA = 1e-9;
+
+    private StatsContainer stats;
+    private Course course;
+    private Section section;
+    private Student student;
+    private Assignment assignment;
+
+    /**
+     * Selects the first section of the canned gradebook.
+     */
+    @Before
+    public void setUp() {
+        Gradebook canned = WorkSpace.instance.getGradebook();
+        course = canned.courses.get(0);
+        section = course.sections.get(0);
+        student = section.getStudents().get(0);
+        assignment = course.getAssignmentTree().getAssignments().get(0);
+        stats = WorkSpace.instance.statistics;
+        WorkSpace.instance.sidebarSelect(course, section, null);
+    }
+
+    /**
+     * Checks that the stats for an assignment match a fresh computation.
+     */
+    private void assertFresh(Assignment assignment) {
+        List<Student> students = WorkSpace.instance.getStudents();
+        Scores scores = WorkSpace.instance.getScores();
+        double[] column = new double[students.size()];
+        for (int i = 0; i < column.length; ++i)
+            column[i] = scores.getRawScore(students.get(i), assignment);
+        Statistics expected = new Statistics(column);
+        Statistics actual = stats.getStatistics(assignment);
+        assertEquals(expected.mean, actual.mean, DELTA);
+        assertEquals(expected.max, actual.max, DELTA);
+        assertEquals(expected.median, actual.median, DELTA);
+
+        Statistics totals = new Statistics(WorkSpace.instance.getTotals());
+        assertEquals(totals.mean, stats.getTotalGradeStatistics().mean, DELTA);
+    }
+
+    /**
+     * 1. Test that updates, undos, and redos adjust a single column.
+     */
+    @Test
+    public void testSingleEdits() {
+        int rebuilds = stats.getRebuildCount();
+        int updates = stats.getColumnUpdateCount();
+
+        WorkSpace.instance.updateGrade(student, assignment, 1000.0);
+        assertEquals(1000.0, stats.getStatistics(assignment).max, DELTA);
+        assertFresh(assignment);
+        WorkSpace.instance.undo();
+        assertFresh(assignment);
+        WorkSpace.instance.redo();
+        assertFresh(assignment);
+
+        assertEquals(rebuilds, stats.getRebuildCount());
+        assertEquals(updates + 3, stats.getColumnUpdateCount());
+        WorkSpace.instance.revertGrades();
+    }
+
+    /**
+     * 2. Test that scope changes and reverts rebuild the columns.
+     */
+    @Test
+    public void testRebuilds() {
+        int rebuilds = stats.getRebuildCount();
+        WorkSpace.instance.updateGrade(student, assignment, 0.0);
+        WorkSpace.instance.revertGrades();
+        assertEquals(rebuilds + 1, stats.getRebuildCount());
+        assertFresh(assignment);
+
+        // the same number of students, in another order
+        java.util.Collections.swap(section.getStudents(), 0, 1);
+        try {
+            stats.update();
+            assertEquals(rebuilds + 2, stats.getRebuildCount());
+            assertFresh(assignment);
+        }
+        finally {
+            java.util.Collections.swap(section.getStudents(), 0, 1);
+        }
+        stats.update();
+        assertEquals(rebuilds + 3, stats.getRebuildCount());
+
+        WorkSpace.instance.sidebarSelect(course, null, null);
+        assertEquals(rebuilds + 4, stats.getRebuildCount());
+        assertFresh(assignment);
+    }
+}
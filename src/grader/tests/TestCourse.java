@@ -0,0 +1,76 @@
+package grader.tests;
+
+import grader.model.gradebook.scores.DenseScores;
+import grader.model.items.Assignment;
+import grader.model.items.AssignmentTree;
+import grader.model.items.Category;
+import grader.model.people.Name;
+import grader.model.people.Student;
+
+/**
+ * The TestCourse class builds the small course shared by the unit tests
+ * that need an assignment tree and scores but not the canned Gradebook:
+ * a Homework category worth 100% holding HW 1 and HW 2, worth 10 points
+ * each, and no scores yet.  Each test adds the students, scores, and any
+ * other assignments its cases call for.
+ */
+class TestCourse {
+    final AssignmentTree tree = new AssignmentTree();
+    final Category homework;
+    final Assignment hw1, hw2;
+    final DenseScores scores = new DenseScores();
+
+    /**
+     * Builds the Homework category and its two assignments.
+     */
+    TestCourse() {
+        this("100");
+    }
+
+    /**
+     * Builds the Homework category, with the given weight, and its two
+     * assignments.
+     * @param weight weight of the Homework category
+     */
+    TestCourse(String weight) {
+        homework = addCategory(null, "Homework", weight);
+        hw1 = addAssignment(homework, "HW 1", "10");
+        hw2 = addAssignment(homework, "HW 2", "10");
+    }
+
+    /**
+     * Adds a category to the tree.
+     * @param parent category to add to, or null for the top level
+     * @param name name of the category
+     * @param weight weight of the category
+     * @return the new category
+     */
+    Category addCategory(Category parent, String name, String weight) {
+        Category category = new Category(name, weight, false);
+        tree.addTo(parent, category);
+        return category;
+    }
+
+    /**
+     * Adds an assignment to the tree.
+     * @param parent category to add to
+     * @param name name of the assignment
+     * @param points points the assignment is worth
+     * @return the new assignment
+     */
+    Assignment addAssignment(Category parent, String name, String points) {
+        Assignment assignment = new Assignment(name, null, points, "");
+        tree.addTo(parent, assignment);
+        return assignment;
+    }
+
+    /**
+     * Makes a student with no middle name.
+     * @param first first name
+     * @param last last name
+     * @return the new student
+     */
+    static Student student(String first, String last) {
+        return new Student(new Name(first, "", last));
+    }
+}
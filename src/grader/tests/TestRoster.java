@@ -0,0 +1,42 @@
+package grader.tests;
+
+import grader.model.errors.InvalidPhoneNumberException;
+import grader.model.errors.InvalidUserIDException;
+import grader.model.people.Name;
+import grader.model.people.Student;
+
+import java.util.Random;
+
+/**
+ * The TestRoster class builds the small roster shared by the unit tests
+ * that search for students: Jane Quinn Doe, John Smith, Mary Johnson,
+ * and Jon Doe, who shares Jane's last name.  None of them is enrolled
+ * anywhere yet; each test adds them to the sections its cases call for.
+ */
+class TestRoster {
+    final Student jane, john, mary, jon;
+
+    /**
+     * Builds the four students.
+     */
+    TestRoster() throws InvalidPhoneNumberException, InvalidUserIDException {
+        jane = new Student(new Name("Jane", "Quinn", "Doe"), "jdoe", "");
+        john = new Student(new Name("John", "", "Smith"), "jsmith", "");
+        mary = new Student(new Name("Mary", "", "Johnson"), "mjohnson", "");
+        jon = new Student(new Name("Jon", "", "Doe"), "jondoe", "");
+    }
+
+    /**
+     * Makes a random lower case word over a small alphabet, so that
+     * queries against a large roster have many partial matches.
+     * @param random source of the letters
+     * @return the new word
+     */
+    static String word(Random random) {
+        char[] letters = new char[4 + random.nextInt(5)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(letters);
+    }
+}
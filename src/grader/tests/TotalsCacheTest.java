@@ -0,0 +1,179 @@
+package grader.tests;
+
+import grader.model.gradebook.TotalsCache;
+import grader.model.gradebook.scores.DenseScores;
+import grader.model.gradebook.scores.ScoreChange;
+import grader.model.items.Assignment;
+import grader.model.items.AssignmentTree;
+import grader.model.items.Category;
+import grader.model.people.Student;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The TotalsCacheTest class is the companion testing class for the grader
+ * TotalsCache. It implements the following module test plan:
+ *									                                       <pre>
+ *    Phase 1: Unit test repeated lookups being answered from the cache.
+ *
+ *    Phase 2: Unit test invalidation by score changes, tree changes, new
+ *             Scores objects, and roster changes.
+ *
+ *    Phase 3: Unit test single student lookups after the roster is reordered
+ *             or a student is replaced.
+ *
+ *    Phase 4: Unit test applying single score changes in place, including
+ *             category subtotals.
+ *	                                       								 </pre>
+ */
+public class TotalsCacheTest {
+    private static final double DELTA = 1e-9;
+
+    private TotalsCache cache;
+    private AssignmentTree tree;
+    private Category homework;
+    private Assignment hw1, hw2;
+    private Student alice, bob;
+    private List<Student> students;
+    private DenseScores scores;
+
+    /**
+     * Sets up two students with two homework assignments worth 10 points each.
+     */
+    @Before
+    public void setUp() throws Exception {
+        cache = new TotalsCache();
+        TestCourse course = new TestCourse();
+        tree = course.tree;
+        homework = course.homework;
+        hw1 = course.hw1;
+        hw2 = course.hw2;
+
+        alice = TestCourse.student("Alice", "Adams");
+        bob = TestCourse.student("Bob", "Brown");
+        students = new ArrayList<Student>();
+        students.add(bob);
+        students.add(alice);
+
+        scores = course.scores;
+        scores.addRawScore(alice, hw1, 10.0);
+        scores.addRawScore(alice, hw2, 10.0);
+        scores.addRawScore(bob, hw1, 5.0);
+        scores.addRawScore(bob, hw2, 0.0);
+    }
+
+    /**
+     * 1. Test that unchanged inputs are answered from the cache.
+     */
+    @Test
+    public void testHits() {
+        double[] first = cache.getTotals(tree, scores, students);
+        assertEquals(25.0, first[0], DELTA);
+        assertEquals(100.0, first[1], DELTA);
+
+        double[] second = cache.getTotals(tree, scores, students);
+        assertSame(first, second);
+        cache.getTotal(tree, scores, students, alice);
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    /**
+     * 2. Test that every kind of change forces a recomputation.
+     */
+    @Test
+    public void testInvalidation() {
+        cache.getTotals(tree, scores, students);
+
+        scores.updateRawScore(bob, hw2, 10.0);
+        assertEquals(75.0, cache.getTotals(tree, scores, students)[0], DELTA);
+        assertEquals(2, cache.getMisses());
+
+        scores.getScoresMap(bob).get(hw1).setScore(10.0);
+        assertEquals(100.0, cache.getTotals(tree, scores, students)[0], DELTA);
+        assertEquals(3, cache.getMisses());
+
+        Assignment hw3 = new Assignment("HW 3", null, "10", "");
+        tree.addTo(homework, hw3);
+        assertEquals(200.0 / 3, cache.getTotals(tree, scores, students)[1], DELTA);
+        assertEquals(4, cache.getMisses());
+
+        cache.getTotals(tree, scores.copy(), students);
+        assertEquals(5, cache.getMisses());
+
+        students.remove(bob);
+        assertEquals(1, cache.getTotals(tree, scores, students).length);
+        assertEquals(6, cache.getMisses());
+
+        cache.invalidate();
+        cache.getTotals(tree, scores, students);
+        assertEquals(7, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    /**
+     * 3. Test looking up single students after the roster is sorted or a
+     * student is replaced, and students outside the roster.
+     */
+    @Test
+    public void testGetTotal() {
+        cache.getTotals(tree, scores, students);
+        Collections.sort(students);
+        assertEquals(100.0, cache.getTotals(tree, scores, students)[0], DELTA);
+        assertEquals(25.0, cache.getTotal(tree, scores, students, bob), DELTA);
+        assertEquals(100.0, cache.getTotal(tree, scores, students, alice), DELTA);
+        assertEquals(2, cache.getMisses());
+
+        // same size, different student
+        Student carol = TestCourse.student("Carol", "Clark");
+        scores.addRawScore(carol, hw1, 10.0);
+        students.set(1, carol);
+        assertEquals(50.0, cache.getTotals(tree, scores, students)[1], DELTA);
+        assertEquals(3, cache.getMisses());
+        assertEquals(25.0, cache.getTotal(tree, scores, students, bob), DELTA);
+    }
+
+    /**
+     * 4. Test that a reported score change adjusts the totals and subtotals
+     * in place, and agrees with recomputing from scratch.
+     */
+    @Test
+    public void testScoreChanged() {
+        Category extra = new Category("Extra", "0", false);
+        tree.addTo(homework, extra);
+        Assignment bonus = new Assignment("Bonus", null, "10", "");
+        tree.addTo(extra, bonus);
+        scores.addRawScore(bob, bonus, 0.0);
+
+        double[] totals = cache.getTotals(tree, scores, students);
+        assertEquals(25.0, cache.getSubtotal(tree, scores, students, bob, homework), DELTA);
+
+        double old = scores.getRawScore(bob, hw2);
+        scores.updateRawScore(bob, hw2, 8.0);
+        cache.scoreChanged(tree, scores,
+                new ScoreChange(bob, hw2, old, 8.0, scores.getVersion()));
+        assertEquals(1, cache.getUpdates());
+        assertSame(totals, cache.getTotals(tree, scores, students));
+        assertEquals(65.0, totals[0], DELTA);
+        assertEquals(65.0, cache.getSubtotal(tree, scores, students, bob, homework), DELTA);
+        assertEquals(0.0, cache.getSubtotal(tree, scores, students, bob, extra), DELTA);
+        assertEquals(1, cache.getMisses());
+
+        // a change the cache was not told about forces a recomputation
+        scores.updateRawScore(alice, hw1, 0.0);
+        old = scores.getRawScore(bob, hw1);
+        scores.updateRawScore(bob, hw1, 0.0);
+        cache.scoreChanged(tree, scores,
+                new ScoreChange(bob, hw1, old, 0.0, scores.getVersion()));
+        assertEquals(1, cache.getUpdates());
+        assertEquals(40.0, cache.getTotal(tree, scores, students, bob), DELTA);
+        assertEquals(50.0, cache.getTotal(tree, scores, students, alice), DELTA);
+        assertEquals(2, cache.getMisses());
+    }
+}